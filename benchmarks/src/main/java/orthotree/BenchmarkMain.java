@@ -0,0 +1,29 @@
+package orthotree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * benchmarks.jar 的進入點：參數與 JMH 命令列相同（-h 列出所有選項），但預設加上
+ * <ul>
+ * <li>-prof gc：回報每次操作的配置量與配置速率（gc.alloc.rate、gc.alloc.rate.norm）</li>
+ * <li>-rf json -rff jmh-result.json：結果寫成 JSON，作為效能回歸比較的基準</li>
+ * </ul>
+ * 命令列已指定 -prof 或 -rf 時以命令列為準。
+ */
+public class BenchmarkMain {
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<>(Arrays.asList(args));
+		if (!options.contains("-prof")) {
+			options.addAll(List.of("-prof", "gc"));
+		}
+		if (!options.contains("-rf")) {
+			options.addAll(List.of("-rf", "json"));
+			if (!options.contains("-rff")) {
+				options.addAll(List.of("-rff", "jmh-result.json"));
+			}
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+	}
+}
\ No newline at end of file
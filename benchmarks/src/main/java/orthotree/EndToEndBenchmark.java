@@ -0,0 +1,30 @@
+package orthotree;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** 端到端：由點與障礙物清單開始，依序建立點集合、可見性檢查器、MST 與樹狀佈局（與 GUI 的流程相同，但不繪圖） */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EndToEndBenchmark {
+
+	@Benchmark
+	public Map<Node, Point> pipeline(Workload w) {
+		PointSet pointSet = PointSet.of(w.points, w.pointToNodeMap);
+		VisibilityChecker checker = new VisibilityChecker(w.obstacles);
+		List<Edge> mstEdges = KruskalMST.findMST(pointSet, checker);
+		return TreeLayoutCalculator.calculateLayout(pointSet, mstEdges, LayoutBenchmark.PANEL_WIDTH, LayoutBenchmark.PANEL_HEIGHT, w.root);
+	}
+}
\ No newline at end of file
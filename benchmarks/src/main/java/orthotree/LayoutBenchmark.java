@@ -0,0 +1,57 @@
+package orthotree;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** 佈局階段：MST 在 Workload 中預先算好，只量測由 MST 邊到節點座標的時間 */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LayoutBenchmark {
+	static final int PANEL_WIDTH = 800;
+	static final int PANEL_HEIGHT = 1000;
+
+	/** 由 MST 邊建立有根森林（兩種佈局共用的前置步驟） */
+	@Benchmark
+	public RootedForest rootedForest(Workload w) {
+		return RootedForest.build(w.pointSet, w.mstEdges, w.root);
+	}
+
+	@Benchmark
+	public Map<Node, Point> treeLayoutCalculator(Workload w) {
+		return TreeLayoutCalculator.calculateLayout(w.pointSet, w.mstEdges, PANEL_WIDTH, PANEL_HEIGHT, w.root);
+	}
+
+	/** 多個元件的森林，單執行緒 */
+	@Benchmark
+	public double[] forestLayout(Workload w) {
+		double[] x = new double[w.pointSet.size];
+		double[] y = new double[w.pointSet.size];
+		TreeLayoutCalculator.layout(w.forest, PANEL_HEIGHT, x, y, 1);
+		return x;
+	}
+
+	/** 同 forestLayout，各棵樹在所有可用處理器上平行佈局 */
+	@Benchmark
+	public double[] forestLayoutParallel(Workload w) {
+		double[] x = new double[w.pointSet.size];
+		double[] y = new double[w.pointSet.size];
+		TreeLayoutCalculator.layout(w.forest, PANEL_HEIGHT, x, y, 0);
+		return x;
+	}
+
+	@Benchmark
+	public Map<Node, Point> buchheim(Workload w) {
+		return BuchheimTreeLayout.calculateLayout(w.pointSet, w.mstEdges, PANEL_WIDTH, PANEL_HEIGHT, w.root);
+	}
+}
\ No newline at end of file
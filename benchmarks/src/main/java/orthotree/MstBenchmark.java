@@ -0,0 +1,136 @@
+package orthotree;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MST 階段：各 MST 引擎（含可見性檢查）、只有排序與合併的 Kruskal，以及聯集-尋找結構本身。 可見性檢查器在 Workload 中預先建好，不計入時間。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MstBenchmark {
+
+	/** 列舉所有點對並檢查可見性，再排序、合併（單執行緒） */
+	@Benchmark
+	public List<Edge> kruskal(Workload w) {
+		return KruskalMST.findMST(w.pointSet, w.checker);
+	}
+
+	/** 同 kruskal，以所有可用處理器平行列舉點對 */
+	@Benchmark
+	public List<Edge> kruskalParallel(Workload w) {
+		return KruskalMST.findMST(w.pointSet, w.checker, 0);
+	}
+
+	@Benchmark
+	public List<Edge> filterKruskal(Workload w) {
+		return FilterKruskal.findMST(w.pointSet, w.checker);
+	}
+
+	@Benchmark
+	public List<Edge> delaunay(Workload w) {
+		return DelaunayMST.findMST(w.pointSet, w.checker);
+	}
+
+	/** 平行 Borůvka：以點的網格索引搜尋各元件的最輕外連邊，使用所有可用處理器 */
+	@Benchmark
+	public List<Edge> boruvka(Workload w) {
+		return BoruvkaMST.findMST(w.pointSet, w.checker);
+	}
+
+	/** 同 boruvka，單執行緒 */
+	@Benchmark
+	public List<Edge> boruvkaSingleThread(Workload w) {
+		return BoruvkaMST.findMST(w.pointSet, w.checker, 1);
+	}
+
+	/** 隱式完全圖上的 Prim：O(n²) 時間、O(n) 記憶體，只在能改善最佳邊時檢查可見性 */
+	@Benchmark
+	public List<Edge> densePrim(Workload w) {
+		return DensePrimMST.findMST(w.pointSet, w.checker);
+	}
+
+	/** 同 densePrim，以所有可用處理器平行掃描剩餘的點 */
+	@Benchmark
+	public List<Edge> densePrimParallel(Workload w) {
+		return DensePrimMST.findMST(w.pointSet, w.checker, 0);
+	}
+
+	/** 以繞每個點的旋轉掃描建立可見性圖再做 Kruskal，使用所有可用處理器 */
+	@Benchmark
+	public List<Edge> visibilitySweep(Workload w) {
+		return VisibilitySweep.findMST(w.pointSet, w.checker);
+	}
+
+	/** 同 visibilitySweep，單執行緒 */
+	@Benchmark
+	public List<Edge> visibilitySweepSingleThread(Workload w) {
+		return VisibilitySweep.findMST(w.pointSet, w.checker, 1);
+	}
+
+	/** 近似 MST：每個點只考慮最近的 ApproximateMST.DEFAULT_NEIGHBORS 個點，使用所有可用處理器 */
+	@Benchmark
+	public List<Edge> approximate(Workload w) {
+		return ApproximateMST.findMST(w.pointSet, w.checker, ApproximateMST.DEFAULT_NEIGHBORS);
+	}
+
+	/** 只量測排序與合併：可見的點對已預先列舉好 */
+	@Benchmark
+	public EdgeList sortAndUnion(Workload w) {
+		EdgeList edges = w.unsortedCandidates();
+		edges.sortByWeight();
+		return edges.kruskalEdges();
+	}
+
+	/** 預先建好的可見性圖換用權重：只有計算權重、排序與合併（歐氏距離平方，結果同 kruskal） */
+	@Benchmark
+	public EdgeList visibilityGraphSquaredEuclidean(Workload w) {
+		return KruskalMST.findMSTEdges(w.visibilityGraph, VisibilityGraph.Weight.SQUARED_EUCLIDEAN);
+	}
+
+	/** 同 visibilityGraphSquaredEuclidean，以直角 (L1) 距離為權重 */
+	@Benchmark
+	public EdgeList visibilityGraphManhattan(Workload w) {
+		return KruskalMST.findMSTEdges(w.visibilityGraph, VisibilityGraph.Weight.MANHATTAN);
+	}
+
+	/** 以編號運算的聯集-尋找，依權重順序處理所有可見點對 */
+	@Benchmark
+	public int intUnionFind(Workload w) {
+		EdgeList edges = w.sortedCandidates;
+		IntUnionFind unionFind = new IntUnionFind(edges.vertexCount);
+		int merged = 0;
+		for (int k = 0; k < edges.size; k++) {
+			if (unionFind.union(edges.src[k], edges.dst[k])) {
+				merged++;
+			}
+		}
+		return merged;
+	}
+
+	/** 以節點物件運算的聯集-尋找（UnionFind），與 intUnionFind 相同的邊 */
+	@Benchmark
+	public int nodeUnionFind(Workload w) {
+		EdgeList edges = w.sortedCandidates;
+		Node[] nodes = edges.nodes;
+		UnionFind unionFind = new UnionFind(List.of(nodes));
+		int merged = 0;
+		for (int k = 0; k < edges.size; k++) {
+			if (unionFind.union(nodes[edges.src[k]], nodes[edges.dst[k]])) {
+				merged++;
+			}
+		}
+		return merged;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package orthotree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** 可見性階段：障礙物索引的建立、單次相交測試、批次相交測試與點對可見性查詢 */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector" })
+public class VisibilityBenchmark {
+
+	/** 建立障礙物的網格索引（VisibilityChecker 建構時的成本） */
+	@Benchmark
+	public VisibilityChecker buildChecker(Workload w) {
+		return new VisibilityChecker(w.obstacles);
+	}
+
+	/** 每次查詢一個點對，平均每次查詢的時間 */
+	@Benchmark
+	@OperationsPerInvocation(Workload.QUERIES)
+	public int isVisible(Workload w) {
+		int visible = 0;
+		for (int q = 0; q < Workload.QUERIES; q++) {
+			if (w.checker.isVisible(w.pointSet, w.queryFrom[q], w.queryTo[q])) {
+				visible++;
+			}
+		}
+		return visible;
+	}
+
+	/** 以線段物件呼叫 GeometryUtils.doIntersect：每個查詢路徑對每條障礙物（不經過網格） */
+	@Benchmark
+	@OperationsPerInvocation(Workload.QUERIES)
+	public int doIntersectSegments(Workload w) {
+		int hits = 0;
+		int m = w.obstacles.size();
+		for (int q = 0; q < Workload.QUERIES; q++) {
+			LineSegment path = new LineSegment(w.pointSet.point(w.queryFrom[q]), w.pointSet.point(w.queryTo[q]));
+			if (m > 0 && GeometryUtils.doIntersect(path, w.obstacles.get(q % m))) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	/** 以座標呼叫 GeometryUtils.doIntersect，與 doIntersectSegments 相同的點對與障礙物 */
+	@Benchmark
+	@OperationsPerInvocation(Workload.QUERIES)
+	public int doIntersectCoordinates(Workload w) {
+		int hits = 0;
+		int m = w.obstacles.size();
+		double[] xs = w.pointSet.xs, ys = w.pointSet.ys;
+		for (int q = 0; q < Workload.QUERIES; q++) {
+			if (m == 0) {
+				break;
+			}
+			LineSegment s = w.obstacles.get(q % m);
+			int i = w.queryFrom[q], j = w.queryTo[q];
+			if (GeometryUtils.doIntersect(xs[i], ys[i], xs[j], ys[j], s.p1.x, s.p1.y, s.p2.x, s.p2.y)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	/** 批次相交測試（向量化版本可用時使用它）：每個查詢路徑對全部障礙物，找到第一條相交的為止 */
+	@Benchmark
+	@OperationsPerInvocation(Workload.QUERIES)
+	public int firstIntersectionBatch(Workload w) {
+		int hits = 0;
+		double[] xs = w.pointSet.xs, ys = w.pointSet.ys;
+		for (int q = 0; q < Workload.QUERIES; q++) {
+			int i = w.queryFrom[q], j = w.queryTo[q];
+			if (GeometryUtils.firstIntersection(xs[i], ys[i], xs[j], ys[j], w.obstacleX1, w.obstacleY1, w.obstacleX2, w.obstacleY2, 0, w.obstacleX1.length) >= 0) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	/** 與 firstIntersectionBatch 相同的輸入，固定使用純量迴圈 */
+	@Benchmark
+	@OperationsPerInvocation(Workload.QUERIES)
+	public int firstIntersectionScalar(Workload w) {
+		int hits = 0;
+		double[] xs = w.pointSet.xs, ys = w.pointSet.ys;
+		for (int q = 0; q < Workload.QUERIES; q++) {
+			int i = w.queryFrom[q], j = w.queryTo[q];
+			if (GeometryUtils.firstIntersectionScalar(xs[i], ys[i], xs[j], ys[j], w.obstacleX1, w.obstacleY1, w.obstacleX2, w.obstacleY2, 0, w.obstacleX1.length) >= 0) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package orthotree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 所有基準測試共用的輸入：依點數、障礙物數與分布產生固定亂數種子的點與障礙物，並預先算好各階段需要的中間結果， 讓每個基準測試只量測自己的階段。
+ *
+ * 分布：
+ * <ul>
+ * <li>uniform：點與障礙物都均勻分布</li>
+ * <li>clustered：點集中在數個高斯群集中，障礙物均勻分布</li>
+ * <li>corridor：障礙物排成數道水平牆，每道牆由多段組成、段與段之間留有門縫，點均勻分布在走廊中</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class Workload {
+	/** 場景邊長 */
+	static final double SIDE = 100;
+	/** 固定種子，讓每次執行的輸入完全相同 */
+	static final long SEED = 42;
+	/** 可見性查詢基準測試每次呼叫檢查的點對數 */
+	static final int QUERIES = 1024;
+
+	@Param({ "500", "2000" })
+	public int pointCount;
+
+	@Param({ "50", "500" })
+	public int obstacleCount;
+
+	@Param({ "uniform", "clustered", "corridor" })
+	public String distribution;
+
+	List<Point> points;
+	List<LineSegment> obstacles;
+	Map<Point, Node> pointToNodeMap;
+	PointSet pointSet;
+	VisibilityChecker checker;
+	Node root;
+
+	/** 可見性查詢的點對編號 */
+	int[] queryFrom, queryTo;
+	/** 障礙物端點座標，依 obstacles 的順序分成四個陣列（批次相交測試的輸入） */
+	double[] obstacleX1, obstacleY1, obstacleX2, obstacleY2;
+
+	/** 所有可見點對，依列舉順序（未排序）；排序時不會改寫這些陣列 */
+	int[] candidateSrc, candidateDst;
+	double[] candidateWeight;
+	/** 同一組邊依權重排序後的結果，供聯集-尋找基準測試使用 */
+	EdgeList sortedCandidates;
+	/** 同一組可見點對的位元矩陣或鄰接表，供換用權重的基準測試使用 */
+	VisibilityGraph visibilityGraph;
+
+	List<Edge> mstEdges;
+	/** MST 去掉最重的 2% 邊後的森林（多個互相獨立的元件），供森林佈局的基準測試使用 */
+	RootedForest forest;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		points = generatePoints(random);
+		obstacles = generateObstacles(random);
+		pointToNodeMap = points.stream().collect(Collectors.toMap(p -> p, Node::new, (existing, replacement) -> existing));
+		pointSet = PointSet.of(points, pointToNodeMap);
+		checker = new VisibilityChecker(obstacles);
+		root = pointSet.nodes[0];
+
+		queryFrom = new int[QUERIES];
+		queryTo = new int[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			queryFrom[q] = random.nextInt(pointSet.size);
+			queryTo[q] = random.nextInt(pointSet.size);
+		}
+
+		int m = obstacles.size();
+		obstacleX1 = new double[m];
+		obstacleY1 = new double[m];
+		obstacleX2 = new double[m];
+		obstacleY2 = new double[m];
+		for (int k = 0; k < m; k++) {
+			LineSegment s = obstacles.get(k);
+			obstacleX1[k] = s.p1.x;
+			obstacleY1[k] = s.p1.y;
+			obstacleX2[k] = s.p2.x;
+			obstacleY2[k] = s.p2.y;
+		}
+
+		EdgeList candidates = KruskalMST.buildEdgeList(pointSet, checker);
+		candidateSrc = Arrays.copyOf(candidates.src, candidates.size);
+		candidateDst = Arrays.copyOf(candidates.dst, candidates.size);
+		candidateWeight = Arrays.copyOf(candidates.weight, candidates.size);
+		sortedCandidates = unsortedCandidates();
+		sortedCandidates.sortByWeight();
+		visibilityGraph = VisibilityGraph.build(pointSet, checker, 1);
+
+		mstEdges = KruskalMST.findMST(pointSet, checker);
+		// Kruskal 的結果依權重遞增
+		forest = RootedForest.build(pointSet, mstEdges.subList(0, mstEdges.size() - mstEdges.size() / 50), root);
+	}
+
+	/** 一份新的未排序邊表，共用預先算好的陣列（sortByWeight 會換成新的陣列，不會改寫它們） */
+	EdgeList unsortedCandidates() {
+		EdgeList edges = new EdgeList(pointSet, 1);
+		edges.src = candidateSrc;
+		edges.dst = candidateDst;
+		edges.weight = candidateWeight;
+		edges.size = candidateSrc.length;
+		return edges;
+	}
+
+	private List<Point> generatePoints(Random random) {
+		List<Point> result = new ArrayList<>(pointCount);
+		switch (distribution) {
+		case "uniform":
+		case "corridor":
+			for (int i = 0; i < pointCount; i++) {
+				result.add(new Point(random.nextDouble() * SIDE, random.nextDouble() * SIDE));
+			}
+			break;
+		case "clustered":
+			int clusters = Math.max(2, pointCount / 200);
+			double[] cx = new double[clusters], cy = new double[clusters];
+			for (int c = 0; c < clusters; c++) {
+				cx[c] = SIDE * (0.1 + 0.8 * random.nextDouble());
+				cy[c] = SIDE * (0.1 + 0.8 * random.nextDouble());
+			}
+			double sigma = SIDE * 0.03;
+			for (int i = 0; i < pointCount; i++) {
+				int c = random.nextInt(clusters);
+				result.add(new Point(cx[c] + random.nextGaussian() * sigma, cy[c] + random.nextGaussian() * sigma));
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("未知的分布: " + distribution);
+		}
+		return result;
+	}
+
+	private List<LineSegment> generateObstacles(Random random) {
+		List<LineSegment> result = new ArrayList<>(obstacleCount);
+		if (obstacleCount == 0) {
+			return result;
+		}
+		if (distribution.equals("corridor")) {
+			// 每道牆由 perWall 段組成，段長的 15% 留作門縫
+			int walls = Math.max(2, (int) Math.sqrt(obstacleCount) / 2);
+			int perWall = (obstacleCount + walls - 1) / walls;
+			double piece = SIDE / perWall;
+			for (int k = 0; k < obstacleCount; k++) {
+				int wall = k / perWall;
+				int slot = k % perWall;
+				double y = SIDE * (wall + 1) / (walls + 1);
+				double x0 = slot * piece;
+				result.add(new LineSegment(new Point(x0, y), new Point(x0 + piece * 0.85, y)));
+			}
+			return result;
+		}
+		// 隨機方向的短線段，長度讓障礙物總長度與場景大小相當
+		double length = SIDE / Math.sqrt(obstacleCount) * 1.5;
+		for (int k = 0; k < obstacleCount; k++) {
+			double x = random.nextDouble() * SIDE, y = random.nextDouble() * SIDE;
+			double angle = random.nextDouble() * Math.PI;
+			double dx = Math.cos(angle) * length / 2, dy = Math.sin(angle) * length / 2;
+			result.add(new LineSegment(new Point(x - dx, y - dy), new Point(x + dx, y + dy)));
+		}
+		return result;
+	}
+}
\ No newline at end of file
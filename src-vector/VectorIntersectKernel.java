@@ -0,0 +1,76 @@
+// 29. 批次相交測試的向量化版本（jdk.incubator.vector）：一次以多個通道比較一條路徑與多條線段，結果與逐一呼叫 GeometryUtils.doIntersect 完全相同（相同的運算與比較）
+//     需以 --add-modules jdk.incubator.vector 編譯與執行；GeometryUtils 載入失敗時改用純量版本
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorIntersectKernel implements GeometryUtils.BatchKernel {
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	VectorIntersectKernel() {
+		// 只有一個通道時沒有好處，讓 GeometryUtils 改用純量版本
+		if (SPECIES.length() < 2) {
+			throw new IllegalStateException("向量寬度不足：" + SPECIES);
+		}
+	}
+
+	@Override
+	public int firstIntersection(double px, double py, double qx, double qy, double[] x1, double[] y1, double[] x2, double[] y2, int from, int to) {
+		if (to - from < SPECIES.length()) {
+			// 不足一個向量（例如網格中大部分的格子）
+			return GeometryUtils.firstIntersectionScalar(px, py, qx, qy, x1, y1, x2, y2, from, to);
+		}
+		int k = from;
+		for (int upper = from + SPECIES.loopBound(to - from); k < upper; k += SPECIES.length()) {
+			int lane = firstHit(px, py, qx, qy, x1, y1, x2, y2, k);
+			if (lane >= 0) {
+				return k + lane;
+			}
+		}
+		// 不足一個向量的尾端
+		return GeometryUtils.firstIntersectionScalar(px, py, qx, qy, x1, y1, x2, y2, k, to);
+	}
+
+	/**
+	 * 線段 [k, k + 通道數) 中第一條與路徑相交者的通道編號，沒有則回傳 -1。
+	 * 向量只存在於此方法內，且只處理沒有共線情形的一般相交：運算太多時 C2 會因為節點數過多而停止內聯向量運算，改為配置物件的慢速路徑。
+	 */
+	private static int firstHit(double px, double py, double qx, double qy, double[] x1, double[] y1, double[] x2, double[] y2, int k) {
+		DoubleVector pxV = DoubleVector.broadcast(SPECIES, px), pyV = DoubleVector.broadcast(SPECIES, py);
+		DoubleVector qxV = DoubleVector.broadcast(SPECIES, qx), qyV = DoubleVector.broadcast(SPECIES, qy);
+		DoubleVector ax = DoubleVector.fromArray(SPECIES, x1, k), ay = DoubleVector.fromArray(SPECIES, y1, k);
+		DoubleVector bx = DoubleVector.fromArray(SPECIES, x2, k), by = DoubleVector.fromArray(SPECIES, y2, k);
+
+		// 外接矩形相距夠遠的通道：與 GeometryUtils.boxGap 相同的運算（路徑為第一條線段），NaN 時同樣不排除
+		DoubleVector dyPath = qyV.sub(pyV), dxPath = qxV.sub(pxV);
+		DoubleVector dy = by.sub(ay), dx = bx.sub(ax);
+		DoubleVector gapX = ax.min(bx).sub(pxV.max(qxV)).max(pxV.min(qxV).sub(ax.max(bx)));
+		DoubleVector gapY = ay.min(by).sub(pyV.max(qyV)).max(pyV.min(qyV).sub(ay.max(by)));
+		DoubleVector extent = dxPath.abs().max(dyPath.abs()).min(dx.abs().max(dy.abs()));
+		VectorMask<Double> reject = gapX.max(gapY).mul(extent).compare(VectorOperators.GT, GeometryUtils.BOX_REJECT_EPSILON);
+		if (reject.allTrue()) {
+			return -1;
+		}
+
+		// 四個方向：val1、val2 為線段端點相對於路徑，val3、val4 為路徑端點相對於線段
+		DoubleVector val1 = ax.sub(qxV).mul(dyPath).sub(ay.sub(qyV).mul(dxPath));
+		DoubleVector val2 = bx.sub(qxV).mul(dyPath).sub(by.sub(qyV).mul(dxPath));
+		DoubleVector val3 = dy.mul(pxV.sub(bx)).sub(dx.mul(pyV.sub(by)));
+		DoubleVector val4 = dy.mul(qxV.sub(bx)).sub(dx.mul(qyV.sub(by)));
+
+		// 只要有通道出現共線（或座標含 NaN），整段交給純量版本（少見，且需要端點落在線段上的判斷）
+		DoubleVector epsilon = DoubleVector.broadcast(SPECIES, GeometryUtils.ORIENTATION_EPSILON);
+		if (!val1.abs().min(val2.abs()).min(val3.abs().min(val4.abs())).compare(VectorOperators.GE, epsilon).allTrue()) {
+			int hit = GeometryUtils.firstIntersectionScalar(px, py, qx, qy, x1, y1, x2, y2, k, k + SPECIES.length());
+			return hit >= 0 ? hit - k : -1;
+		}
+
+		// 此時沒有 NaN；方向不是 1 就是 2，未被排除且兩組方向值都異號即相交
+		// （絕對值至少為 ORIENTATION_EPSILON，乘積不會下溢為 0）
+		DoubleVector zero = DoubleVector.zero(SPECIES);
+		VectorMask<Double> hit = val1.mul(val2).compare(VectorOperators.LT, zero).and(val3.mul(val4).compare(VectorOperators.LT, zero)).andNot(reject);
+		return hit.anyTrue() ? hit.firstTrue() : -1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,296 @@
+// 32. 近似最小生成樹：每個點只連到最近的 k 個可見點，對這個稀疏圖做 Kruskal；仍不連通的元件再向外擴大搜尋最輕的可見外連邊
+//     不列舉全部點對，候選邊為 O(n · k)；結果不保證是 MST，可用 compareWithExact 與精確結果比較總權重
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ApproximateMST {
+	/** 預設的近鄰數 */
+	static final int DEFAULT_NEIGHBORS = 12;
+	/** 每個平行工作至少處理的點數 */
+	private static final int CHUNK = 512;
+	/** 近鄰不足 k 個時空下的位置；排序後在所有點對之後 */
+	static final long NONE = Long.MAX_VALUE;
+
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker, DEFAULT_NEIGHBORS);
+	}
+
+	/** 使用所有可用的處理器 */
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker, int neighbors) {
+		return findMST(points, checker, neighbors, 0);
+	}
+
+	/**
+	 * 以點的網格索引找出每個點最近的 neighbors 個可見點（逐環向外擴大，直到找到 neighbors 個或網格已搜尋完），將這些點對去除重複後依 (i, j) 排列做 Kruskal。
+	 * 被障礙物圍住、可見點少於 neighbors 個的點會搜尋整個網格。 樹邊中只保留兩端互為近鄰的邊，其餘元件再由最大元件以外的每個元件向外搜尋最輕的可見外連邊並合併，直到沒有元件能再合併。
+	 *
+	 * 精確 MST 的邊都在候選中時結果與 {@link KruskalMST#findMST(PointSet, VisibilityChecker)} 完全一致；一般而言總權重只略大。 結果與執行緒數無關。
+	 *
+	 * @param neighbors   每個點的近鄰數 k（8 ~ 16 通常已足夠）
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap, int neighbors, int parallelism) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker, neighbors, parallelism);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker, int neighbors, int parallelism) {
+		return findMSTEdges(points, checker, neighbors, parallelism).toEdges();
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker, int, int)}，結果以編號存放在邊表中（點集合不需要有 {@link Node}） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker, int neighbors, int parallelism) {
+		if (neighbors < 1) {
+			throw new IllegalArgumentException("近鄰數必須至少為 1: " + neighbors);
+		}
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		int n = points.size;
+		if (n < 2) {
+			return new EdgeList(points, 0);
+		}
+		PointGrid grid = new PointGrid(points);
+		int k = Math.min(neighbors, n - 1);
+
+		// 1) 每個點最近的 k 個可見點
+		long[] candidates = visibleNeighbors(points, checker, grid, k, threads);
+
+		// 2) 去除重複後依 (i, j) 排列，即 KruskalMST 列舉的順序；出現兩次的點對兩端互為近鄰
+		int count = candidates.length;
+		EdgeList.radixSort(candidates, new int[count], count);
+		while (count > 0 && candidates[count - 1] == NONE) {
+			count--;
+		}
+		EdgeList sparse = new EdgeList(points, count);
+		long[] mutual = new long[count / 2];
+		int mutualCount = 0;
+		for (int p = 0; p < count; p++) {
+			if (p == 0 || candidates[p] != candidates[p - 1]) {
+				int a = (int) (candidates[p] >>> 32), b = (int) candidates[p];
+				sparse.add(a, b, points.weight(a, b));
+			} else {
+				mutual[mutualCount++] = candidates[p];
+			}
+		}
+		sparse.sortByWeight();
+
+		// 3) Kruskal（候選都是可見的點對）。 樹邊只保留兩端互為近鄰者：單向的邊常是被障礙物擋住近鄰的點連到遠處（例如另一個群集）的長邊，
+		//    拿掉後由 ComponentConnector 為各元件重新找最輕的外連邊；被拿掉的邊本身就連接這些元件，因此總權重不會變大
+		IntUnionFind forest = new IntUnionFind(n);
+		IntUnionFind unionFind = new IntUnionFind(n);
+		long[] chosen = new long[n - 1];
+		int chosenCount = 0;
+		for (int e = 0; e < sparse.size && forest.components() > 1; e++) {
+			int a = sparse.src[e], b = sparse.dst[e];
+			if (forest.union(a, b)) {
+				long key = EdgeList.pairKey(a, b);
+				if (Arrays.binarySearch(mutual, 0, mutualCount, key) >= 0) {
+					unionFind.union(a, b);
+					chosen[chosenCount++] = key;
+				}
+			}
+		}
+		if (unionFind.components() > 1) {
+			chosenCount = new ComponentConnector(points, checker, grid, unionFind).run(chosen, chosenCount);
+		}
+
+		return EdgeList.fromPairKeys(points, chosen, chosenCount, VisibilityGraph.Weight.SQUARED_EUCLIDEAN);
+	}
+
+	/**
+	 * 每個點最近的 k 個可見點（依 (權重, 點編號)），以 pairKey 編碼存於 [a * k, a * k + k)，不足 k 個時其餘為 {@link #NONE}。
+	 *
+	 * @param threads 使用的執行緒數
+	 */
+	static long[] visibleNeighbors(PointSet points, VisibilityChecker checker, PointGrid grid, int k, int threads) {
+		int n = points.size;
+		long[] candidates = new long[Math.multiplyExact(n, k)];
+		Neighbors search = new Neighbors(points, checker, grid, k, candidates);
+		if (threads > 1 && n > CHUNK) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new NeighborTask(search, 0, n));
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			search.search(0, n);
+		}
+		return candidates;
+	}
+
+	/**
+	 * 與精確 MST 比較總權重；精確結果以 {@link BoruvkaMST} 計算（不建立全部點對的邊表，大量點時也可行，但仍需要完整的計算時間）。
+	 *
+	 * @param parallelism 計算精確結果使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	static Report compareWithExact(PointSet points, VisibilityChecker checker, EdgeList approximate, int parallelism) {
+		EdgeList exact = BoruvkaMST.findMSTEdges(points, checker, parallelism);
+		return new Report(totalWeight(approximate), approximate.size, totalWeight(exact), exact.size);
+	}
+
+	private static double totalWeight(EdgeList edges) {
+		double sum = 0;
+		for (int e = 0; e < edges.size; e++) {
+			sum += edges.weight[e];
+		}
+		return sum;
+	}
+
+	/** 近似結果與精確 MST 的總權重 */
+	static final class Report {
+		final double approximateWeight;
+		final int approximateEdges;
+		final double exactWeight;
+		final int exactEdges;
+
+		Report(double approximateWeight, int approximateEdges, double exactWeight, int exactEdges) {
+			this.approximateWeight = approximateWeight;
+			this.approximateEdges = approximateEdges;
+			this.exactWeight = exactWeight;
+			this.exactEdges = exactEdges;
+		}
+
+		/** 總權重的相對差（近似減精確，除以精確） */
+		double relativeDifference() {
+			return exactWeight > 0 ? (approximateWeight - exactWeight) / exactWeight : 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "近似 %.6g（%d 邊），精確 %.6g（%d 邊），相差 %+.4f%%", approximateWeight, approximateEdges, exactWeight, exactEdges, 100 * relativeDifference());
+		}
+	}
+
+	/** 可見近鄰搜尋；每個點的結果只寫入自己的位置，因此不同範圍的點可以同時搜尋 */
+	private static final class Neighbors {
+		private final PointSet points;
+		private final VisibilityChecker checker;
+		private final PointGrid grid;
+		private final int k;
+		private final long[] candidates;
+
+		Neighbors(PointSet points, VisibilityChecker checker, PointGrid grid, int k, long[] candidates) {
+			this.points = points;
+			this.checker = checker;
+			this.grid = grid;
+			this.k = k;
+			this.candidates = candidates;
+		}
+
+		/** 搜尋 [from, to) 範圍內的點；尚未確定的點存於此呼叫自己的堆積 */
+		void search(int from, int to) {
+			Pending pending = new Pending();
+			for (int a = from; a < to; a++) {
+				search(a, pending);
+			}
+		}
+
+		/**
+		 * 逐環掃描點 a 周圍的點放入堆積，再依 (權重, 點編號) 由近到遠取出比下一環的距離下界近的點（未掃描的點不可能更近）並檢查可見性，
+		 * 直到找到 k 個可見點；不足 k 個時一直搜尋到網格的邊界。 每個點只在輪到它時檢查一次，被擋住的較近點之外不做多餘的檢查。
+		 * 點落在障礙物上時看不到任何點，不搜尋。
+		 */
+		private void search(int a, Pending pending) {
+			int base = a * k, count = 0;
+			if (checker.isVisible(points, a, a)) {
+				PointGrid.RingCells cells = grid.ringCells();
+				pending.clear();
+				for (int ring = 0, maxRing = grid.maxRing(a); ring <= maxRing && count < k; ring++) {
+					for (int cell = cells.first(a, ring); cell >= 0; cell = cells.next()) {
+						for (int p = grid.cellStart[cell], end = grid.cellStart[cell + 1]; p < end; p++) {
+							int b = grid.cellItems[p];
+							if (b != a) {
+								pending.push(points.weight(a, b), b);
+							}
+						}
+					}
+					double next = ring < maxRing ? grid.ringDistance(ring + 1) : Double.POSITIVE_INFINITY;
+					while (count < k && pending.size > 0 && pending.weight[0] < next * next) {
+						int b = pending.pop();
+						if (checker.isVisible(points, a, b)) {
+							candidates[base + count++] = EdgeList.pairKey(a, b);
+						}
+					}
+				}
+			}
+			Arrays.fill(candidates, base + count, base + k, NONE);
+		}
+	}
+
+	/** 以 (權重, 點編號) 排序的二元最小堆積 */
+	private static final class Pending {
+		double[] weight = new double[64];
+		int[] point = new int[64];
+		int size;
+
+		void clear() {
+			size = 0;
+		}
+
+		void push(double w, int b) {
+			if (size == weight.length) {
+				weight = Arrays.copyOf(weight, 2 * size);
+				point = Arrays.copyOf(point, 2 * size);
+			}
+			int i = size++;
+			for (int parent; i > 0 && less(w, b, weight[parent = (i - 1) >>> 1], point[parent]); i = parent) {
+				weight[i] = weight[parent];
+				point[i] = point[parent];
+			}
+			weight[i] = w;
+			point[i] = b;
+		}
+
+		/** 取出並回傳最小的點 */
+		int pop() {
+			int top = point[0];
+			double w = weight[--size];
+			int b = point[size];
+			int i = 0;
+			for (int child; (child = 2 * i + 1) < size; i = child) {
+				if (child + 1 < size && less(weight[child + 1], point[child + 1], weight[child], point[child])) {
+					child++;
+				}
+				if (!less(weight[child], point[child], w, b)) {
+					break;
+				}
+				weight[i] = weight[child];
+				point[i] = point[child];
+			}
+			weight[i] = w;
+			point[i] = b;
+			return top;
+		}
+
+		private static boolean less(double w1, int p1, double w2, int p2) {
+			return w1 < w2 || (w1 == w2 && p1 < p2);
+		}
+	}
+
+	/** 平行搜尋 [from, to) 範圍內的點，範圍超過 CHUNK 時分成兩半 fork/join */
+	@SuppressWarnings("serial")
+	private static final class NeighborTask extends RecursiveAction {
+		private final Neighbors neighbors;
+		private final int from, to;
+
+		NeighborTask(Neighbors neighbors, int from, int to) {
+			this.neighbors = neighbors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > CHUNK) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new NeighborTask(neighbors, from, mid), new NeighborTask(neighbors, mid, to));
+			} else {
+				neighbors.search(from, to);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+// 23. 二進位檔格式：點、障礙物與 MST 結果以 little-endian 原始陣列存放，透過 FileChannel.map 整塊讀寫，不為每個元素建立物件
+//
+// 檔頭 32 位元組：
+//   0  int  MAGIC（"OTGF"）
+//   4  int  VERSION
+//   8  int  點數 n
+//  12  int  障礙物線段數 m
+//  16  int  邊數 e
+//  20  int  旗標（HAS_EDGES、HAS_LAYOUT）
+//  24  long 保留（0）
+// 之後依序為各區塊，每個區塊從 8 的倍數位移開始：
+//   點         double x[n], double y[n]
+//   障礙物     double[4m]，每條線段 x1, y1, x2, y2
+//   邊（選用） int src[e], int dst[e], double weight[e]
+//   佈局（選用）double x[n], double y[n]
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+final class BinaryGraphFile {
+	static final int MAGIC = 'O' | 'T' << 8 | 'G' << 16 | 'F' << 24;
+	static final int VERSION = 1;
+	static final int HAS_EDGES = 1;
+	static final int HAS_LAYOUT = 2;
+	private static final int HEADER_BYTES = 32;
+
+	/** 點集合（沒有 {@link Node}，nodes 為 null） */
+	final PointSet points;
+	/** 打包的障礙物座標，可直接交給 {@link VisibilityChecker#VisibilityChecker(double[], int)} */
+	final double[] segments;
+	final int segmentCount;
+	/** MST 邊（以點的編號表示）；檔案沒有邊區塊時為 null */
+	final EdgeList edges;
+	/** 佈局座標；檔案沒有佈局區塊時為 null */
+	final double[] layoutX, layoutY;
+
+	private BinaryGraphFile(PointSet points, double[] segments, int segmentCount, EdgeList edges, double[] layoutX, double[] layoutY) {
+		this.points = points;
+		this.segments = segments;
+		this.segmentCount = segmentCount;
+		this.edges = edges;
+		this.layoutX = layoutX;
+		this.layoutY = layoutY;
+	}
+
+	/** 讀入整個檔案；各區塊以記憶體映射後一次整塊複製到原始型別陣列 */
+	static BinaryGraphFile read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_BYTES) {
+				throw new IOException(file + ": 檔案太小，不是有效的圖形檔");
+			}
+			ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException(file + ": 檔頭標記不符，不是有效的圖形檔");
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException(file + ": 不支援的版本 " + header.getInt(4));
+			}
+			int n = header.getInt(8), m = header.getInt(12), e = header.getInt(16), flags = header.getInt(20);
+			if (n < 0 || m < 0 || e < 0) {
+				throw new IOException(file + ": 檔頭中的數量不正確");
+			}
+			Layout layout = new Layout(n, m, e, flags);
+			if (fileSize < layout.total) {
+				throw new IOException(file + ": 檔案不完整（應為 " + layout.total + " 位元組，實際 " + fileSize + "）");
+			}
+
+			double[] xs = new double[n], ys = new double[n];
+			ByteBuffer block = map(channel, FileChannel.MapMode.READ_ONLY, layout.points, 16L * n);
+			block.asDoubleBuffer().get(xs).get(ys);
+			double[] segments = new double[4 * m];
+			map(channel, FileChannel.MapMode.READ_ONLY, layout.segments, 32L * m).asDoubleBuffer().get(segments);
+			PointSet points = new PointSet(xs, ys, null);
+
+			EdgeList edges = null;
+			if ((flags & HAS_EDGES) != 0) {
+				edges = new EdgeList(points, e);
+				int[] src = new int[e], dst = new int[e];
+				double[] weight = new double[e];
+				map(channel, FileChannel.MapMode.READ_ONLY, layout.edges, 8L * e).asIntBuffer().get(src).get(dst);
+				map(channel, FileChannel.MapMode.READ_ONLY, layout.weights, 8L * e).asDoubleBuffer().get(weight);
+				for (int k = 0; k < e; k++) {
+					if (src[k] < 0 || src[k] >= n || dst[k] < 0 || dst[k] >= n) {
+						throw new IOException(file + ": 第 " + k + " 條邊的端點編號超出範圍");
+					}
+				}
+				edges.src = src;
+				edges.dst = dst;
+				edges.weight = weight;
+				edges.size = e;
+			}
+
+			double[] layoutX = null, layoutY = null;
+			if ((flags & HAS_LAYOUT) != 0) {
+				layoutX = new double[n];
+				layoutY = new double[n];
+				map(channel, FileChannel.MapMode.READ_ONLY, layout.layout, 16L * n).asDoubleBuffer().get(layoutX).get(layoutY);
+			}
+			return new BinaryGraphFile(points, segments, m, edges, layoutX, layoutY);
+		}
+	}
+
+	/**
+	 * 寫出檔案（已存在時覆寫），各區塊以記憶體映射整塊寫入。
+	 *
+	 * @param edges   MST 邊（可為 null）
+	 * @param layoutX 佈局座標（可為 null；不為 null 時長度須與點數相同）
+	 */
+	static void write(Path file, PointSet points, double[] segments, int segmentCount, EdgeList edges, double[] layoutX, double[] layoutY) throws IOException {
+		int n = points.size;
+		int e = edges != null ? edges.size : 0;
+		int flags = (edges != null ? HAS_EDGES : 0) | (layoutX != null ? HAS_LAYOUT : 0);
+		Layout layout = new Layout(n, segmentCount, e, flags);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+			header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(segmentCount).putInt(e).putInt(flags).putLong(0);
+
+			map(channel, FileChannel.MapMode.READ_WRITE, layout.points, 16L * n).asDoubleBuffer().put(points.xs, 0, n).put(points.ys, 0, n);
+			map(channel, FileChannel.MapMode.READ_WRITE, layout.segments, 32L * segmentCount).asDoubleBuffer().put(segments, 0, 4 * segmentCount);
+			if (edges != null) {
+				map(channel, FileChannel.MapMode.READ_WRITE, layout.edges, 8L * e).asIntBuffer().put(edges.src, 0, e).put(edges.dst, 0, e);
+				map(channel, FileChannel.MapMode.READ_WRITE, layout.weights, 8L * e).asDoubleBuffer().put(edges.weight, 0, e);
+			}
+			if (layoutX != null) {
+				map(channel, FileChannel.MapMode.READ_WRITE, layout.layout, 16L * n).asDoubleBuffer().put(layoutX, 0, n).put(layoutY, 0, n);
+			}
+			// 長度為 0 的區塊不會延伸檔案，最後補齊到完整長度
+			if (channel.size() < layout.total) {
+				channel.write(ByteBuffer.allocate(1), layout.total - 1);
+			}
+		}
+	}
+
+	/** 映射 [position, position + size) 並設為 little-endian；單一映射最多 2 GB */
+	private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("區塊太大（" + size + " 位元組），超過單一記憶體映射的上限");
+		}
+		MappedByteBuffer buffer = channel.map(mode, position, size);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	/** 各區塊在檔案中的位移 */
+	private static final class Layout {
+		final long points, segments, edges, weights, layout, total;
+
+		Layout(int n, int m, int e, int flags) {
+			long offset = HEADER_BYTES;
+			points = offset;
+			offset += 16L * n;
+			segments = offset;
+			offset += 32L * m;
+			edges = offset;
+			if ((flags & HAS_EDGES) != 0) {
+				offset += align(8L * e);
+			}
+			weights = offset;
+			if ((flags & HAS_EDGES) != 0) {
+				offset += 8L * e;
+			}
+			layout = offset;
+			if ((flags & HAS_LAYOUT) != 0) {
+				offset += 16L * n;
+			}
+			total = offset;
+		}
+
+		private static long align(long bytes) {
+			return (bytes + 7) & ~7L;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+// 26. 最小生成樹 (MST) 演算法 - 平行 Borůvka：每一輪各元件平行地以點的網格索引找出最輕的可見外連邊，再以無鎖 Union-Find 合併；不列舉全部點對
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BoruvkaMST {
+	/** 每個平行工作至少處理的點數 */
+	private static final int CHUNK = 512;
+	/** 元件尚未找到外連邊 */
+	private static final long NONE = Long.MAX_VALUE;
+
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	/** 使用所有可用的處理器 */
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return findMST(points, checker, 0);
+	}
+
+	/**
+	 * 每一輪中，每個點以網格由近到遠搜尋最近的「不同元件且可見」的點，元件的最佳外連邊取其中 (權重, i, j) 最小者，再平行合併。
+	 * 權重相同時依 (i, j) 的全序決定，因此結果（包含邊的順序）與 {@link KruskalMST#findMST(PointSet, VisibilityChecker)} 完全一致，與執行緒數無關。
+	 *
+	 * 搜尋半徑受元件目前的最佳權重限制（各執行緒以 CAS 共享），並以 1、2、4… 環分段加深，讓靠近其他元件的點先把上限壓低。 工作記憶體為 O(n)，不建立全部點對的邊表。
+	 *
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap, int parallelism) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker, parallelism);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker, int parallelism) {
+		return findMSTEdges(points, checker, parallelism).toEdges();
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker, int)}，結果以編號存放在邊表中（點集合不需要有 {@link Node}） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker, int parallelism) {
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		int n = points.size;
+		long[] chosen = new long[Math.max(0, n - 1)];
+		int chosenCount = 0;
+		if (n > 1) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				chosenCount = new Rounds(points, checker, pool).run(chosen);
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		return EdgeList.fromPairKeys(points, chosen, chosenCount, VisibilityGraph.Weight.SQUARED_EUCLIDEAN);
+	}
+
+	/** 平行迴圈的本體：處理 [from, to) 範圍內的點 */
+	private interface RangeBody {
+		void run(int from, int to);
+	}
+
+	/** 將 [from, to) 分成兩半 fork/join，直到不超過 CHUNK 個點 */
+	@SuppressWarnings("serial")
+	private static final class ForRange extends RecursiveAction {
+		private final RangeBody body;
+		private final int from, to;
+
+		ForRange(RangeBody body, int from, int to) {
+			this.body = body;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > CHUNK) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ForRange(body, from, mid), new ForRange(body, mid, to));
+			} else {
+				body.run(from, to);
+			}
+		}
+	}
+
+	/** 各輪共用的狀態；除了 bound、minKey 與 unionFind 之外，每個陣列元素只由處理該點的工作寫入 */
+	private static final class Rounds {
+		private final PointSet points;
+		private final VisibilityChecker checker;
+		private final ForkJoinPool pool;
+		private final PointGrid grid;
+		private final ConcurrentUnionFind unionFind;
+		private final int n;
+
+		// 本輪每個點所屬元件的根
+		private final int[] component;
+		// 已確定沒有任何可見外連邊的元件中的點；之後各輪不再搜尋，也不再當作候選（可見性是對稱的）
+		private final boolean[] closed;
+		// 以元件的根為索引：目前已知最輕外連邊的權重（非負 double 的位元依 long 比較即依數值比較）與 pairKey
+		private final AtomicLongArray bound;
+		private final AtomicLongArray minKey;
+		// 每個點自己找到的最佳外連邊，以及下一次從第幾環繼續搜尋（-1 表示已搜尋完）
+		private final double[] pointWeight;
+		private final int[] pointTarget;
+		private final int[] nextRing;
+		// 本段搜尋是否有點因為環數上限而中斷
+		private volatile boolean pending;
+
+		Rounds(PointSet points, VisibilityChecker checker, ForkJoinPool pool) {
+			this.points = points;
+			this.checker = checker;
+			this.pool = pool;
+			this.n = points.size;
+			this.grid = new PointGrid(points);
+			this.unionFind = new ConcurrentUnionFind(n);
+			this.component = new int[n];
+			this.closed = new boolean[n];
+			this.bound = new AtomicLongArray(n);
+			this.minKey = new AtomicLongArray(n);
+			this.pointWeight = new double[n];
+			this.pointTarget = new int[n];
+			this.nextRing = new int[n];
+		}
+
+		/** 執行到沒有元件能再合併為止，將選到的邊（pairKey）寫入 chosen，回傳邊數 */
+		int run(long[] chosen) {
+			AtomicInteger chosenCount = new AtomicInteger();
+			long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+			AtomicInteger open = new AtomicInteger();
+			while (true) {
+				// 上一輪的合併都已完成，find 的結果在本輪中不變
+				open.set(0);
+				parallel((from, to) -> {
+					int roots = 0;
+					for (int a = from; a < to; a++) {
+						component[a] = unionFind.find(a);
+						bound.set(a, infinity);
+						minKey.set(a, NONE);
+						pointWeight[a] = Double.POSITIVE_INFINITY;
+						pointTarget[a] = -1;
+						nextRing[a] = closed[a] ? -1 : 0;
+						if (component[a] == a && !closed[a]) {
+							roots++;
+						}
+					}
+					open.addAndGet(roots);
+				});
+				if (open.get() < 2) {
+					// 只剩一個還能合併的元件
+					return chosenCount.get();
+				}
+
+				// 分段加深搜尋：每段最多到第 limit 環，未搜尋完的點下一段從中斷處繼續
+				for (int limit = 1;; limit *= 2) {
+					int ringLimit = limit;
+					pending = false;
+					parallel((from, to) -> {
+						for (int a = from; a < to; a++) {
+							if (nextRing[a] >= 0) {
+								search(a, ringLimit);
+							}
+						}
+					});
+					if (!pending) {
+						break;
+					}
+				}
+
+				// 權重等於元件最小值的點中，取 pairKey 最小的邊
+				parallel((from, to) -> {
+					for (int a = from; a < to; a++) {
+						int c = component[a];
+						if (pointTarget[a] >= 0 && pointWeight[a] == Double.longBitsToDouble(bound.get(c))) {
+							lowerMin(minKey, c, EdgeList.pairKey(a, pointTarget[a]));
+						}
+					}
+				});
+
+				// 合併：同一條邊可能被兩側的元件選到，只有第一次合併成功的會記錄
+				int before = chosenCount.get();
+				parallel((from, to) -> {
+					for (int c = from; c < to; c++) {
+						long key = minKey.get(c);
+						if (component[c] == c && key != NONE && unionFind.union((int) (key >>> 32), (int) key)) {
+							chosen[chosenCount.getAndIncrement()] = key;
+						}
+					}
+				});
+				PipelineMetrics.add(PipelineMetrics.Counter.UNIONS, chosenCount.get() - before);
+				if (chosenCount.get() == before) {
+					// 其餘元件之間沒有可見的點對
+					return before;
+				}
+				parallel((from, to) -> {
+					for (int a = from; a < to; a++) {
+						closed[a] |= minKey.get(component[a]) == NONE;
+					}
+				});
+			}
+		}
+
+		/** 由第 nextRing[a] 環起逐環搜尋點 a 周圍不同元件的可見點，最多到第 limit 環 */
+		private void search(int a, int limit) {
+			int c = component[a];
+			PointGrid.RingCells cells = grid.ringCells();
+			double best = pointWeight[a];
+			int target = pointTarget[a];
+			long bestKey = target >= 0 ? EdgeList.pairKey(a, target) : NONE;
+
+			int ring = nextRing[a];
+			for (int maxRing = grid.maxRing(a); ring <= maxRing; ring++) {
+				if (ring > limit) {
+					pending = true;
+					break;
+				}
+				// 其他點已找到的更輕的邊也可用來提早結束
+				double limitWeight = Math.min(best, Double.longBitsToDouble(bound.get(c)));
+				double d = grid.ringDistance(ring);
+				if (d * d > limitWeight) {
+					ring = maxRing + 1;
+					break;
+				}
+				for (int cell = cells.first(a, ring); cell >= 0; cell = cells.next()) {
+					for (int p = grid.cellStart[cell], end = grid.cellStart[cell + 1]; p < end; p++) {
+						int b = grid.cellItems[p];
+						if (component[b] == c || closed[b]) {
+							continue;
+						}
+						double w = points.weight(a, b);
+						if (w > limitWeight) {
+							continue;
+						}
+						long key = EdgeList.pairKey(a, b);
+						if ((w < best || (w == best && key < bestKey)) && checker.isVisible(points, a, b)) {
+							best = w;
+							bestKey = key;
+							target = b;
+							limitWeight = w;
+							lowerMin(bound, c, Double.doubleToRawLongBits(w));
+						}
+					}
+				}
+			}
+			pointWeight[a] = best;
+			pointTarget[a] = target;
+			nextRing[a] = ring > grid.maxRing(a) ? -1 : ring;
+		}
+
+		private void parallel(RangeBody body) {
+			pool.invoke(new ForRange(body, 0, n));
+		}
+
+		/** 以 CAS 將 values[i] 降為 value（若較小） */
+		private static void lowerMin(AtomicLongArray values, int i, long value) {
+			long current = values.get(i);
+			while (value < current && !values.compareAndSet(i, current, value)) {
+				current = values.get(i);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+// 18. 樹狀佈局計算器 - Walker 演算法的線性時間版本（Buchheim, Jünger, Leipert）：以 thread 串接輪廓、以 prelim/mod 延後平移
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+public class BuchheimTreeLayout {
+	/** 相鄰兩層的垂直距離 */
+	private static final double LEVEL_HEIGHT = 50.0;
+
+	/**
+	 * 與 {@link TreeLayoutCalculator#calculateLayout} 相同的輸入與輸出。
+	 *
+	 * @param pointToNodeMap 點到節點的映射
+	 * @param edges          MST 邊集合
+	 * @param panelWidth     面板寬度
+	 * @param panelHeight    面板高度
+	 * @param specifiedRoot  指定根節點 (可為 null)
+	 * @return Node -> Point 座標的映射
+	 */
+	public static Map<Node, Point> calculateLayout(Map<Point, Node> pointToNodeMap, List<Edge> edges, int panelWidth, int panelHeight, Node specifiedRoot) {
+		// 每次呼叫都會依 pointToNodeMap 的迭代順序重新編號；已有點集合時請改用 PointSet 版本
+		return calculateLayout(PointSet.of(pointToNodeMap.values()), edges, panelWidth, panelHeight, specifiedRoot);
+	}
+
+	/**
+	 * 以點集合的編號運算的版本。每棵樹的佈局為 O(n)：同層相鄰的節點（包含不同子樹之間）水平距離至少 minGap， 父節點位於第一個與最後一個子節點的正中間；各棵樹由左到右排列，彼此也相隔 minGap。
+	 *
+	 * @param points        點集合（edges 中不屬於此集合的節點會被忽略）
+	 * @param edges         MST 邊集合
+	 * @param panelWidth    面板寬度
+	 * @param panelHeight   面板高度
+	 * @param specifiedRoot 指定根節點 (可為 null)
+	 * @return Node -> Point 座標的映射
+	 */
+	public static Map<Node, Point> calculateLayout(PointSet points, List<Edge> edges, int panelWidth, int panelHeight, Node specifiedRoot) {
+		RootedForest forest = RootedForest.build(points, edges, specifiedRoot);
+		double[] x = new double[points.size];
+		double[] y = new double[points.size];
+		layout(forest, panelHeight, x, y);
+
+		Map<Node, Point> layoutMap = new HashMap<>();
+		for (int v = 0; v < points.size; v++) {
+			layoutMap.put(points.nodes[v], new Point(x[v], y[v]));
+		}
+		return layoutMap;
+	}
+
+	/** 計算森林中每個節點的座標，寫入 x[] / y[]（以節點編號索引） */
+	static void layout(RootedForest forest, int panelHeight, double[] x, double[] y) {
+		layout(forest, panelHeight, x, y, () -> false);
+	}
+
+	/** 同 {@link #layout(RootedForest, int, double[], double[])}，但每棵樹開始前檢查 cancelled，成立時丟出 {@link CancellationException} */
+	static void layout(RootedForest forest, int panelHeight, double[] x, double[] y, BooleanSupplier cancelled) {
+		// 佈局起點與參數（與 TreeLayoutCalculator 相同）
+		double currentX = 250.0 + 450;
+		double startY = 20;
+		double minGap = 20.0;
+
+		Walker walker = new Walker(forest, minGap);
+		for (int t = 0; t < forest.treeCount(); t++) {
+			if (cancelled.getAsBoolean()) {
+				throw new CancellationException();
+			}
+			walker.run(t, x);
+
+			// 垂直置中
+			double finalY = startY;
+			double treeHeight = forest.levels(t) * LEVEL_HEIGHT;
+			double availableHeight = panelHeight - startY - 20;
+			if (treeHeight < availableHeight) {
+				finalY += (availableHeight - treeHeight) / 2.0;
+			}
+
+			// 將整棵樹平移到 currentX 的右側
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			for (int k = forest.treeStart[t]; k < forest.treeStart[t + 1]; k++) {
+				int v = forest.preOrder[k];
+				minX = Math.min(minX, x[v]);
+				maxX = Math.max(maxX, x[v]);
+			}
+			double dx = currentX - minX;
+			for (int k = forest.treeStart[t]; k < forest.treeStart[t + 1]; k++) {
+				int v = forest.preOrder[k];
+				x[v] += dx;
+				y[v] = finalY + forest.depth[v] * LEVEL_HEIGHT;
+			}
+			currentX += maxX - minX + minGap;
+		}
+	}
+
+	/**
+	 * 演算法的工作陣列，全部以節點編號索引；-1 表示「無」。 各棵樹的節點互不重疊，整個森林共用一組陣列。 firstWalk 以後序迴圈取代遞迴，secondWalk 以前序迴圈累加 mod。
+	 */
+	private static final class Walker {
+		final RootedForest forest;
+		final double distance;
+		final double[] prelim, mod, shift, change;
+		final int[] thread, ancestor, number;
+		/** 各節點在處理子節點時使用的 defaultAncestor */
+		final int[] defaultAncestor;
+
+		Walker(RootedForest forest, double distance) {
+			int n = forest.parent.length;
+			this.forest = forest;
+			this.distance = distance;
+			this.prelim = new double[n];
+			this.mod = new double[n];
+			this.shift = new double[n];
+			this.change = new double[n];
+			this.thread = new int[n];
+			this.ancestor = new int[n];
+			this.number = new int[n];
+			this.defaultAncestor = new int[n];
+		}
+
+		/** 計算第 t 棵樹的相對 x 座標（根的 x 為 0），寫入 x[] */
+		void run(int t, double[] x) {
+			int from = forest.treeStart[t], to = forest.treeStart[t + 1];
+			for (int k = from; k < to; k++) {
+				int v = forest.preOrder[k];
+				thread[v] = -1;
+				ancestor[v] = v;
+				defaultAncestor[v] = forest.childCount(v) > 0 ? forest.children[forest.childStart[v]] : -1;
+				for (int c = forest.childStart[v], i = 0; c < forest.childStart[v + 1]; c++, i++) {
+					number[forest.children[c]] = i;
+				}
+			}
+			number[forest.roots[t]] = 0;
+
+			// firstWalk：後序保證處理 v 時，它的子樹與左側兄弟的子樹都已完成
+			for (int k = from; k < to; k++) {
+				int v = forest.postOrder[k];
+				firstWalk(v);
+				int p = forest.parent[v];
+				if (p >= 0) {
+					defaultAncestor[p] = apportion(v, defaultAncestor[p]);
+				}
+			}
+
+			// secondWalk：x = prelim + 所有祖先的 mod 總和；shift[] 在此已用完，借來存放累加值
+			for (int k = from; k < to; k++) {
+				int v = forest.preOrder[k];
+				int p = forest.parent[v];
+				shift[v] = p >= 0 ? shift[p] + mod[p] : -prelim[v];
+				x[v] = prelim[v] + shift[v];
+			}
+		}
+
+		private void firstWalk(int v) {
+			int left = leftSibling(v);
+			if (forest.childCount(v) == 0) {
+				prelim[v] = left >= 0 ? prelim[left] + distance : 0;
+				return;
+			}
+			executeShifts(v);
+			int first = forest.children[forest.childStart[v]];
+			int last = forest.children[forest.childStart[v + 1] - 1];
+			double midpoint = (prelim[first] + prelim[last]) / 2;
+			if (left >= 0) {
+				prelim[v] = prelim[left] + distance;
+				mod[v] = prelim[v] - midpoint;
+			} else {
+				prelim[v] = midpoint;
+			}
+		}
+
+		/** 將 v 的子樹與左側兄弟的子樹沿著輪廓比較，必要時把 v 往右推，並把推移量分攤給中間的兄弟 */
+		private int apportion(int v, int defaultAncestor) {
+			int w = leftSibling(v);
+			if (w < 0) {
+				return defaultAncestor;
+			}
+			int vir = v, vor = v;
+			int vil = w, vol = forest.children[forest.childStart[forest.parent[v]]];
+			double sir = mod[vir], sor = mod[vor], sil = mod[vil], sol = mod[vol];
+			while (nextRight(vil) >= 0 && nextLeft(vir) >= 0) {
+				vil = nextRight(vil);
+				vir = nextLeft(vir);
+				vol = nextLeft(vol);
+				vor = nextRight(vor);
+				ancestor[vor] = v;
+				double s = (prelim[vil] + sil) - (prelim[vir] + sir) + distance;
+				if (s > 0) {
+					moveSubtree(ancestor(vil, v, defaultAncestor), v, s);
+					sir += s;
+					sor += s;
+				}
+				sil += mod[vil];
+				sir += mod[vir];
+				sol += mod[vol];
+				sor += mod[vor];
+			}
+			if (nextRight(vil) >= 0 && nextRight(vor) < 0) {
+				thread[vor] = nextRight(vil);
+				mod[vor] += sil - sor;
+			}
+			if (nextLeft(vir) >= 0 && nextLeft(vol) < 0) {
+				thread[vol] = nextLeft(vir);
+				mod[vol] += sir - sol;
+				defaultAncestor = v;
+			}
+			return defaultAncestor;
+		}
+
+		private void moveSubtree(int wl, int wr, double s) {
+			int subtrees = number[wr] - number[wl];
+			change[wr] -= s / subtrees;
+			shift[wr] += s;
+			change[wl] += s / subtrees;
+			prelim[wr] += s;
+			mod[wr] += s;
+		}
+
+		private void executeShifts(int v) {
+			double s = 0, c = 0;
+			for (int k = forest.childStart[v + 1] - 1; k >= forest.childStart[v]; k--) {
+				int w = forest.children[k];
+				prelim[w] += s;
+				mod[w] += s;
+				c += change[w];
+				s += shift[w] + c;
+			}
+		}
+
+		private int ancestor(int vil, int v, int defaultAncestor) {
+			int a = ancestor[vil];
+			return forest.parent[a] == forest.parent[v] ? a : defaultAncestor;
+		}
+
+		private int leftSibling(int v) {
+			int p = forest.parent[v];
+			return p >= 0 && number[v] > 0 ? forest.children[forest.childStart[p] + number[v] - 1] : -1;
+		}
+
+		private int nextLeft(int v) {
+			return forest.childCount(v) > 0 ? forest.children[forest.childStart[v]] : thread[v];
+		}
+
+		private int nextRight(int v) {
+			return forest.childCount(v) > 0 ? forest.children[forest.childStart[v + 1] - 1] : thread[v];
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+// 35. 連接元件：以 Borůvka 為已有的森林補上各元件最輕的可見外連邊，每個點在點的網格索引上由近到遠搜尋，工作記憶體為 O(n)
+//     DelaunayMST 連接被擋住的各塊、ApproximateMST 連接稀疏圖的元件時共用
+
+import java.util.Arrays;
+
+/**
+ * 最大元件以外的每個元件，由其中每個點逐環向外搜尋最近的「不同元件且可見」的點，元件的最佳外連邊取 (權重, i, j) 最小者後合併。
+ * 依全序，每個元件最輕的外連邊都在 MST 中；與最大元件之間的邊一定會由另一側的元件找到，因此最大元件不需要搜尋。 搜尋範圍受該元件目前的最佳權重限制。
+ */
+final class ComponentConnector {
+	/** 元件尚未找到外連邊 */
+	private static final long NONE = Long.MAX_VALUE;
+
+	private final PointSet points;
+	private final VisibilityChecker checker;
+	private final PointGrid grid;
+	private final IntUnionFind unionFind;
+	private final int n;
+	// 本輪每個點所屬元件的根
+	private final int[] component;
+	// 已確定沒有任何可見外連邊的元件中的點（可見性是對稱的，之後也不再當作候選）
+	private final boolean[] closed;
+	// 以元件的根為索引：目前已知最輕外連邊的權重與 pairKey
+	private final double[] bestWeight;
+	private final long[] bestKey;
+
+	ComponentConnector(PointSet points, VisibilityChecker checker, PointGrid grid, IntUnionFind unionFind) {
+		this.points = points;
+		this.checker = checker;
+		this.grid = grid;
+		this.unionFind = unionFind;
+		this.n = points.size;
+		this.component = new int[n];
+		this.closed = new boolean[n];
+		this.bestWeight = new double[n];
+		this.bestKey = new long[n];
+	}
+
+	/** 執行到沒有元件能再合併為止，將新的邊（pairKey）寫入 chosen[count ..)，回傳總邊數 */
+	int run(long[] chosen, int count) {
+		int[] size = new int[n];
+		while (unionFind.components() > 1) {
+			// 最大的元件（同樣大時取根的編號較小者）
+			Arrays.fill(size, 0);
+			int largest = -1;
+			for (int a = 0; a < n; a++) {
+				component[a] = unionFind.find(a);
+				bestWeight[a] = Double.POSITIVE_INFINITY;
+				bestKey[a] = NONE;
+				size[component[a]]++;
+			}
+			for (int c = 0; c < n; c++) {
+				if (component[c] == c && !closed[c] && (largest < 0 || size[c] > size[largest])) {
+					largest = c;
+				}
+			}
+
+			for (int a = 0; a < n; a++) {
+				if (component[a] != largest && !closed[a]) {
+					search(a);
+				}
+			}
+
+			int before = count;
+			for (int c = 0; c < n; c++) {
+				if (component[c] == c && bestKey[c] != NONE && unionFind.union((int) (bestKey[c] >>> 32), (int) bestKey[c])) {
+					chosen[count++] = bestKey[c];
+				}
+			}
+			PipelineMetrics.add(PipelineMetrics.Counter.UNIONS, count - before);
+			if (count == before) {
+				// 其餘元件之間沒有可見的點對
+				return count;
+			}
+			for (int a = 0; a < n; a++) {
+				closed[a] |= component[a] != largest && bestKey[component[a]] == NONE;
+			}
+		}
+		return count;
+	}
+
+	/** 逐環搜尋點 a 周圍不同元件的可見點，超過所屬元件目前的最佳權重時停止 */
+	private void search(int a) {
+		int c = component[a];
+		PointGrid.RingCells cells = grid.ringCells();
+		for (int ring = 0, maxRing = grid.maxRing(a); ring <= maxRing; ring++) {
+			double d = grid.ringDistance(ring);
+			if (d * d > bestWeight[c]) {
+				return;
+			}
+			for (int cell = cells.first(a, ring); cell >= 0; cell = cells.next()) {
+				for (int p = grid.cellStart[cell], end = grid.cellStart[cell + 1]; p < end; p++) {
+					int b = grid.cellItems[p];
+					if (component[b] == c || closed[b]) {
+						continue;
+					}
+					double w = points.weight(a, b);
+					long key = EdgeList.pairKey(a, b);
+					if ((w < bestWeight[c] || (w == bestWeight[c] && key < bestKey[c])) && checker.isVisible(points, a, b)) {
+						bestWeight[c] = w;
+						bestKey[c] = key;
+					}
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
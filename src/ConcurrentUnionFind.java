@@ -0,0 +1,62 @@
+// 15. Union-Find 資料結構（無鎖並行版）：以 AtomicIntegerArray 上的 CAS 合併，供平行 MST 引擎共用
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class ConcurrentUnionFind {
+	private final AtomicIntegerArray parent;
+
+	public ConcurrentUnionFind(int n) {
+		this.parent = new AtomicIntegerArray(n);
+		for (int i = 0; i < n; i++) {
+			parent.set(i, i);
+		}
+	}
+
+	public int find(int i) {
+		while (true) {
+			int p = parent.get(i);
+			if (p == i) {
+				return i;
+			}
+			int gp = parent.get(p);
+			// 路徑減半；CAS 失敗代表別的執行緒已經更新過，不影響正確性
+			if (gp != p) {
+				parent.compareAndSet(i, p, gp);
+			}
+			i = gp;
+		}
+	}
+
+	/** 合併兩個集合；以編號決定方向（較小的根接到較大的根下），CAS 失敗時重試 */
+	public boolean union(int i, int j) {
+		while (true) {
+			int rootI = find(i);
+			int rootJ = find(j);
+			if (rootI == rootJ) {
+				return false;
+			}
+			if (rootI > rootJ) {
+				int t = rootI;
+				rootI = rootJ;
+				rootJ = t;
+			}
+			if (parent.compareAndSet(rootI, rootI, rootJ)) {
+				return true;
+			}
+		}
+	}
+
+	public boolean connected(int i, int j) {
+		while (true) {
+			int rootI = find(i);
+			int rootJ = find(j);
+			if (rootI == rootJ) {
+				return true;
+			}
+			// rootI 仍是根代表查詢期間沒有被合併，結果可信
+			if (parent.get(rootI) == rootI) {
+				return false;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+// 11. 最小生成樹 (MST) 演算法 - 以 Delaunay 三角剖分求歐氏 MST，其中可見的邊直接採用，被擋住時再以網格上的 Borůvka 連接各塊；不列舉全部點對
+
+import java.util.List;
+import java.util.Map;
+
+public class DelaunayMST {
+
+	/**
+	 * 與 {@link KruskalMST#findMST} 相同的輸入與輸出（包含邊的順序），但不列舉全部點對，工作記憶體為 O(n)。
+	 *
+	 * 依 (權重, i, j) 全序的歐氏 MST 的每條邊，其直徑圓內（含圓周）沒有其他點，因此必為 Delaunay 三角剖分的邊。 這樣的邊若可見，
+	 * 它在完全圖中是某個切割上最輕的邊，在可見性圖中也是，所以必在可見性 MST 中。 先以可見的歐氏 MST 邊把點分塊，
+	 * 再以 Borůvka 在點的網格上由近到遠搜尋連接各塊的最輕可見邊；所有邊都沒被擋住時不需要第二步。
+	 *
+	 * @param vertices       所有點
+	 * @param checker        可見性檢查器
+	 * @param pointToNodeMap 點到節點的映射
+	 * @return MST 的邊（依 Kruskal 加入的順序）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return findMSTEdges(points, checker).toEdges();
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker)}，結果以編號存放在邊表中（點集合不需要有 {@link Node}） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker) {
+		int n = points.size;
+
+		// 1) Delaunay 邊
+		int[] dt = new DelaunayTriangulation(points.xs, points.ys, n).edges();
+		long[] dtKeys = new long[dt.length / 2];
+		for (int k = 0; k < dtKeys.length; k++) {
+			dtKeys[k] = EdgeList.pairKey(dt[2 * k], dt[2 * k + 1]);
+		}
+
+		// 2) 不考慮障礙物的歐氏 MST；其中可見的邊必在結果中
+		IntUnionFind euclidean = new IntUnionFind(n);
+		EdgeList dtEdges = EdgeList.fromPairKeys(points, dtKeys, dtKeys.length, VisibilityGraph.Weight.SQUARED_EUCLIDEAN);
+		long[] visible = new long[Math.max(0, n - 1)];
+		int visibleCount = 0;
+		boolean blocked = false;
+		for (int k = 0; k < dtEdges.size && euclidean.components() > 1; k++) {
+			int a = dtEdges.src[k], b = dtEdges.dst[k];
+			if (euclidean.union(a, b)) {
+				if (checker.isVisible(points, a, b)) {
+					visible[visibleCount++] = EdgeList.pairKey(a, b);
+				} else {
+					blocked = true;
+				}
+			}
+		}
+		if (!blocked) {
+			EdgeList mst = new EdgeList(points, visibleCount);
+			for (int k = 0; k < visibleCount; k++) {
+				int a = (int) (visible[k] >>> 32), b = (int) visible[k];
+				mst.add(a, b, points.weight(a, b));
+			}
+			return mst;
+		}
+
+		// 3) 連接各塊：從可見的歐氏 MST 邊開始做 Borůvka，每塊由近到遠搜尋最輕的可見外連邊
+		IntUnionFind unionFind = new IntUnionFind(n);
+		for (int k = 0; k < visibleCount; k++) {
+			unionFind.union((int) (visible[k] >>> 32), (int) visible[k]);
+		}
+		visibleCount = new ComponentConnector(points, checker, new PointGrid(points), unionFind).run(visible, visibleCount);
+
+		return EdgeList.fromPairKeys(points, visible, visibleCount, VisibilityGraph.Weight.SQUARED_EUCLIDEAN);
+	}
+}
\ No newline at end of file
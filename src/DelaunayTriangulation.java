@@ -0,0 +1,449 @@
+// 10. Delaunay 三角剖分（sweep-hull 演算法，O(n log n)），用來產生稀疏的 MST 候選邊
+
+import java.util.Arrays;
+
+class DelaunayTriangulation {
+	private static final double EPSILON = Math.ulp(1.0);
+
+	private final double[] xs;
+	private final double[] ys;
+	private final int n;
+
+	// triangles[3t..3t+2] 為第 t 個三角形的頂點；halfedges[e] 為相鄰三角形中對應的半邊（-1 表示凸包邊）
+	private final int[] triangles;
+	private final int[] halfedges;
+	private int trianglesLen;
+
+	private final int[] hullPrev;
+	private final int[] hullNext;
+	private final int[] hullTri;
+	private final int[] hullHash;
+	private final int hashSize;
+	private int hullStart;
+	private double cx, cy;
+
+	// 退化輸入（全部共線）時，依座標排序後的點序列
+	private int[] collinear;
+
+	private final int[] edgeStack = new int[512];
+
+	DelaunayTriangulation(double[] xs, double[] ys, int n) {
+		this.xs = xs;
+		this.ys = ys;
+		this.n = n;
+		int maxTriangles = Math.max(2 * n - 5, 0);
+		this.triangles = new int[maxTriangles * 3];
+		this.halfedges = new int[maxTriangles * 3];
+		this.hashSize = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+		this.hullPrev = new int[n];
+		this.hullNext = new int[n];
+		this.hullTri = new int[n];
+		this.hullHash = new int[hashSize];
+		triangulate();
+	}
+
+	/**
+	 * 回傳剖分中所有不重複的邊，格式為 [a0, b0, a1, b1, ...]。 全部共線時回傳相鄰點組成的路徑（即共線點的 MST）。
+	 */
+	int[] edges() {
+		if (collinear != null) {
+			int[] out = new int[Math.max(0, collinear.length - 1) * 2];
+			for (int k = 0; k + 1 < collinear.length; k++) {
+				out[2 * k] = collinear[k];
+				out[2 * k + 1] = collinear[k + 1];
+			}
+			return out;
+		}
+		int[] out = new int[trianglesLen * 2];
+		int len = 0;
+		for (int e = 0; e < trianglesLen; e++) {
+			if (e > halfedges[e]) {
+				out[len++] = triangles[e];
+				out[len++] = triangles[e % 3 == 2 ? e - 2 : e + 1];
+			}
+		}
+		return Arrays.copyOf(out, len);
+	}
+
+	private void triangulate() {
+		if (n < 3) {
+			collinear = sortedByAxis();
+			return;
+		}
+
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		int[] ids = new int[n];
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+			ids[i] = i;
+		}
+		double midX = (minX + maxX) / 2, midY = (minY + maxY) / 2;
+
+		// 種子三角形：最接近中心的點、離它最近的點、以及與前兩點形成最小外接圓的點
+		int i0 = 0, i1 = -1, i2 = -1;
+		double minDist = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double d = dist(midX, midY, xs[i], ys[i]);
+			if (d < minDist) {
+				i0 = i;
+				minDist = d;
+			}
+		}
+		minDist = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			if (i == i0) {
+				continue;
+			}
+			double d = dist(xs[i0], ys[i0], xs[i], ys[i]);
+			if (d < minDist && d > 0) {
+				i1 = i;
+				minDist = d;
+			}
+		}
+		if (i1 < 0) {
+			collinear = sortedByAxis();
+			return;
+		}
+		double minRadius = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			if (i == i0 || i == i1) {
+				continue;
+			}
+			double r = circumradius(xs[i0], ys[i0], xs[i1], ys[i1], xs[i], ys[i]);
+			if (r < minRadius) {
+				i2 = i;
+				minRadius = r;
+			}
+		}
+		if (minRadius == Double.POSITIVE_INFINITY) {
+			collinear = sortedByAxis();
+			return;
+		}
+
+		if (orient(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]) < 0) {
+			int t = i1;
+			i1 = i2;
+			i2 = t;
+		}
+
+		circumcenter(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]);
+		double[] dists = new double[n];
+		for (int i = 0; i < n; i++) {
+			dists[i] = dist(xs[i], ys[i], cx, cy);
+		}
+		// 依到種子外接圓心的距離由近到遠插入
+		sortByDistance(ids, dists);
+
+		hullStart = i0;
+		hullNext[i0] = hullPrev[i2] = i1;
+		hullNext[i1] = hullPrev[i0] = i2;
+		hullNext[i2] = hullPrev[i1] = i0;
+		hullTri[i0] = 0;
+		hullTri[i1] = 1;
+		hullTri[i2] = 2;
+		Arrays.fill(hullHash, -1);
+		hullHash[hashKey(xs[i0], ys[i0])] = i0;
+		hullHash[hashKey(xs[i1], ys[i1])] = i1;
+		hullHash[hashKey(xs[i2], ys[i2])] = i2;
+
+		trianglesLen = 0;
+		addTriangle(i0, i1, i2, -1, -1, -1);
+
+		double xp = 0, yp = 0;
+		for (int k = 0; k < n; k++) {
+			int i = ids[k];
+			double x = xs[i], y = ys[i];
+
+			// 略過（幾乎）重複的點
+			if (k > 0 && Math.abs(x - xp) <= EPSILON && Math.abs(y - yp) <= EPSILON) {
+				continue;
+			}
+			xp = x;
+			yp = y;
+			if (i == i0 || i == i1 || i == i2) {
+				continue;
+			}
+
+			// 利用角度雜湊找到凸包上一條可見的邊
+			int start = 0;
+			for (int j = 0, key = hashKey(x, y); j < hashSize; j++) {
+				start = hullHash[(key + j) % hashSize];
+				if (start != -1 && start != hullNext[start]) {
+					break;
+				}
+			}
+			start = hullPrev[start];
+			int e = start, q;
+			while (true) {
+				q = hullNext[e];
+				if (orient(x, y, xs[e], ys[e], xs[q], ys[q]) < 0) {
+					break;
+				}
+				e = q;
+				if (e == start) {
+					e = -1;
+					break;
+				}
+			}
+			if (e == -1) {
+				continue; // 幾乎與既有點重合，略過
+			}
+
+			int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+			hullTri[i] = legalize(t + 2);
+			hullTri[e] = t;
+
+			// 向前沿著凸包補三角形
+			int nx = hullNext[e];
+			while (true) {
+				q = hullNext[nx];
+				if (orient(x, y, xs[nx], ys[nx], xs[q], ys[q]) >= 0) {
+					break;
+				}
+				t = addTriangle(nx, i, q, hullTri[i], -1, hullTri[nx]);
+				hullTri[i] = legalize(t + 2);
+				hullNext[nx] = nx; // 標記為已移出凸包
+				nx = q;
+			}
+
+			// 向後沿著凸包補三角形
+			if (e == start) {
+				while (true) {
+					q = hullPrev[e];
+					if (orient(x, y, xs[q], ys[q], xs[e], ys[e]) >= 0) {
+						break;
+					}
+					t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+					legalize(t + 2);
+					hullTri[q] = t;
+					hullNext[e] = e;
+					e = q;
+				}
+			}
+
+			hullStart = hullPrev[i] = e;
+			hullNext[e] = hullPrev[nx] = i;
+			hullNext[i] = nx;
+
+			hullHash[hashKey(x, y)] = i;
+			hullHash[hashKey(xs[e], ys[e])] = e;
+		}
+	}
+
+	/** 以翻邊維持 Delaunay 條件（用固定大小的堆疊取代遞迴） */
+	private int legalize(int a) {
+		int i = 0;
+		int ar;
+		while (true) {
+			int b = halfedges[a];
+			int a0 = a - a % 3;
+			ar = a0 + (a + 2) % 3;
+
+			if (b == -1) {
+				if (i == 0) {
+					break;
+				}
+				a = edgeStack[--i];
+				continue;
+			}
+
+			int b0 = b - b % 3;
+			int al = a0 + (a + 1) % 3;
+			int bl = b0 + (b + 2) % 3;
+
+			int p0 = triangles[ar];
+			int pr = triangles[a];
+			int pl = triangles[al];
+			int p1 = triangles[bl];
+
+			if (inCircle(xs[p0], ys[p0], xs[pr], ys[pr], xs[pl], ys[pl], xs[p1], ys[p1])) {
+				triangles[a] = p1;
+				triangles[b] = p0;
+
+				int hbl = halfedges[bl];
+				// 翻邊影響到凸包另一側的三角形（罕見），修正凸包的參照
+				if (hbl == -1) {
+					int e = hullStart;
+					do {
+						if (hullTri[e] == bl) {
+							hullTri[e] = a;
+							break;
+						}
+						e = hullPrev[e];
+					} while (e != hullStart);
+				}
+				link(a, hbl);
+				link(b, halfedges[ar]);
+				link(ar, bl);
+
+				int br = b0 + (b + 1) % 3;
+				if (i < edgeStack.length) {
+					edgeStack[i++] = br;
+				}
+			} else {
+				if (i == 0) {
+					break;
+				}
+				a = edgeStack[--i];
+			}
+		}
+		return ar;
+	}
+
+	private void link(int a, int b) {
+		halfedges[a] = b;
+		if (b != -1) {
+			halfedges[b] = a;
+		}
+	}
+
+	private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+		int t = trianglesLen;
+		triangles[t] = i0;
+		triangles[t + 1] = i1;
+		triangles[t + 2] = i2;
+		link(t, a);
+		link(t + 1, b);
+		link(t + 2, c);
+		trianglesLen += 3;
+		return t;
+	}
+
+	private int hashKey(double x, double y) {
+		return (int) Math.floor(pseudoAngle(x - cx, y - cy) * hashSize) % hashSize;
+	}
+
+	/** 全部共線（或點數過少）時，依主要軸向排序點索引 */
+	private int[] sortedByAxis() {
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+		}
+		boolean byX = maxX > minX;
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> byX ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]));
+		int[] out = new int[n];
+		for (int i = 0; i < n; i++) {
+			out[i] = order[i];
+		}
+		return out;
+	}
+
+	/** 依 dists 由小到大排序 ids（原地快速排序，小區間改用插入排序） */
+	private static void sortByDistance(int[] ids, double[] dists) {
+		quicksort(ids, dists, 0, ids.length - 1);
+	}
+
+	private static void quicksort(int[] ids, double[] dists, int left, int right) {
+		while (right - left > 20) {
+			int median = (left + right) >>> 1;
+			int i = left + 1;
+			int j = right;
+			swap(ids, median, i);
+			if (dists[ids[left]] > dists[ids[right]]) {
+				swap(ids, left, right);
+			}
+			if (dists[ids[i]] > dists[ids[right]]) {
+				swap(ids, i, right);
+			}
+			if (dists[ids[left]] > dists[ids[i]]) {
+				swap(ids, left, i);
+			}
+			int temp = ids[i];
+			double tempDist = dists[temp];
+			while (true) {
+				do {
+					i++;
+				} while (dists[ids[i]] < tempDist);
+				do {
+					j--;
+				} while (dists[ids[j]] > tempDist);
+				if (j < i) {
+					break;
+				}
+				swap(ids, i, j);
+			}
+			ids[left + 1] = ids[j];
+			ids[j] = temp;
+			// 先遞迴較小的一側，避免最壞情況下堆疊過深
+			if (j - left < right - i + 1) {
+				quicksort(ids, dists, left, j - 1);
+				left = i;
+			} else {
+				quicksort(ids, dists, i, right);
+				right = j - 1;
+			}
+		}
+		for (int i = left + 1; i <= right; i++) {
+			int temp = ids[i];
+			double tempDist = dists[temp];
+			int j = i - 1;
+			while (j >= left && dists[ids[j]] > tempDist) {
+				ids[j + 1] = ids[j];
+				j--;
+			}
+			ids[j + 1] = temp;
+		}
+	}
+
+	private static void swap(int[] arr, int i, int j) {
+		int tmp = arr[i];
+		arr[i] = arr[j];
+		arr[j] = tmp;
+	}
+
+	private static double pseudoAngle(double dx, double dy) {
+		double p = dx / (Math.abs(dx) + Math.abs(dy));
+		return (dy > 0 ? 3 - p : 1 + p) / 4; // [0..1]
+	}
+
+	private static double dist(double ax, double ay, double bx, double by) {
+		double dx = ax - bx, dy = ay - by;
+		return dx * dx + dy * dy;
+	}
+
+	/** 小於 0 表示 (a, b, c) 在 y 朝上的座標系中為逆時針 */
+	private static double orient(double ax, double ay, double bx, double by, double cx, double cy) {
+		return (ay - cy) * (bx - cx) - (ax - cx) * (by - cy);
+	}
+
+	private static boolean inCircle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+		double dx = ax - px, dy = ay - py;
+		double ex = bx - px, ey = by - py;
+		double fx = cx - px, fy = cy - py;
+		double ap = dx * dx + dy * dy;
+		double bp = ex * ex + ey * ey;
+		double cp = fx * fx + fy * fy;
+		return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+	}
+
+	private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax, dy = by - ay;
+		double ex = cx - ax, ey = cy - ay;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+		double x = (ey * bl - dy * cl) * d;
+		double y = (dx * cl - ex * bl) * d;
+		double r = x * x + y * y;
+		return Double.isNaN(r) ? Double.POSITIVE_INFINITY : r;
+	}
+
+	private void circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax, dy = by - ay;
+		double ex = cx - ax, ey = cy - ay;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+		this.cx = ax + (ey * bl - dy * cl) * d;
+		this.cy = ay + (dx * cl - ex * bl) * d;
+	}
+}
@@ -0,0 +1,161 @@
+// 27. 最小生成樹 (MST) 演算法 - 隱式完全圖上的 Prim：只保留每個點到樹的最短距離與來源點，O(n²) 時間、O(n) 記憶體，不建立候選邊表
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class DensePrimMST {
+	/** 剩餘的點少於此數時，平行模式也改為在目前的執行緒上掃描（工作分派的成本高於掃描本身） */
+	private static final int PARALLEL_THRESHOLD = 4096;
+	/** 平行掃描時每個工作至少處理的點數 */
+	private static final int CHUNK = 1024;
+
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	/**
+	 * 每加入一個點 u，掃描尚未加入的點 v：只有當 (u, v) 比 v 目前的最佳邊更輕時才檢查可見性，並更新 bestDist[v] 與 bestFrom[v]； 同一次掃描順便找出下一個要加入的點。
+	 * 樹以外的邊不會被存下來，記憶體只有數個長度 n 的陣列。
+	 *
+	 * 權重相同時依 (i, j) 的全序比較，因此結果（包含邊的順序）與 {@link KruskalMST#findMST(PointSet, VisibilityChecker)} 完全一致； 點之間不連通時從編號最小的剩餘點開始下一棵樹。
+	 */
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return findMSTEdges(points, checker, 1).toEdges();
+	}
+
+	/**
+	 * 平行版本：每一步對剩餘點的掃描切塊交給 ForkJoinPool，各塊回傳自己的最近點再合併。結果與執行緒數無關。
+	 *
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap, int parallelism) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker, parallelism);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker, int parallelism) {
+		return findMSTEdges(points, checker, parallelism).toEdges();
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker, int)}，結果以編號存放在邊表中（點集合不需要有 {@link Node}） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker, int parallelism) {
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		Prim prim = new Prim(points, checker);
+		ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		try {
+			prim.run(pool);
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+
+		return EdgeList.fromPairKeys(points, prim.chosen, prim.chosenCount, VisibilityGraph.Weight.SQUARED_EUCLIDEAN);
+	}
+
+	private static final class Prim {
+		private final PointSet points;
+		private final VisibilityChecker checker;
+		// 尚未加入的點到目前的樹的最短可見距離與其來源點（-1 表示還沒有可見的樹上點）
+		private final double[] bestDist;
+		private final int[] bestFrom;
+		// 尚未加入的點，remaining[0 .. count)；加入時以最後一個填補空位
+		private final int[] remaining;
+		private int count;
+
+		final long[] chosen;
+		int chosenCount;
+
+		Prim(PointSet points, VisibilityChecker checker) {
+			int n = points.size;
+			this.points = points;
+			this.checker = checker;
+			this.bestDist = new double[n];
+			this.bestFrom = new int[n];
+			this.remaining = new int[n];
+			Arrays.fill(bestDist, Double.POSITIVE_INFINITY);
+			Arrays.fill(bestFrom, -1);
+			for (int i = 0; i < n; i++) {
+				remaining[i] = i;
+			}
+			this.count = n;
+			this.chosen = new long[Math.max(0, n - 1)];
+		}
+
+		void run(ForkJoinPool pool) {
+			// 剩餘點中最先加入的位置；一開始是編號 0
+			int next = 0;
+			while (count > 0) {
+				int u = remaining[next];
+				if (bestFrom[u] >= 0) {
+					chosen[chosenCount++] = EdgeList.pairKey(u, bestFrom[u]);
+				}
+				remaining[next] = remaining[--count];
+				if (count == 0) {
+					break;
+				}
+				next = pool != null && count >= PARALLEL_THRESHOLD ? pool.invoke(new Scan(this, u, 0, count)) : scan(u, 0, count);
+			}
+		}
+
+		/** 以 u 更新 remaining[from .. to) 的最佳邊，回傳其中最先加入的點的位置 */
+		int scan(int u, int from, int to) {
+			int best = -1;
+			for (int k = from; k < to; k++) {
+				int v = remaining[k];
+				double w = points.weight(u, v);
+				if (w <= bestDist[v] && (w < bestDist[v] || EdgeList.pairKey(u, v) < EdgeList.pairKey(v, bestFrom[v])) && checker.isVisible(points, u, v)) {
+					bestDist[v] = w;
+					bestFrom[v] = u;
+				}
+				if (best < 0 || before(v, remaining[best])) {
+					best = k;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * v 是否比 other 先加入：依 (bestDist, 邊的 (i, j)) 比較；兩者都還沒有可見的樹上點時，編號小的先作為下一棵樹的根。
+		 */
+		boolean before(int v, int other) {
+			if (bestDist[v] != bestDist[other]) {
+				return bestDist[v] < bestDist[other];
+			}
+			if (bestFrom[v] < 0 || bestFrom[other] < 0) {
+				return bestFrom[v] < 0 && bestFrom[other] < 0 ? v < other : bestFrom[v] >= 0;
+			}
+			return EdgeList.pairKey(v, bestFrom[v]) < EdgeList.pairKey(other, bestFrom[other]);
+		}
+	}
+
+	/** 平行掃描 [from, to)，範圍超過 CHUNK 時分成兩半 fork/join，回傳最先加入的點的位置 */
+	@SuppressWarnings("serial")
+	private static final class Scan extends RecursiveTask<Integer> {
+		private final Prim prim;
+		private final int u;
+		private final int from, to;
+
+		Scan(Prim prim, int u, int from, int to) {
+			this.prim = prim;
+			this.u = u;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= CHUNK) {
+				return prim.scan(u, from, to);
+			}
+			int mid = (from + to) >>> 1;
+			Scan left = new Scan(prim, u, from, mid);
+			left.fork();
+			int right = new Scan(prim, u, mid, to).compute();
+			int best = left.join();
+			return prim.before(prim.remaining[right], prim.remaining[best]) ? right : best;
+		}
+	}
+}
\ No newline at end of file
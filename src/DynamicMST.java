@@ -0,0 +1,367 @@
+// 28. 動態最小生成樹：新增、刪除、移動點與新增、移除障礙物時只檢查受影響的點對，並以換邊修補現有的樹，不重新列舉全部點對
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 維護可見性圖的最小生成樹（森林），供互動編輯使用。每次修改後的結果與對目前的點（依編號順序）重新執行 {@link KruskalMST#findMST(PointSet, VisibilityChecker)} 完全相同。
+ *
+ * 權重相同的邊依 (i, j) 的全序比較，使最小生成樹唯一，因此可以只修補：
+ * <ul>
+ * <li>新增點 v：新的樹只可能用到舊的樹邊與 v 的邊，對兩者做 Kruskal，且只在某條 v 的邊會連接兩個元件時才檢查可見性（環替換）。</li>
+ * <li>刪除點、新增障礙物：拿掉失效的樹邊後，剩下的樹邊仍在新的樹中；從最小的元件開始，每次加入它最輕的可見外連邊（切割替換）。</li>
+ * <li>移除障礙物：只有穿過該障礙物的點對可能變成可見；樹連通時其中比最重的樹邊還重的點對也不會用到，其餘分批與目前的樹邊做 Kruskal。</li>
+ * </ul>
+ * 點的編號在刪除後不會重複使用。此類別不是執行緒安全的。
+ */
+public class DynamicMST {
+	/** 移除障礙物時每批候選點對的數量（相對於目前的點數），使工作記憶體維持 O(n) */
+	private static final int BATCH_FACTOR = 4;
+
+	// 依編號存放的點；刪除的點 alive 為 false，座標保留但不再使用
+	private double[] xs = new double[16];
+	private double[] ys = new double[16];
+	private Node[] nodes = new Node[16];
+	private boolean[] alive = new boolean[16];
+	private int idCount;
+	private int liveCount;
+
+	private final List<LineSegment> obstacles = new ArrayList<>();
+	private VisibilityChecker checker = new VisibilityChecker(List.of());
+
+	// 目前的樹邊，以 pairKey 編碼（順序不固定）
+	private long[] tree = new long[16];
+	private int treeSize;
+
+	public DynamicMST() {
+	}
+
+	/** 以初始的點與障礙物建立，點的編號即在 points 中的順序（起始的樹以 {@link BoruvkaMST} 計算） */
+	public DynamicMST(List<Point> points, List<LineSegment> obstacles) {
+		this.obstacles.addAll(obstacles);
+		this.checker = new VisibilityChecker(new ArrayList<>(this.obstacles));
+		for (Point p : points) {
+			allocate(p);
+		}
+		double[] px = Arrays.copyOf(xs, idCount), py = Arrays.copyOf(ys, idCount);
+		EdgeList mst = BoruvkaMST.findMSTEdges(new PointSet(px, py, null), checker, 0);
+		for (int k = 0; k < mst.size; k++) {
+			addTreeEdge(EdgeList.pairKey(mst.src[k], mst.dst[k]));
+		}
+	}
+
+	/** 新增一個點，回傳其編號 */
+	public int insertPoint(Point p) {
+		int v = allocate(p);
+		connect(v);
+		return v;
+	}
+
+	/** 刪除編號為 id 的點 */
+	public void deletePoint(int id) {
+		requireAlive(id);
+		detach(id);
+		reconnect();
+	}
+
+	/** 將編號為 id 的點移到 p（編號不變） */
+	public void movePoint(int id, Point p) {
+		requireAlive(id);
+		detach(id);
+		reconnect();
+		nodes[id] = new Node(p);
+		xs[id] = p.x;
+		ys[id] = p.y;
+		alive[id] = true;
+		liveCount++;
+		connect(id);
+	}
+
+	/**
+	 * 新增障礙物：只重新檢查未被外接矩形排除的樹邊（與相交判定相同的容許誤差，見 {@link GeometryUtils#BOX_REJECT_EPSILON}），被擋住的邊以切割替換修補
+	 */
+	public void addObstacle(LineSegment obstacle) {
+		obstacles.add(obstacle);
+		checker = new VisibilityChecker(new ArrayList<>(obstacles));
+		double sx1 = obstacle.p1.x, sy1 = obstacle.p1.y, sx2 = obstacle.p2.x, sy2 = obstacle.p2.y;
+		int kept = 0;
+		for (int k = 0; k < treeSize; k++) {
+			int a = (int) (tree[k] >>> 32), b = (int) tree[k];
+			boolean rejected = GeometryUtils.boxGap(xs[a], ys[a], xs[b], ys[b], sx1, sy1, sx2, sy2) > GeometryUtils.BOX_REJECT_EPSILON;
+			if (rejected || visible(a, b)) {
+				tree[kept++] = tree[k];
+			}
+		}
+		if (kept < treeSize) {
+			treeSize = kept;
+			reconnect();
+		}
+	}
+
+	/**
+	 * 移除障礙物（以參考比較，需為先前傳入的同一個物件）。只有與它相交的點對可能變成可見，這些點對分批與目前的樹邊做 Kruskal，且只在會連接兩個元件時才檢查可見性。
+	 *
+	 * 目前的樹連通時，權重 W 為最重的樹邊：比 W 還重的點對是它與樹上路徑所成的環中最重的邊，不會進入新的樹。 因此只需要長度不超過 √W 的點對。
+	 * 相交判定有容許誤差（見 {@link GeometryUtils#doIntersect}），點對只需通過外接矩形排除：間距 g 乘以較短者的跨距 min(c, e) 不超過 BOX_REJECT_EPSILON，
+	 * c 為點對的跨距（x、y 差的較大者）、e 為障礙物的跨距。 點 i 與障礙物外接矩形的間距為 d 時，點對的間距 g >= d - c：
+	 * d 不超過 √W + BOX_REJECT_EPSILON / e 的點搜尋周圍 √W 以內的點；更遠的點只可能與跨距小於 BOX_REJECT_EPSILON / (d - √W) 的點配對，只搜尋這麼小的範圍。
+	 * 以點的網格索引搜尋，點分布均勻時 √W 很小，成本約為 O(n + 障礙物附近的點數 × 每個點 √W 內的點數)。
+	 * 樹有很長的邊（例如相距很遠的群集）或不連通（有點被障礙物完全隔開）時範圍可能涵蓋全部的點，最差仍為 O(n²)。
+	 *
+	 * @return 是否找到並移除
+	 */
+	public boolean removeObstacle(LineSegment obstacle) {
+		int index = -1;
+		for (int o = 0; o < obstacles.size(); o++) {
+			if (obstacles.get(o) == obstacle) {
+				index = o;
+				break;
+			}
+		}
+		if (index < 0) {
+			return false;
+		}
+		obstacles.remove(index);
+		checker = new VisibilityChecker(new ArrayList<>(obstacles));
+
+		double sx1 = obstacle.p1.x, sy1 = obstacle.p1.y, sx2 = obstacle.p2.x, sy2 = obstacle.p2.y;
+		double minX = Math.min(sx1, sx2), maxX = Math.max(sx1, sx2), minY = Math.min(sy1, sy2), maxY = Math.max(sy1, sy2);
+		// 容許誤差對跨距 >= 障礙物跨距的點對所能涵蓋的間距（加倍以涵蓋捨入；障礙物退化為一點時沒有上限）
+		double slack = 2 * GeometryUtils.BOX_REJECT_EPSILON / Math.max(maxX - minX, maxY - minY);
+
+		// 候選點對的權重上限與長度上限（略為放大以涵蓋開根號的捨入）；樹不連通時沒有上限
+		double bound = Double.POSITIVE_INFINITY;
+		if (treeSize == liveCount - 1) {
+			bound = 0;
+			for (int k = 0; k < treeSize; k++) {
+				bound = Math.max(bound, weight((int) (tree[k] >>> 32), (int) tree[k]));
+			}
+		}
+		double reach = Math.sqrt(bound) * (1 + 1e-9);
+
+		PointGrid grid = new PointGrid(new PointSet(Arrays.copyOf(xs, idCount), Arrays.copyOf(ys, idCount), null));
+		long[] batch = new long[Math.max(1024, BATCH_FACTOR * liveCount)];
+		int count = 0;
+		for (int i = 0; i < idCount; i++) {
+			if (!alive[i]) {
+				continue;
+			}
+			// 點 i 與障礙物外接矩形的間距（各軸間距的較大者），由此決定另一端的搜尋範圍；每個點對只由編號較小的一端列出
+			double d = Math.max(Math.max(minX - xs[i], xs[i] - maxX), Math.max(minY - ys[i], ys[i] - maxY));
+			double radius = d <= reach + slack ? reach : 2 * GeometryUtils.BOX_REJECT_EPSILON / (d - reach);
+			for (int rr = grid.row(ys[i] - radius), rr1 = grid.row(ys[i] + radius); rr <= rr1; rr++) {
+				for (int cc = grid.col(xs[i] - radius), cc1 = grid.col(xs[i] + radius); cc <= cc1; cc++) {
+					int other = rr * grid.cols + cc;
+					for (int q = grid.cellStart[other]; q < grid.cellStart[other + 1]; q++) {
+						int j = grid.cellItems[q];
+						// doIntersect 先做外接矩形排除，遠離障礙物的點對很快就被排除
+						if (j > i && alive[j] && weight(i, j) <= bound && GeometryUtils.doIntersect(xs[i], ys[i], xs[j], ys[j], sx1, sy1, sx2, sy2)) {
+							batch[count++] = EdgeList.pairKey(i, j);
+							if (count == batch.length) {
+								merge(batch, count);
+								count = 0;
+							}
+						}
+					}
+				}
+			}
+		}
+		if (count > 0) {
+			merge(batch, count);
+		}
+		return true;
+	}
+
+	/** 目前的樹邊，依 Kruskal 加入的順序 (權重, i, j) */
+	public List<Edge> edges() {
+		long[] keys = Arrays.copyOf(tree, treeSize);
+		Arrays.sort(keys);
+		EdgeList list = new EdgeList(nodes, idCount, keys.length);
+		for (long key : keys) {
+			int a = (int) (key >>> 32), b = (int) key;
+			list.add(a, b, weight(a, b));
+		}
+		list.sortByWeight();
+		return list.toEdges();
+	}
+
+	/** 編號為 id 的點的節點；已刪除時為 null */
+	public Node node(int id) {
+		return id >= 0 && id < idCount && alive[id] ? nodes[id] : null;
+	}
+
+	/** 目前的點數（不含已刪除的點） */
+	public int size() {
+		return liveCount;
+	}
+
+	public List<LineSegment> getObstacles() {
+		return Collections.unmodifiableList(obstacles);
+	}
+
+	/** 為新的點配置編號 */
+	private int allocate(Point p) {
+		if (idCount == xs.length) {
+			int cap = idCount * 2;
+			xs = Arrays.copyOf(xs, cap);
+			ys = Arrays.copyOf(ys, cap);
+			nodes = Arrays.copyOf(nodes, cap);
+			alive = Arrays.copyOf(alive, cap);
+		}
+		int id = idCount++;
+		nodes[id] = new Node(p);
+		xs[id] = p.x;
+		ys[id] = p.y;
+		alive[id] = true;
+		liveCount++;
+		return id;
+	}
+
+	/** 將點 v 以環替換接入目前的樹：候選邊為 v 到其他所有點 */
+	private void connect(int v) {
+		long[] candidates = new long[liveCount - 1];
+		int count = 0;
+		for (int j = 0; j < idCount; j++) {
+			if (alive[j] && j != v) {
+				candidates[count++] = EdgeList.pairKey(v, j);
+			}
+		}
+		merge(candidates, count);
+	}
+
+	/** 拿掉點 id 與其所有樹邊 */
+	private void detach(int id) {
+		int kept = 0;
+		for (int k = 0; k < treeSize; k++) {
+			if ((int) (tree[k] >>> 32) != id && (int) tree[k] != id) {
+				tree[kept++] = tree[k];
+			}
+		}
+		treeSize = kept;
+		alive[id] = false;
+		liveCount--;
+	}
+
+	/**
+	 * 目前的樹邊與候選點對一起依 (權重, i, j) 做 Kruskal，結果取代目前的樹。 樹邊已知可見；候選點對只在會連接兩個元件時才檢查可見性。
+	 */
+	private void merge(long[] candidates, int count) {
+		long[] keys = Arrays.copyOf(tree, treeSize + count);
+		System.arraycopy(candidates, 0, keys, treeSize, count);
+		long[] treeKeys = Arrays.copyOf(tree, treeSize);
+		Arrays.sort(treeKeys);
+		Arrays.sort(keys);
+
+		// 依 (i, j) 順序加入後穩定排序，即得 (權重, i, j) 的順序
+		EdgeList edges = new EdgeList(nodes, idCount, keys.length);
+		for (int k = 0; k < keys.length; k++) {
+			if (k > 0 && keys[k] == keys[k - 1]) {
+				continue;
+			}
+			int a = (int) (keys[k] >>> 32), b = (int) keys[k];
+			edges.add(a, b, weight(a, b));
+		}
+		edges.sortByWeight();
+
+		IntUnionFind unionFind = new IntUnionFind(idCount);
+		treeSize = 0;
+		for (int k = 0; k < edges.size; k++) {
+			int a = edges.src[k], b = edges.dst[k];
+			if (unionFind.connected(a, b)) {
+				continue;
+			}
+			if (Arrays.binarySearch(treeKeys, EdgeList.pairKey(a, b)) < 0 && !visible(a, b)) {
+				continue;
+			}
+			unionFind.union(a, b);
+			addTreeEdge(EdgeList.pairKey(a, b));
+		}
+	}
+
+	/**
+	 * 以切割替換連接目前樹邊形成的各元件：每次取最小的元件，找出它 (權重, i, j) 最小的可見外連邊加入。 找不到可見外連邊的元件之後不再搜尋。
+	 */
+	private void reconnect() {
+		IntUnionFind unionFind = new IntUnionFind(idCount);
+		for (int k = 0; k < treeSize; k++) {
+			unionFind.union((int) (tree[k] >>> 32), (int) tree[k]);
+		}
+		int[] root = new int[idCount];
+		int[] size = new int[idCount];
+		boolean[] closed = new boolean[idCount];
+		while (true) {
+			Arrays.fill(size, 0);
+			for (int i = 0; i < idCount; i++) {
+				if (alive[i]) {
+					root[i] = unionFind.find(i);
+					size[root[i]]++;
+				}
+			}
+			int smallest = -1, open = 0;
+			for (int r = 0; r < idCount; r++) {
+				if (size[r] > 0 && !closed[r]) {
+					open++;
+					if (smallest < 0 || size[r] < size[smallest]) {
+						smallest = r;
+					}
+				}
+			}
+			if (open < 2) {
+				return;
+			}
+
+			double best = Double.POSITIVE_INFINITY;
+			long bestKey = Long.MAX_VALUE;
+			for (int a = 0; a < idCount; a++) {
+				if (!alive[a] || root[a] != smallest) {
+					continue;
+				}
+				for (int b = 0; b < idCount; b++) {
+					if (!alive[b] || root[b] == smallest || closed[root[b]]) {
+						continue;
+					}
+					double w = weight(a, b);
+					if (w > best) {
+						continue;
+					}
+					long key = EdgeList.pairKey(a, b);
+					if ((w < best || key < bestKey) && visible(a, b)) {
+						best = w;
+						bestKey = key;
+					}
+				}
+			}
+			if (bestKey == Long.MAX_VALUE) {
+				closed[smallest] = true;
+			} else {
+				unionFind.union((int) (bestKey >>> 32), (int) bestKey);
+				addTreeEdge(bestKey);
+			}
+		}
+	}
+
+	private void addTreeEdge(long key) {
+		if (treeSize == tree.length) {
+			tree = Arrays.copyOf(tree, treeSize * 2);
+		}
+		tree[treeSize++] = key;
+	}
+
+	private void requireAlive(int id) {
+		if (id < 0 || id >= idCount || !alive[id]) {
+			throw new IllegalArgumentException("沒有編號為 " + id + " 的點");
+		}
+	}
+
+	/** 與 {@link PointSet#weight} 逐位元相同的權重（距離平方） */
+	private double weight(int a, int b) {
+		double distance = Point.distance(xs[a], ys[a], xs[b], ys[b]);
+		return distance * distance;
+	}
+
+	private boolean visible(int a, int b) {
+		return checker.isVisible(xs[a], ys[a], xs[b], ys[b]);
+	}
+}
\ No newline at end of file
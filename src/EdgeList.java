@@ -0,0 +1,182 @@
+// 12. 邊的原始型別儲存：以平行陣列取代大量 Edge 物件，並以基數排序依權重排序
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class EdgeList {
+	/** 節點編號 → 節點；src/dst 存放的是此表中的索引。純座標的點集合為 null，此時只能使用以編號表示的結果 */
+	final Node[] nodes;
+	/** 節點編號的範圍 0 .. vertexCount - 1 */
+	final int vertexCount;
+
+	int[] src;
+	int[] dst;
+	double[] weight;
+	int size;
+
+	EdgeList(PointSet points) {
+		this(points.nodes, points.size, 16);
+	}
+
+	EdgeList(PointSet points, int capacity) {
+		this(points.nodes, points.size, capacity);
+	}
+
+	EdgeList(Node[] nodes, int vertexCount, int capacity) {
+		this.nodes = nodes;
+		this.vertexCount = vertexCount;
+		int cap = Math.max(1, capacity);
+		this.src = new int[cap];
+		this.dst = new int[cap];
+		this.weight = new double[cap];
+	}
+
+	void add(int s, int d, double w) {
+		if (size == src.length) {
+			int cap = size * 2;
+			src = Arrays.copyOf(src, cap);
+			dst = Arrays.copyOf(dst, cap);
+			weight = Arrays.copyOf(weight, cap);
+		}
+		src[size] = s;
+		dst[size] = d;
+		weight[size] = w;
+		size++;
+	}
+
+	Edge toEdge(int k) {
+		return new Edge(nodes[src[k]], nodes[dst[k]], weight[k]);
+	}
+
+	/** 依序為每條邊建立 Edge 物件 */
+	List<Edge> toEdges() {
+		List<Edge> edges = new ArrayList<>(size);
+		for (int k = 0; k < size; k++) {
+			edges.add(toEdge(k));
+		}
+		return edges;
+	}
+
+	/** 依權重做穩定排序（權重相同時保留加入的順序），結果與 Comparator.comparingDouble 的穩定排序相同 */
+	void sortByWeight() {
+		int[] order = new int[size];
+		long[] keys = new long[size];
+		for (int k = 0; k < size; k++) {
+			order[k] = k;
+			keys[k] = sortableBits(weight[k]);
+		}
+		radixSort(keys, order, size);
+
+		int[] s = new int[size];
+		int[] d = new int[size];
+		double[] w = new double[size];
+		for (int k = 0; k < size; k++) {
+			int from = order[k];
+			s[k] = src[from];
+			d[k] = dst[from];
+			w[k] = weight[from];
+		}
+		src = s;
+		dst = d;
+		weight = w;
+	}
+
+	/** 將點對 (a, b) 編碼為 long，較小的索引放在高位，排序後即為 (i, j) 的字典序 */
+	static long pairKey(int a, int b) {
+		int lo = Math.min(a, b), hi = Math.max(a, b);
+		return ((long) lo << 32) | hi;
+	}
+
+	/**
+	 * 以 {@link #pairKey} 編碼的點對 keys[0 .. count) 建立邊表，依 (權重, i, j) 排列：先依 (i, j) 加入再依權重穩定排序，等同暴力法的列舉順序，
+	 * 對 MST 的邊即為 Kruskal 加入的順序。 keys 的這個範圍會被排序。
+	 */
+	static EdgeList fromPairKeys(PointSet points, long[] keys, int count, VisibilityGraph.Weight weight) {
+		Arrays.sort(keys, 0, count);
+		EdgeList edges = new EdgeList(points, count);
+		for (int k = 0; k < count; k++) {
+			int a = (int) (keys[k] >>> 32), b = (int) keys[k];
+			edges.add(a, b, weight.weight(points, a, b));
+		}
+		edges.sortByWeight();
+		return edges;
+	}
+
+	/** 合併兩個已依權重排序的邊表；權重相同時 a 的邊在前（穩定合併） */
+	static EdgeList mergeSorted(EdgeList a, EdgeList b) {
+		EdgeList out = new EdgeList(a.nodes, a.vertexCount, a.size + b.size);
+		int i = 0, j = 0;
+		while (i < a.size && j < b.size) {
+			if (Double.compare(b.weight[j], a.weight[i]) < 0) {
+				out.add(b.src[j], b.dst[j], b.weight[j]);
+				j++;
+			} else {
+				out.add(a.src[i], a.dst[i], a.weight[i]);
+				i++;
+			}
+		}
+		for (; i < a.size; i++) {
+			out.add(a.src[i], a.dst[i], a.weight[i]);
+		}
+		for (; j < b.size; j++) {
+			out.add(b.src[j], b.dst[j], b.weight[j]);
+		}
+		return out;
+	}
+
+	/** 對已排序的邊執行 Kruskal 的合併階段，只為 MST 的邊建立 Edge 物件 */
+	List<Edge> kruskal() {
+		return kruskalEdges().toEdges();
+	}
+
+	/** 同 {@link #kruskal()}，但 MST 的邊仍以編號存放在新的邊表中，不建立任何物件（nodes 可為 null） */
+	EdgeList kruskalEdges() {
+		EdgeList mst = new EdgeList(nodes, vertexCount, Math.max(0, vertexCount - 1));
+		IntUnionFind unionFind = new IntUnionFind(vertexCount);
+		for (int k = 0; k < size && unionFind.components() > 1; k++) {
+			if (unionFind.union(src[k], dst[k])) {
+				mst.add(src[k], dst[k], weight[k]);
+			}
+		}
+		PipelineMetrics.add(PipelineMetrics.Counter.UNIONS, mst.size);
+		return mst;
+	}
+
+	/** 將 double 轉成可依有號 long 比較、且與 Double.compare 順序一致的位元表示 */
+	static long sortableBits(double w) {
+		long bits = Double.doubleToLongBits(w);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+	/**
+	 * LSD 基數排序（每次 8 位元，共 8 趟），同時搬移 payload；為穩定排序。 所有 key 在某個位元組都相同時會跳過該趟。
+	 */
+	static void radixSort(long[] keys, int[] payload, int len) {
+		long[] keyBuf = new long[len];
+		int[] payloadBuf = new int[len];
+		int[] count = new int[257];
+		for (int shift = 0; shift < 64; shift += 8) {
+			Arrays.fill(count, 0);
+			// 最高位元組需翻轉符號位，使負數排在正數之前
+			long flip = shift == 56 ? 0x80 : 0;
+			for (int k = 0; k < len; k++) {
+				count[(int) (((keys[k] >>> shift) & 0xFF) ^ flip) + 1]++;
+			}
+			if (len == 0 || count[(int) (((keys[0] >>> shift) & 0xFF) ^ flip) + 1] == len) {
+				continue;
+			}
+			for (int b = 0; b < 256; b++) {
+				count[b + 1] += count[b];
+			}
+			for (int k = 0; k < len; k++) {
+				int b = (int) (((keys[k] >>> shift) & 0xFF) ^ flip);
+				int pos = count[b]++;
+				keyBuf[pos] = keys[k];
+				payloadBuf[pos] = payload[k];
+			}
+			System.arraycopy(keyBuf, 0, keys, 0, len);
+			System.arraycopy(payloadBuf, 0, payload, 0, len);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+// 13. 最小生成樹 (MST) 演算法 - Filter-Kruskal（先依權重分割，較重的一側在排序前先濾掉同元件內的邊）
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class FilterKruskal {
+	/** 邊數不超過此值時直接排序後執行 Kruskal */
+	private static final int BASE_CASE = 1024;
+
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return run(KruskalMST.buildEdgeList(points, checker));
+	}
+
+	/**
+	 * 對尚未排序的邊表執行 Filter-Kruskal。 結果（包含邊的順序）與「穩定排序後執行 Kruskal」完全相同：分割時權重相同的邊永遠在同一側，且分割與過濾都保留原本的相對順序。
+	 */
+	static List<Edge> run(EdgeList edges) {
+		int[] ids = new int[edges.size];
+		for (int k = 0; k < ids.length; k++) {
+			ids[k] = k;
+		}
+		State state = new State(edges);
+		state.filterKruskal(ids, 0, ids.length);
+		return state.mst;
+	}
+
+	private static final class State {
+		final EdgeList edges;
+		final IntUnionFind unionFind;
+		final List<Edge> mst = new ArrayList<>();
+		int[] buffer = new int[0];
+
+		State(EdgeList edges) {
+			this.edges = edges;
+			this.unionFind = new IntUnionFind(edges.vertexCount);
+		}
+
+		/** 處理 ids[lo, hi) 內的邊（ids 在範圍內保持遞增，也就是原本的加入順序） */
+		void filterKruskal(int[] ids, int lo, int hi) {
+			while (hi > lo && unionFind.components() > 1) {
+				if (hi - lo <= BASE_CASE) {
+					kruskal(ids, lo, hi);
+					return;
+				}
+				double pivot = medianOfThree(ids, lo, hi);
+				int mid = partition(ids, lo, hi, pivot, true);
+				if (mid == hi) {
+					// 全部 <= pivot：改以 < pivot 分割；若仍無法分割（全部權重相同）就直接排序
+					mid = partition(ids, lo, hi, pivot, false);
+					if (mid == lo) {
+						kruskal(ids, lo, hi);
+						return;
+					}
+				}
+				filterKruskal(ids, lo, mid);
+				hi = filter(ids, mid, hi);
+				lo = mid;
+			}
+		}
+
+		/** 基本情況：穩定排序後依序合併 */
+		private void kruskal(int[] ids, int lo, int hi) {
+			int len = hi - lo;
+			long[] keys = new long[len];
+			int[] order = Arrays.copyOfRange(ids, lo, hi);
+			for (int k = 0; k < len; k++) {
+				keys[k] = EdgeList.sortableBits(edges.weight[order[k]]);
+			}
+			EdgeList.radixSort(keys, order, len);
+			int before = mst.size();
+			for (int k = 0; k < len && unionFind.components() > 1; k++) {
+				int e = order[k];
+				if (unionFind.union(edges.src[e], edges.dst[e])) {
+					mst.add(edges.toEdge(e));
+				}
+			}
+			PipelineMetrics.add(PipelineMetrics.Counter.UNIONS, mst.size() - before);
+		}
+
+		/** 穩定分割：符合條件（<= 或 < pivot）的邊移到前段，回傳分界位置 */
+		private int partition(int[] ids, int lo, int hi, double pivot, boolean inclusive) {
+			if (buffer.length < hi - lo) {
+				buffer = new int[hi - lo];
+			}
+			int left = lo, right = 0;
+			for (int k = lo; k < hi; k++) {
+				int c = Double.compare(edges.weight[ids[k]], pivot);
+				if (c < 0 || (inclusive && c == 0)) {
+					ids[left++] = ids[k];
+				} else {
+					buffer[right++] = ids[k];
+				}
+			}
+			System.arraycopy(buffer, 0, ids, left, right);
+			return left;
+		}
+
+		/** 濾掉兩端已在同一元件的邊，保留順序，回傳新的結尾位置 */
+		private int filter(int[] ids, int lo, int hi) {
+			int out = lo;
+			for (int k = lo; k < hi; k++) {
+				int e = ids[k];
+				if (!unionFind.connected(edges.src[e], edges.dst[e])) {
+					ids[out++] = e;
+				}
+			}
+			return out;
+		}
+
+		private double medianOfThree(int[] ids, int lo, int hi) {
+			double a = edges.weight[ids[lo]];
+			double b = edges.weight[ids[(lo + hi) >>> 1]];
+			double c = edges.weight[ids[hi - 1]];
+			return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+		}
+	}
+}
\ No newline at end of file
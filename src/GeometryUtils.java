@@ -1,38 +1,126 @@
 // 3. 幾何運算工具類
+
 class GeometryUtils {
+	/**
+	 * 一條路徑對多條線段的批次相交測試。線段以 struct-of-arrays 存放：第 k 條為 (x1[k], y1[k]) - (x2[k], y2[k])。
+	 *
+	 * @return [from, to) 中第一條與路徑相交的線段索引，沒有時回傳 -1；結果與逐條呼叫 {@link GeometryUtils#doIntersect} 相同
+	 */
+	interface BatchKernel {
+		int firstIntersection(double px, double py, double qx, double qy, double[] x1, double[] y1, double[] x2, double[] y2, int from, int to);
+	}
+
+	/** 向量化的批次核心（src-vector/VectorIntersectKernel）；未編譯或未以 --add-modules jdk.incubator.vector 啟動時為純量版本 */
+	private static final BatchKernel BATCH = loadBatchKernel();
+
+	/** 方向判斷的容許誤差：外積的絕對值小於此值時視為共線 */
+	static final double ORIENTATION_EPSILON = 1e-9;
+	/**
+	 * 外接矩形排除的門檻：間距乘以兩條線段中較短者的長度（取 x、y 跨距的較大者）超過此值才排除。
+	 * 外積小於 ORIENTATION_EPSILON 的端點離另一條線的距離小於 ORIENTATION_EPSILON / 長度，這樣「幾乎碰到」的情形在門檻內，結果與 {@link #intersectsByOrientation} 相同。
+	 * 排除是判定的一部分，不只是捷徑：間距超過門檻、但方向測試靠容許誤差判為相交的近乎共線線段，{@link #doIntersect} 判為不相交（見該方法）。
+	 */
+	static final double BOX_REJECT_EPSILON = 1024 * ORIENTATION_EPSILON;
+	/** 相交判定的版本：修改 doIntersect 或 VisibilityChecker 的判定方式（結果可能不同）時遞增，使依舊判定建立的可見性圖快取失效 */
+	static final int SEMANTICS_VERSION = 1;
+
 	public static boolean doIntersect(LineSegment seg1, LineSegment seg2) {
-		Point p1 = seg1.p1, q1 = seg1.p2;
-		Point p2 = seg2.p1, q2 = seg2.p2;
+		return doIntersect(seg1.p1.x, seg1.p1.y, seg1.p2.x, seg1.p2.y, seg2.p1.x, seg2.p1.y, seg2.p2.x, seg2.p2.y);
+	}
 
-		int o1 = orientation(p1, q1, p2);
-		int o2 = orientation(p1, q1, q2);
-		int o3 = orientation(p2, q2, p1);
-		int o4 = orientation(p2, q2, q1);
+	/**
+	 * 以座標表示的版本：線段 (p1, q1) 與 (p2, q2) 是否相交，不建立任何物件。
+	 *
+	 * 判定的定義為 {@code !(boxGap(...) > BOX_REJECT_EPSILON) && intersectsByOrientation(...)}；批次核心、可見性檢查與可見性圖快取都以此為準。
+	 * 與只做方向測試的 {@link #intersectsByOrientation} 只在外接矩形間距超過門檻時可能不同：此時兩個外接矩形不重疊，端點落在線段上的判斷不會成立，
+	 * 方向測試要判為相交，至少一個方向必須落在容許誤差內（四個方向都明確異號代表真的交叉，外接矩形必然重疊），也就是近乎共線、沿著共同方向分開的線段，
+	 * 例如 (0, 0)-(1, 0) 與 (1.48, 9.9e-10)-(2.48, 3e-9)：方向測試判為相交，此方法判為不相交。
+	 */
+	static boolean doIntersect(double p1x, double p1y, double q1x, double q1y, double p2x, double p2y, double q2x, double q2y) {
+		// 外接矩形相距超過門檻時不相交；只是不重疊還不夠，容許誤差會把端點幾乎碰到另一條線段的情形也判為相交（見 BOX_REJECT_EPSILON）
+		return !(boxGap(p1x, p1y, q1x, q1y, p2x, p2y, q2x, q2y) > BOX_REJECT_EPSILON) && intersectsByOrientation(p1x, p1y, q1x, q1y, p2x, p2y, q2x, q2y);
+	}
+
+	/** 不做外接矩形排除的判定：四個方向（外積小於 ORIENTATION_EPSILON 視為共線）與共線時的線段上判斷 */
+	static boolean intersectsByOrientation(double p1x, double p1y, double q1x, double q1y, double p2x, double p2y, double q2x, double q2y) {
+		int o1 = orientation(p1x, p1y, q1x, q1y, p2x, p2y);
+		int o2 = orientation(p1x, p1y, q1x, q1y, q2x, q2y);
+		int o3 = orientation(p2x, p2y, q2x, q2y, p1x, p1y);
+		int o4 = orientation(p2x, p2y, q2x, q2y, q1x, q1y);
 
 		if (o1 != o2 && o3 != o4) {
 			return true;
 		}
 
-		if (o1 == 0 && onSegment(p1, p2, q1))
+		if (o1 == 0 && onSegment(p1x, p1y, p2x, p2y, q1x, q1y))
 			return true;
-		if (o2 == 0 && onSegment(p1, q2, q1))
+		if (o2 == 0 && onSegment(p1x, p1y, q2x, q2y, q1x, q1y))
 			return true;
-		if (o3 == 0 && onSegment(p2, q2, p1))
+		if (o3 == 0 && onSegment(p2x, p2y, p1x, p1y, q2x, q2y))
 			return true;
-		if (o4 == 0 && onSegment(p2, q1, q2))
+		if (o4 == 0 && onSegment(p2x, p2y, q1x, q1y, q2x, q2y))
 			return true;
 
 		return false;
 	}
 
-	private static int orientation(Point p, Point q, Point r) {
-		double val = (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
-		if (Math.abs(val) < 1e-9)
+	/** 兩個外接矩形的間距（重疊時為負）乘以較短線段的 x、y 跨距的較大者；含 NaN 時為 NaN，任何比較都不成立 */
+	static double boxGap(double p1x, double p1y, double q1x, double q1y, double p2x, double p2y, double q2x, double q2y) {
+		double gapX = Math.max(Math.min(p2x, q2x) - Math.max(p1x, q1x), Math.min(p1x, q1x) - Math.max(p2x, q2x));
+		double gapY = Math.max(Math.min(p2y, q2y) - Math.max(p1y, q1y), Math.min(p1y, q1y) - Math.max(p2y, q2y));
+		double extent = Math.min(Math.max(Math.abs(q1x - p1x), Math.abs(q1y - p1y)), Math.max(Math.abs(q2x - p2x), Math.abs(q2y - p2y)));
+		return Math.max(gapX, gapY) * extent;
+	}
+
+	/** 路徑 (px, py)-(qx, qy) 對 [from, to) 的線段：第一條相交的索引，沒有時回傳 -1 */
+	static int firstIntersection(double px, double py, double qx, double qy, double[] x1, double[] y1, double[] x2, double[] y2, int from, int to) {
+		return BATCH.firstIntersection(px, py, qx, qy, x1, y1, x2, y2, from, to);
+	}
+
+	/** 純量版本的批次核心，也是向量版本處理尾端不足一個向量的部分時使用的實作 */
+	static int firstIntersectionScalar(double px, double py, double qx, double qy, double[] x1, double[] y1, double[] x2, double[] y2, int from, int to) {
+		for (int k = from; k < to; k++) {
+			if (doIntersect(px, py, qx, qy, x1[k], y1[k], x2[k], y2[k])) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	/** 目前使用的是否為向量化的批次核心 */
+	static boolean isVectorized() {
+		return !(BATCH instanceof ScalarKernel);
+	}
+
+	/** 系統屬性 geometry.vector=false 可強制使用純量版本 */
+	private static BatchKernel loadBatchKernel() {
+		if (Boolean.parseBoolean(System.getProperty("geometry.vector", "true"))) {
+			String pkg = GeometryUtils.class.getPackageName();
+			try {
+				Class<?> type = Class.forName(pkg.isEmpty() ? "VectorIntersectKernel" : pkg + ".VectorIntersectKernel");
+				return (BatchKernel) type.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// 沒有向量版本的類別，或執行時未加入 jdk.incubator.vector 模組
+			}
+		}
+		return new ScalarKernel();
+	}
+
+	private static final class ScalarKernel implements BatchKernel {
+		@Override
+		public int firstIntersection(double px, double py, double qx, double qy, double[] x1, double[] y1, double[] x2, double[] y2, int from, int to) {
+			return firstIntersectionScalar(px, py, qx, qy, x1, y1, x2, y2, from, to);
+		}
+	}
+
+	private static int orientation(double px, double py, double qx, double qy, double rx, double ry) {
+		double val = (qy - py) * (rx - qx) - (qx - px) * (ry - qy);
+		if (Math.abs(val) < ORIENTATION_EPSILON)
 			return 0;
 		return (val > 0) ? 1 : 2;
 	}
 
-	private static boolean onSegment(Point p, Point q, Point r) {
-		return q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x) && q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
+	private static boolean onSegment(double px, double py, double qx, double qy, double rx, double ry) {
+		return qx <= Math.max(px, rx) && qx >= Math.min(px, rx) && qy <= Math.max(py, ry) && qy >= Math.min(py, ry);
 	}
-}
+}
\ No newline at end of file
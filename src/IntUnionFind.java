@@ -0,0 +1,71 @@
+// 14. Union-Find 資料結構（以陣列實作）：依大小合併 + 迭代式路徑減半，以節點的連續編號為鍵
+
+import java.util.Arrays;
+
+class IntUnionFind {
+	private final int[] parent;
+	private final int[] size;
+	private int components;
+
+	public IntUnionFind(int n) {
+		this.parent = new int[n];
+		this.size = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+		}
+		Arrays.fill(size, 1);
+		this.components = n;
+	}
+
+	public int find(int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]]; // 路徑減半
+			i = parent[i];
+		}
+		return i;
+	}
+
+	public boolean union(int i, int j) {
+		int rootI = find(i);
+		int rootJ = find(j);
+		if (rootI == rootJ) {
+			return false;
+		}
+		// 小樹接到大樹下，樹高維持 O(log n)
+		if (size[rootI] < size[rootJ]) {
+			int t = rootI;
+			rootI = rootJ;
+			rootJ = t;
+		}
+		parent[rootJ] = rootI;
+		size[rootI] += size[rootJ];
+		components--;
+		return true;
+	}
+
+	public boolean connected(int i, int j) {
+		return find(i) == find(j);
+	}
+
+	/** 目前的元件數 */
+	public int components() {
+		return components;
+	}
+
+	/** 將每個元素標上所屬元件的連續編號 (0..components-1)，依元件第一次出現的順序 */
+	public int[] labels() {
+		int n = parent.length;
+		int[] rootLabel = new int[n];
+		Arrays.fill(rootLabel, -1);
+		int[] labels = new int[n];
+		int next = 0;
+		for (int i = 0; i < n; i++) {
+			int r = find(i);
+			if (rootLabel[r] < 0) {
+				rootLabel[r] = next++;
+			}
+			labels[i] = rootLabel[r];
+		}
+		return labels;
+	}
+}
\ No newline at end of file
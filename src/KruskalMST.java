@@ -1,40 +1,216 @@
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 // 6. 最小生成樹 (MST) 演算法 - Kruskal
 public class KruskalMST {
+	/** 平行模式下每個執行緒平均分到的工作塊數，讓工作竊取可以平衡各列長度不同的負載 */
+	private static final int CHUNKS_PER_THREAD = 8;
+
 	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
-		List<Edge> allEdges = new ArrayList<>();
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	/** 以點集合的編號運算的版本；點對依編號 (i, j) 的順序列舉 */
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return materialize(findMSTEdges(points, checker));
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker)}，但結果以編號存放在邊表中，不需要 {@link Node}（例如從二進位檔載入的點集合） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker) {
+		return findMSTEdges(points, checker, null);
+	}
+
+	/**
+	 * 同 {@link #findMSTEdges(PointSet, VisibilityChecker)}，可見的點對取自快取；命中時不做任何可見性檢查，直接排序與合併，結果完全相同。
+	 *
+	 * @param cache 可見性圖快取（可為 null，表示直接列舉）
+	 */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker, VisibilityGraphCache cache) {
+		PipelineMetrics.StageEvent stage = PipelineMetrics.begin(PipelineMetrics.Stage.VISIBILITY);
+		EdgeList allEdges = cache != null ? cache.visibleEdges(points, checker) : buildEdgeList(points, checker);
+		PipelineMetrics.end(stage, allEdges.size);
+		PipelineMetrics.add(PipelineMetrics.Counter.CANDIDATE_EDGES, allEdges.size);
+
+		stage = PipelineMetrics.begin(PipelineMetrics.Stage.SORT);
+		allEdges.sortByWeight();
+		PipelineMetrics.end(stage, allEdges.size);
+		return union(allEdges);
+	}
+
+	/**
+	 * 以預先建好的可見性圖計算 MST，權重由 weight 決定：只有排序與合併，不做任何可見性檢查，因此同一張圖可以換用不同的權重。
+	 * 權重相同時依 (i, j) 順序；使用 {@link VisibilityGraph.Weight#SQUARED_EUCLIDEAN} 時結果與 {@link #findMSTEdges(PointSet, VisibilityChecker)} 完全一致。
+	 */
+	static EdgeList findMSTEdges(VisibilityGraph graph, VisibilityGraph.Weight weight) {
+		PipelineMetrics.StageEvent stage = PipelineMetrics.begin(PipelineMetrics.Stage.SORT);
+		EdgeList allEdges = graph.edges(weight);
+		allEdges.sortByWeight();
+		PipelineMetrics.end(stage, allEdges.size);
+		PipelineMetrics.add(PipelineMetrics.Counter.CANDIDATE_EDGES, allEdges.size);
+		return union(allEdges);
+	}
+
+	public static List<Edge> findMST(VisibilityGraph graph, VisibilityGraph.Weight weight) {
+		return materialize(findMSTEdges(graph, weight));
+	}
+
+	/** 對已排序的邊執行 Kruskal 的合併階段（量測為 UNION 階段） */
+	private static EdgeList union(EdgeList sortedEdges) {
+		PipelineMetrics.StageEvent stage = PipelineMetrics.begin(PipelineMetrics.Stage.UNION);
+		EdgeList mst = sortedEdges.kruskalEdges();
+		PipelineMetrics.end(stage, mst.size);
+		return mst;
+	}
+
+	/** 為 MST 的邊建立 Edge 物件（量測為 MATERIALIZE 階段） */
+	private static List<Edge> materialize(EdgeList mst) {
+		PipelineMetrics.StageEvent stage = PipelineMetrics.begin(PipelineMetrics.Stage.MATERIALIZE);
+		List<Edge> edges = mst.toEdges();
+		PipelineMetrics.end(stage, edges.size());
+		return edges;
+	}
+
+	/** 列舉所有點對 (i, j)，將可見的點對依列舉順序存入原始型別的邊表（尚未排序） */
+	static EdgeList buildEdgeList(PointSet points, VisibilityChecker checker) {
+		int n = points.size;
+		EdgeList allEdges = new EdgeList(points);
+
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				if (checker.isVisible(points, i, j)) {
+					allEdges.add(i, j, points.weight(i, j));
+				}
+			}
+		}
+		return allEdges;
+	}
+
+	/**
+	 * 平行版本：將點對空間 (i, j) 依列切塊交給 ForkJoinPool，每塊在自己的緩衝區內做可見性檢查並建立邊， 各塊先各自依權重排序，再依塊的順序以合併樹兩兩穩定合併。
+	 *
+	 * 塊的順序即單執行緒的列舉順序，且排序與合併皆為穩定，因此結果與 {@link #findMST(PointSet, VisibilityChecker)} 完全一致，與執行緒數無關。
+	 *
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap, int parallelism) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker, parallelism);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker, int parallelism) {
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		int n = points.size;
+
+		int[] rowStart = splitRows(n, threads * CHUNKS_PER_THREAD);
+		EdgeList[] chunks = new EdgeList[rowStart.length - 1];
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			// 各塊在自己的工作中產生並排序（量測時各塊的排序算在 VISIBILITY 階段），再以合併樹兩兩穩定合併
+			PipelineMetrics.StageEvent stage = PipelineMetrics.begin(PipelineMetrics.Stage.VISIBILITY);
+			pool.invoke(new EdgeTask(points, checker, rowStart, chunks, 0, chunks.length));
+			long candidates = 0;
+			for (EdgeList chunk : chunks) {
+				candidates += chunk.size;
+			}
+			PipelineMetrics.end(stage, candidates);
+			PipelineMetrics.add(PipelineMetrics.Counter.CANDIDATE_EDGES, candidates);
+
+			stage = PipelineMetrics.begin(PipelineMetrics.Stage.SORT);
+			EdgeList allEdges = pool.invoke(new MergeTask(chunks, 0, chunks.length));
+			PipelineMetrics.end(stage, allEdges.size);
+			return materialize(union(allEdges));
+		} finally {
+			pool.shutdown();
+		}
+	}
 
-		for (int i = 0; i < vertices.size(); i++) {
-			for (int j = i + 1; j < vertices.size(); j++) {
-				Point p1 = vertices.get(i);
-				Point p2 = vertices.get(j);
+	/** 將列 0..n-1 切成約 chunkCount 塊，使每塊的點對數量大致相同（第 i 列有 n - 1 - i 個點對） */
+	private static int[] splitRows(int n, int chunkCount) {
+		long totalPairs = (long) n * (n - 1) / 2;
+		long perChunk = Math.max(1, (totalPairs + chunkCount - 1) / chunkCount);
+		List<Integer> bounds = new ArrayList<>();
+		bounds.add(0);
+		long acc = 0;
+		for (int i = 0; i < n; i++) {
+			acc += n - 1 - i;
+			if (acc >= perChunk && i + 1 < n) {
+				bounds.add(i + 1);
+				acc = 0;
+			}
+		}
+		bounds.add(n);
+		return bounds.stream().mapToInt(Integer::intValue).toArray();
+	}
 
-				if (checker.isVisible(p1, p2)) {
-					double distance = p1.distanceTo(p2);
-					double weight = distance * distance;
-					Node n1 = pointToNodeMap.get(p1);
-					Node n2 = pointToNodeMap.get(p2);
+	/** 處理 [from, to) 範圍內的工作塊；範圍超過一塊時分成兩半 fork/join */
+	@SuppressWarnings("serial")
+	private static final class EdgeTask extends RecursiveAction {
+		private final PointSet points;
+		private final VisibilityChecker checker;
+		private final int[] rowStart;
+		private final EdgeList[] chunks;
+		private final int from, to;
 
-					if (n1 != null && n2 != null) {
-						allEdges.add(new Edge(n1, n2, weight));
+		EdgeTask(PointSet points, VisibilityChecker checker, int[] rowStart, EdgeList[] chunks, int from, int to) {
+			this.points = points;
+			this.checker = checker;
+			this.rowStart = rowStart;
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new EdgeTask(points, checker, rowStart, chunks, from, mid), new EdgeTask(points, checker, rowStart, chunks, mid, to));
+				return;
+			}
+			if (to == from) {
+				return;
+			}
+			// 此工作塊自己的邊緩衝區
+			EdgeList buffer = new EdgeList(points);
+			int n = points.size;
+			for (int i = rowStart[from]; i < rowStart[from + 1]; i++) {
+				for (int j = i + 1; j < n; j++) {
+					if (checker.isVisible(points, i, j)) {
+						buffer.add(i, j, points.weight(i, j));
 					}
 				}
 			}
+			buffer.sortByWeight();
+			chunks[from] = buffer;
 		}
+	}
 
-		allEdges.sort(Comparator.comparingDouble(e -> e.weight));
-		List<Edge> mst = new ArrayList<>();
-		UnionFind unionFind = new UnionFind(new ArrayList<>(pointToNodeMap.values()));
+	/** 以合併樹穩定合併 [from, to) 範圍內已排序的工作塊；左側的塊在權重相同時排在前面 */
+	@SuppressWarnings("serial")
+	private static final class MergeTask extends RecursiveTask<EdgeList> {
+		private final EdgeList[] chunks;
+		private final int from, to;
 
-		for (Edge edge : allEdges) {
-			if (unionFind.union(edge.source, edge.target)) {
-				mst.add(edge);
+		MergeTask(EdgeList[] chunks, int from, int to) {
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected EdgeList compute() {
+			if (to - from == 1) {
+				return chunks[from];
 			}
+			int mid = (from + to) >>> 1;
+			MergeTask left = new MergeTask(chunks, from, mid);
+			left.fork();
+			EdgeList right = new MergeTask(chunks, mid, to).compute();
+			return EdgeList.mergeSorted(left.join(), right);
 		}
-		return mst;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+// 21. 背景計算管線：可見性索引 → 最小生成樹，各階段在 EDT 以外依序執行，每完成一個階段就在 EDT 上發布結果；輸入改變時取消舊的管線（包含執行中的 MST 引擎）
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+import javax.swing.SwingUtilities;
+
+final class MstPipeline {
+
+	/** 管線的結果通知；所有方法都在 EDT 上呼叫，已取消的管線不會再通知 */
+	interface Listener {
+		/** 進入新的階段 */
+		void stage(String status);
+
+		/** 最小生成樹已算好 */
+		void mstReady(List<Edge> mstEdges);
+
+		void failed(Throwable error);
+	}
+
+	private final Listener listener;
+	private final CompletableFuture<List<Edge>> result;
+	private volatile boolean cancelled;
+	// 管線自己建立的可見性檢查器；取消時一併取消，讓執行中的引擎在下一次可見性檢查時停止
+	private volatile VisibilityChecker checker;
+
+	private MstPipeline(PointSet points, List<LineSegment> obstacles, BiFunction<PointSet, VisibilityChecker, List<Edge>> engine, Executor executor, Listener listener) {
+		this.listener = listener;
+		publish("建立障礙物索引…");
+		this.result = CompletableFuture.supplyAsync(() -> {
+			checkCancelled();
+			checker = new VisibilityChecker(obstacles);
+			return checker;
+		}, executor).thenApplyAsync(checker -> {
+			checkCancelled();
+			publish("計算最小生成樹…");
+			return engine.apply(points, checker);
+		}, executor);
+		result.whenComplete((mstEdges, error) -> SwingUtilities.invokeLater(() -> {
+			if (cancelled) {
+				return;
+			}
+			if (error != null) {
+				listener.failed(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+			} else {
+				listener.mstReady(mstEdges);
+			}
+		}));
+	}
+
+	/**
+	 * 開始計算（可在任何執行緒呼叫，通常為 EDT）。
+	 *
+	 * @param executor 執行各階段的執行緒池
+	 */
+	static MstPipeline start(PointSet points, List<LineSegment> obstacles, Executor executor, Listener listener) {
+		// 最小生成樹 (MST) 演算法 - Kruskal
+		return start(points, obstacles, KruskalMST::findMST, executor, listener);
+	}
+
+	/**
+	 * 同 {@link #start(PointSet, List, Executor, Listener)}，但以指定的 MST 引擎計算（例如 {@code RectilinearMST::findMST}）。
+	 *
+	 * @param engine 由點集合與可見性檢查器算出 MST 的邊
+	 */
+	static MstPipeline start(PointSet points, List<LineSegment> obstacles, BiFunction<PointSet, VisibilityChecker, List<Edge>> engine, Executor executor, Listener listener) {
+		return new MstPipeline(points, obstacles, engine, executor, listener);
+	}
+
+	/**
+	 * 取消管線：尚未開始的階段不再執行，之後不再通知 listener。 執行中的 MST 引擎在下一次查詢可見性時丟出 {@link CancellationException} 而結束
+	 * （見 {@link VisibilityChecker#cancel()}）；建立障礙物索引的階段無法中斷，但完成後不再繼續。
+	 */
+	void cancel() {
+		// 先設定 cancelled 再讀取 checker：檢查器若在此之後才建立，下一個階段開始時的 checkCancelled 必定看得到取消
+		cancelled = true;
+		VisibilityChecker current = checker;
+		if (current != null) {
+			current.cancel();
+		}
+		result.cancel(false);
+	}
+
+	private void checkCancelled() {
+		if (cancelled) {
+			throw new CancellationException();
+		}
+	}
+
+	private void publish(String status) {
+		SwingUtilities.invokeLater(() -> {
+			if (!cancelled) {
+				listener.stage(status);
+			}
+		});
+	}
+}
\ No newline at end of file
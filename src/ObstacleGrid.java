@@ -0,0 +1,207 @@
+// 9. 障礙物空間索引：均勻網格（只建立一次，查詢時只檢查路徑經過的格子）
+
+import java.util.Arrays;
+import java.util.List;
+
+class ObstacleGrid {
+	/** 每個軸向最多的格子數，避免極端輸入配置過大的陣列 */
+	private static final int MAX_CELLS_PER_AXIS = 1024;
+
+	// 障礙物座標，每條線段依序佔 4 個值：x1, y1, x2, y2
+	private final double[] segments;
+	private final int count;
+	private final double minX, minY, cellW, cellH;
+	private final int cols, rows;
+	// CSR 形式：cellStart[c] .. cellStart[c + 1] 為格子 c 內的障礙物索引
+	private final int[] cellStart;
+	private final int[] cellItems;
+	// 依 CSR 順序複製的障礙物座標（struct-of-arrays），每個格子是一段連續範圍，交給批次相交核心
+	private final double[] cellX1, cellY1, cellX2, cellY2;
+	// 格子邊界的容許誤差，保證「剛好碰到格線」的線段也會被收進相鄰格子
+	private final double eps;
+
+	ObstacleGrid(List<LineSegment> obstacles) {
+		this(pack(obstacles), obstacles.size());
+	}
+
+	/** 以打包的座標陣列建立索引（每條線段 4 個值），陣列之後不可再修改 */
+	ObstacleGrid(double[] segments, int m) {
+		this.segments = segments;
+		this.count = m;
+
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		for (int k = 0, o = 0; k < m; k++, o += 4) {
+			x0 = Math.min(x0, Math.min(segments[o], segments[o + 2]));
+			y0 = Math.min(y0, Math.min(segments[o + 1], segments[o + 3]));
+			x1 = Math.max(x1, Math.max(segments[o], segments[o + 2]));
+			y1 = Math.max(y1, Math.max(segments[o + 1], segments[o + 3]));
+		}
+		if (m == 0) {
+			x0 = y0 = 0;
+			x1 = y1 = 1;
+		}
+		double w = Math.max(x1 - x0, 1e-9);
+		double h = Math.max(y1 - y0, 1e-9);
+
+		// 格子數約等於障礙物數量，並依長寬比分配到兩個軸向
+		double target = Math.max(1, m);
+		int c = (int) Math.ceil(Math.sqrt(target * w / h));
+		int r = (int) Math.ceil(Math.sqrt(target * h / w));
+		this.cols = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, c));
+		this.rows = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, r));
+		this.minX = x0;
+		this.minY = y0;
+		this.cellW = w / cols;
+		this.cellH = h / rows;
+		this.eps = 1e-9 * Math.max(1.0, Math.max(w, h));
+
+		// 兩趟掃描：先計數，再填入
+		int[] counts = new int[cols * rows + 1];
+		for (int o = 0; o < 4 * m; o += 4) {
+			forEachCell(segments[o], segments[o + 1], segments[o + 2], segments[o + 3], cell -> counts[cell]++);
+		}
+		this.cellStart = new int[cols * rows + 1];
+		for (int i = 0; i < cols * rows; i++) {
+			cellStart[i + 1] = cellStart[i] + counts[i];
+		}
+		this.cellItems = new int[cellStart[cols * rows]];
+		int[] fill = Arrays.copyOf(cellStart, cols * rows);
+		for (int k = 0; k < m; k++) {
+			final int idx = k;
+			int o = 4 * k;
+			forEachCell(segments[o], segments[o + 1], segments[o + 2], segments[o + 3], cell -> cellItems[fill[cell]++] = idx);
+		}
+
+		int items = cellItems.length;
+		this.cellX1 = new double[items];
+		this.cellY1 = new double[items];
+		this.cellX2 = new double[items];
+		this.cellY2 = new double[items];
+		for (int p = 0; p < items; p++) {
+			int o = 4 * cellItems[p];
+			cellX1[p] = segments[o];
+			cellY1[p] = segments[o + 1];
+			cellX2[p] = segments[o + 2];
+			cellY2[p] = segments[o + 3];
+		}
+	}
+
+	/**
+	 * 路徑 (x1, y1)-(x2, y2) 是否與任一障礙物相交。 每個經過的格子以批次核心一次檢查整段障礙物；跨越多個格子的障礙物可能被重複檢查，但外接矩形的排除讓重複的成本很低。
+	 */
+	boolean intersectsAny(double x1, double y1, double x2, double y2) {
+		long result = scan(x1, y1, x2, y2);
+		PipelineMetrics.addQuery(tested(result));
+		return result < 0;
+	}
+
+	/** {@link #scan} 的回傳值中測試過的線段數 */
+	static long tested(long scanResult) {
+		return scanResult < 0 ? ~scanResult : scanResult;
+	}
+
+	/**
+	 * 同 {@link #intersectsAny}，但不記錄量測，改為回傳測試過的線段數；被擋住時回傳其位元反相 (~tested，必為負數)。
+	 * 一次查詢要檢查多段線段時（直角路徑），由呼叫端累計後發布一次。
+	 */
+	long scan(double x1, double y1, double x2, double y2) {
+		if (count == 0) {
+			return 0;
+		}
+		double ax = Math.min(x1, x2), bx = Math.max(x1, x2);
+		int c0 = col(ax - eps), c1 = col(bx + eps);
+		long tested = 0;
+		for (int c = c0; c <= c1; c++) {
+			long range = rowRange(c, x1, y1, x2, y2);
+			if (range < 0) {
+				continue;
+			}
+			for (int r = (int) (range >>> 32), r1 = (int) range; r <= r1; r++) {
+				int cell = r * cols + c;
+				int from = cellStart[cell], to = cellStart[cell + 1];
+				int hit = GeometryUtils.firstIntersection(x1, y1, x2, y2, cellX1, cellY1, cellX2, cellY2, from, to);
+				if (hit >= 0) {
+					return ~(tested + hit - from + 1);
+				}
+				tested += to - from;
+			}
+		}
+		return tested;
+	}
+
+	int size() {
+		return count;
+	}
+
+	/** 第 k 條障礙物的座標（x1, y1, x2, y2）從 segments()[4 * k] 開始；回傳的是內部陣列，不可修改 */
+	double[] segments() {
+		return segments;
+	}
+
+	static double[] pack(List<LineSegment> obstacles) {
+		double[] packed = new double[obstacles.size() * 4];
+		int o = 0;
+		for (LineSegment s : obstacles) {
+			packed[o++] = s.p1.x;
+			packed[o++] = s.p1.y;
+			packed[o++] = s.p2.x;
+			packed[o++] = s.p2.y;
+		}
+		return packed;
+	}
+
+	/** 對線段經過（含 eps 容許誤差）的每個格子呼叫 visitor */
+	private void forEachCell(double x1, double y1, double x2, double y2, CellVisitor visitor) {
+		double ax = Math.min(x1, x2), bx = Math.max(x1, x2);
+		int c0 = col(ax - eps), c1 = col(bx + eps);
+		for (int c = c0; c <= c1; c++) {
+			long range = rowRange(c, x1, y1, x2, y2);
+			if (range < 0) {
+				continue;
+			}
+			for (int r = (int) (range >>> 32), r1 = (int) range; r <= r1; r++) {
+				visitor.visit(r * cols + c);
+			}
+		}
+	}
+
+	/** 線段在第 c 欄（x 範圍截斷後）所涵蓋的列範圍，打包為 (r0 << 32 | r1)；線段不經過此欄時回傳 -1 */
+	private long rowRange(int c, double x1, double y1, double x2, double y2) {
+		double colLo = minX + c * cellW - eps;
+		double colHi = minX + (c + 1) * cellW + eps;
+		double lo = Math.max(Math.min(x1, x2), colLo);
+		double hi = Math.min(Math.max(x1, x2), colHi);
+		if (lo > hi) {
+			return -1L;
+		}
+		double ya, yb;
+		double dx = x2 - x1;
+		if (Math.abs(dx) < 1e-12) {
+			ya = y1;
+			yb = y2;
+		} else {
+			double slope = (y2 - y1) / dx;
+			ya = y1 + (lo - x1) * slope;
+			yb = y1 + (hi - x1) * slope;
+		}
+		int r0 = row(Math.min(ya, yb) - eps);
+		int r1 = row(Math.max(ya, yb) + eps);
+		return ((long) r0 << 32) | r1;
+	}
+
+	private int col(double x) {
+		int c = (int) Math.floor((x - minX) / cellW);
+		return Math.max(0, Math.min(cols - 1, c));
+	}
+
+	private int row(double y) {
+		int r = (int) Math.floor((y - minY) / cellH);
+		return Math.max(0, Math.min(rows - 1, r));
+	}
+
+	@FunctionalInterface
+	private interface CellVisitor {
+		void visit(int cell);
+	}
+}
\ No newline at end of file
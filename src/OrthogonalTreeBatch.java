@@ -0,0 +1,348 @@
+// 22. 無介面的批次處理：逐行串流讀入點與障礙物，依序執行 可見性 → Kruskal MST → 樹狀佈局，並將 MST 邊與佈局座標寫成檔案（不建立任何 AWT 元件）
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class OrthogonalTreeBatch {
+	private static final String USAGE = String.join(System.lineSeparator(), //
+			"用法: java OrthogonalTreeBatch [選項] <輸入檔或目錄>...", //
+			"  每個輸入檔為一個工作，一行一筆，以逗號或空白分隔：", //
+			"    x,y             一個點", //
+			"    x1,y1,x2,y2     一條障礙物線段", //
+			"  # 之後到行尾為註解，空行與只有註解的行會被略過；.otg 檔為 BinaryGraphFile 格式", //
+			"  目錄會依檔名順序處理其中的 .csv、.txt 與 .otg 檔", //
+			"選項:", //
+			"  -o <目錄>           輸出目錄（預設為輸入檔所在目錄）", //
+			"  --obstacles <檔案>  所有工作共用的障礙物檔（格式同上，只取線段）", //
+			"  --root <編號>       以第幾個點（從 0 起算，依輸入順序去除重複後）為根", //
+			"  --buchheim          改用線性時間的 BuchheimTreeLayout", //
+			"  以下 --rectilinear、--sweep、--approximate 只能擇一，未指定時以 Kruskal 計算", //
+			"  --rectilinear       以直角 (L1) 距離與 L 形連線計算 MST（RectilinearMST）", //
+			"  --sweep             以繞每個點的旋轉掃描建立可見性圖（VisibilitySweep，結果與預設相同）", //
+			"  --approximate <k>   只考慮每個點最近的 k 個點的近似 MST（ApproximateMST，k 約 8 ~ 16；結果不保證是最小生成樹）", //
+			"  --compare-exact     搭配 --approximate：另外計算精確 MST 並印出總權重的相對差（不計入 MST 耗時）", //
+			"  --cache <目錄>      將可見點對快取於目錄中（以點與障礙物的內容為鍵），相同輸入再次執行時跳過可見性檢查；只用於預設的 Kruskal", //
+			"  --cache-size <MB>   快取目錄的大小上限（預設 1024），超過時刪除最久未使用的檔案", //
+			"  --height <像素>     佈局使用的面板高度（預設 1000）", //
+			"  --binary            輸出為 <名稱>.out.otg（含點、障礙物、MST 邊與佈局）", //
+			"  --metrics           結束時印出各階段耗時與計數（同 -Dpipeline.metrics=true；JFR 事件另以 -XX:StartFlightRecording 錄製）", //
+			"輸出: <名稱>.mst.csv（i,j,weight）與 <名稱>.layout.csv（i,x,y），編號同 --root（依輸入順序去除重複後）");
+
+	public static void main(String[] args) throws IOException {
+		Path outputDir = null;
+		Path sharedObstacles = null;
+		int rootIndex = -1;
+		boolean buchheim = false;
+		boolean rectilinear = false;
+		boolean sweep = false;
+		int approximate = 0;
+		boolean compareExact = false;
+		Path cacheDir = null;
+		long cacheMegabytes = 1024;
+		int panelHeight = 1000;
+		boolean binary = false;
+		boolean metrics = false;
+		List<Path> jobs = new ArrayList<>();
+
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-o":
+				outputDir = Paths.get(requireValue(args, ++k));
+				break;
+			case "--obstacles":
+				sharedObstacles = Paths.get(requireValue(args, ++k));
+				break;
+			case "--root":
+				rootIndex = Integer.parseInt(requireValue(args, ++k));
+				if (rootIndex < 0) {
+					throw new IllegalArgumentException("--root 的編號不可為負數: " + rootIndex);
+				}
+				break;
+			case "--buchheim":
+				buchheim = true;
+				break;
+			case "--rectilinear":
+				rectilinear = true;
+				break;
+			case "--sweep":
+				sweep = true;
+				break;
+			case "--approximate":
+				approximate = Integer.parseInt(requireValue(args, ++k));
+				if (approximate < 1) {
+					throw new IllegalArgumentException("--approximate 的近鄰數必須至少為 1: " + approximate);
+				}
+				break;
+			case "--compare-exact":
+				compareExact = true;
+				break;
+			case "--cache":
+				cacheDir = Paths.get(requireValue(args, ++k));
+				break;
+			case "--cache-size":
+				cacheMegabytes = Long.parseLong(requireValue(args, ++k));
+				break;
+			case "--height":
+				panelHeight = Integer.parseInt(requireValue(args, ++k));
+				break;
+			case "--binary":
+				binary = true;
+				break;
+			case "--metrics":
+				// PROPERTY 是編譯期常數，讀取它不會載入 PipelineMetrics；必須在第一個工作之前設定
+				System.setProperty(PipelineMetrics.PROPERTY, "true");
+				metrics = true;
+				break;
+			case "-h":
+			case "--help":
+				System.out.println(USAGE);
+				return;
+			default:
+				addJobs(Paths.get(args[k]), jobs);
+			}
+		}
+		int modes = (rectilinear ? 1 : 0) + (sweep ? 1 : 0) + (approximate > 0 ? 1 : 0);
+		if (modes > 1) {
+			usageError("--rectilinear、--sweep 與 --approximate 只能擇一");
+		}
+		if (modes > 0 && cacheDir != null) {
+			usageError("--cache 只能用於預設的 Kruskal，不能與 --rectilinear、--sweep 或 --approximate 同時使用");
+		}
+		if (jobs.isEmpty()) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		if (outputDir != null) {
+			Files.createDirectories(outputDir);
+		}
+
+		List<LineSegment> commonObstacles = new ArrayList<>();
+		if (sharedObstacles != null) {
+			readInput(sharedObstacles, new ArrayList<>(), commonObstacles);
+		}
+
+		// 記憶體層讓同一次執行中重複的輸入不必再讀檔
+		VisibilityGraphCache cache = cacheDir != null ? new VisibilityGraphCache(cacheDir, cacheMegabytes << 20, Math.min(cacheMegabytes << 20, Runtime.getRuntime().maxMemory() / 4)) : null;
+
+		// 同一個 JVM 依序處理所有工作，後面的工作可受益於已暖機的 JIT
+		int failed = 0;
+		long total = System.nanoTime();
+		for (Path job : jobs) {
+			try {
+				runJob(job, outputDir != null ? outputDir : job.toAbsolutePath().getParent(), commonObstacles, rootIndex, buchheim, rectilinear, sweep, approximate, compareExact, cache, panelHeight, binary);
+			} catch (IOException | RuntimeException e) {
+				failed++;
+				System.err.println(job + ": 失敗 - " + e);
+			}
+		}
+		System.out.printf(Locale.ROOT, "共 %d 個工作，失敗 %d 個，總計 %.1f ms%n", jobs.size(), failed, millis(total));
+		if (cache != null) {
+			System.out.println(cache.statistics());
+		}
+		if (metrics) {
+			System.out.print(PipelineMetrics.snapshot());
+		}
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * 執行一個工作並印出各階段耗時
+	 *
+	 * @param rootIndex   根的編號（-1 表示未指定）；不小於點數時整個工作以 IllegalArgumentException 失敗
+	 * @param approximate 大於 0 時以 {@link ApproximateMST} 計算，為每個點的近鄰數
+	 * @param cache       可見性圖快取（可為 null）
+	 */
+	static void runJob(Path input, Path outputDir, List<LineSegment> commonObstacles, int rootIndex, boolean buchheim, boolean rectilinear, boolean sweep, int approximate, boolean compareExact, VisibilityGraphCache cache, int panelHeight, boolean binary) throws IOException {
+		long start = System.nanoTime();
+		PointSet pointSet;
+		double[] segments;
+		int segmentCount;
+		if (isBinary(input)) {
+			// 二進位檔：座標整塊讀入原始型別陣列，不建立 Point / LineSegment
+			BinaryGraphFile file = BinaryGraphFile.read(input);
+			pointSet = file.points;
+			segmentCount = commonObstacles.size() + file.segmentCount;
+			segments = Arrays.copyOf(ObstacleGrid.pack(commonObstacles), 4 * segmentCount);
+			System.arraycopy(file.segments, 0, segments, 4 * commonObstacles.size(), 4 * file.segmentCount);
+		} else {
+			List<Point> points = new ArrayList<>();
+			List<LineSegment> obstacles = new ArrayList<>(commonObstacles);
+			readInput(input, points, obstacles);
+			Map<Point, Node> pointToNodeMap = points.stream().collect(Collectors.toMap(p -> p, Node::new, (existing, replacement) -> existing));
+			pointSet = PointSet.of(points, pointToNodeMap);
+			segments = ObstacleGrid.pack(obstacles);
+			segmentCount = obstacles.size();
+		}
+		if (rootIndex >= pointSet.size) {
+			// RootedForest 會略過範圍外的根；在此拒絕，避免默默改以第 0 個點為根
+			throw new IllegalArgumentException("--root " + rootIndex + " 超出範圍，此工作只有 " + pointSet.size + " 個點（去除重複後）");
+		}
+		double parseMs = millis(start);
+
+		long stage = System.nanoTime();
+		VisibilityChecker checker = new VisibilityChecker(segments, segmentCount);
+		EdgeList mstEdges;
+		if (rectilinear) {
+			mstEdges = RectilinearMST.findMSTEdges(pointSet, checker);
+		} else if (approximate > 0) {
+			mstEdges = ApproximateMST.findMSTEdges(pointSet, checker, approximate, 0);
+		} else if (sweep) {
+			mstEdges = VisibilitySweep.findMSTEdges(pointSet, checker, 0);
+		} else {
+			mstEdges = KruskalMST.findMSTEdges(pointSet, checker, cache);
+		}
+		double mstMs = millis(stage);
+		ApproximateMST.Report report = null;
+		if (approximate > 0 && compareExact) {
+			report = ApproximateMST.compareWithExact(pointSet, checker, mstEdges, 0);
+		}
+
+		stage = System.nanoTime();
+		RootedForest forest = RootedForest.build(pointSet, mstEdges, rootIndex);
+		double[] x = new double[pointSet.size];
+		double[] y = new double[pointSet.size];
+		if (buchheim) {
+			BuchheimTreeLayout.layout(forest, panelHeight, x, y);
+		} else {
+			TreeLayoutCalculator.layout(forest, panelHeight, x, y, 0);
+		}
+		double layoutMs = millis(stage);
+
+		stage = System.nanoTime();
+		String name = baseName(input);
+		if (binary) {
+			BinaryGraphFile.write(outputDir.resolve(name + ".out.otg"), pointSet, segments, segmentCount, mstEdges, x, y);
+		} else {
+			writeEdges(outputDir.resolve(name + ".mst.csv"), mstEdges);
+			writeLayout(outputDir.resolve(name + ".layout.csv"), x, y);
+		}
+		double writeMs = millis(stage);
+
+		System.out.printf(Locale.ROOT, "%s: %d 點, %d 障礙物, %d 邊 | 讀取 %.1f ms, MST %.1f ms, 佈局 %.1f ms, 寫出 %.1f ms, 合計 %.1f ms%n", input.getFileName(), pointSet.size, segmentCount, mstEdges.size, parseMs, mstMs, layoutMs, writeMs, millis(start));
+		if (report != null) {
+			System.out.println("  " + report);
+		}
+	}
+
+	/** 逐行讀入：兩個數字為點，四個數字為障礙物線段 */
+	static void readInput(Path file, List<Point> points, List<LineSegment> obstacles) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			int lineNumber = 0;
+			double[] values = new double[4];
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				int count = parseLine(line, values);
+				if (count == 2) {
+					points.add(new Point(values[0], values[1]));
+				} else if (count == 4) {
+					obstacles.add(new LineSegment(new Point(values[0], values[1]), new Point(values[2], values[3])));
+				} else if (count != 0) {
+					throw new IllegalArgumentException(file + ":" + lineNumber + ": 每行應為 2 個（點）或 4 個（線段）數字: " + line);
+				}
+			}
+		}
+	}
+
+	/** 將一行以逗號或空白分隔的數字寫入 values，回傳數字個數（# 之後為註解；空行與只有註解的行為 0；超過 4 個時回傳 -1） */
+	static int parseLine(String line, double[] values) {
+		int count = 0, k = 0, len = line.length();
+		while (k < len) {
+			char c = line.charAt(k);
+			if (c == '#') {
+				return count;
+			}
+			if (c == ',' || Character.isWhitespace(c)) {
+				k++;
+				continue;
+			}
+			int end = k;
+			while (end < len && line.charAt(end) != ',' && line.charAt(end) != '#' && !Character.isWhitespace(line.charAt(end))) {
+				end++;
+			}
+			if (count == values.length) {
+				return -1;
+			}
+			values[count++] = Double.parseDouble(line.substring(k, end));
+			k = end;
+		}
+		return count;
+	}
+
+	private static void writeEdges(Path file, EdgeList mstEdges) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (int k = 0; k < mstEdges.size; k++) {
+				writer.write(mstEdges.src[k] + "," + mstEdges.dst[k] + "," + mstEdges.weight[k]);
+				writer.newLine();
+			}
+		}
+	}
+
+	private static void writeLayout(Path file, double[] x, double[] y) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < x.length; i++) {
+				writer.write(i + "," + x[i] + "," + y[i]);
+				writer.newLine();
+			}
+		}
+	}
+
+	/** 檔案直接加入；目錄則依檔名順序加入其中的 .csv、.txt 與 .otg（略過本工具的輸出檔） */
+	private static void addJobs(Path path, List<Path> jobs) throws IOException {
+		if (!Files.isDirectory(path)) {
+			jobs.add(path);
+			return;
+		}
+		try (Stream<Path> files = Files.list(path)) {
+			files.filter(Files::isRegularFile).filter(p -> {
+				String name = p.getFileName().toString();
+				return (name.endsWith(".csv") || name.endsWith(".txt") || name.endsWith(".otg")) && !name.endsWith(".mst.csv") && !name.endsWith(".layout.csv") && !name.endsWith(".out.otg");
+			}).sorted().forEach(jobs::add);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static boolean isBinary(Path file) {
+		return file.getFileName().toString().endsWith(".otg");
+	}
+
+	private static String baseName(Path file) {
+		String name = file.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		return dot > 0 ? name.substring(0, dot) : name;
+	}
+
+	/** 印出錯誤與用法後以結束碼 2 結束 */
+	private static void usageError(String message) {
+		System.err.println(message);
+		System.err.println(USAGE);
+		System.exit(2);
+	}
+
+	private static String requireValue(String[] args, int k) {
+		if (k >= args.length) {
+			throw new IllegalArgumentException(args[k - 1] + " 需要一個參數值");
+		}
+		return args[k];
+	}
+
+	private static double millis(long since) {
+		return (System.nanoTime() - since) / 1e6;
+	}
+}
\ No newline at end of file
@@ -1,73 +1,179 @@
+import java.awt.BorderLayout;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 
 public class OrthogonalTreeGUI {
+	// 背景計算用的單一執行緒（daemon，不會阻止程式結束）：管線依序執行，被取代的管線在下一次可見性檢查時停止，尚未開始的直接略過，不會同時累積多個計算
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "mst-pipeline");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final boolean useBuchheimLayout;
+	private final boolean rectilinear;
+	private final JFrame frame = new JFrame("可見性圖的最小生成樹 (樹狀佈局)");
+	private final JScrollPane scrollPane = new JScrollPane();
+	private final JLabel status = new JLabel(" ");
+
+	// 目前執行中的管線；輸入改變時取消
+	private MstPipeline pipeline;
+	// 已收到 MST、正在等待佈局完成的面板
+	private TreeGraphPanel awaitingLayout;
+	// 目前顯示的面板；輸入改變時停止它計算中的佈局
+	private TreeGraphPanel treePanel;
+
 	public static void main(String[] args) {
-		SwingUtilities.invokeLater(() -> {
-			List<LineSegment> obstacles = new ArrayList<>();
-			obstacles.add(new LineSegment(new Point(1, 3), new Point(3, 2)));
-			obstacles.add(new LineSegment(new Point(3, 2), new Point(9, 8)));
-			obstacles.add(new LineSegment(new Point(3, 2), new Point(8, 2)));
-			obstacles.add(new LineSegment(new Point(3, 8), new Point(4, 4)));
-
-			List<Point> points = new ArrayList<>();
-			// 由於 Kruskal 演算法會對 points 排序，我們需要一個原始的列表來保持點的順序。
-			List<Point> originalPoints = new ArrayList<>();
-			Random r = new Random(System.currentTimeMillis());
-
-			// 新增：點與編號的映射
-			Map<Point, Integer> pointNumberMap = new HashMap<>();
-			int pointCounter = 1;
-
-			// 5 x 5 grids
-			int maxI = 9;
-			int maxJ = 9;
-			for (int i = 1; i <= maxI; i += 2) {
-				for (int j = 1; j <= maxJ; j += 2) {
-					double d1 = r.nextInt(9) * 0.1;
-					double d2 = r.nextInt(9) * 0.1;
-					Point pt = new Point(i + d1, j + d2);
-					Point pt2 = new Point(pt.x, pt.y);
-					points.add(new Point(i + d1, j + d2));
-					originalPoints.add(pt2); // 儲存原始順序的點
-					pointNumberMap.put(pt, pointCounter++); // 關聯編號
-				}
+		// 參數 buchheim 表示改用線性時間的樹狀佈局；rectilinear 表示改用直角 (L1) 距離與 L 形連線；metrics 表示啟用各階段的量測
+		boolean buchheim = false, rectilinear = false;
+		for (String arg : args) {
+			buchheim |= arg.equalsIgnoreCase("buchheim");
+			rectilinear |= arg.equalsIgnoreCase("rectilinear");
+			if (arg.equalsIgnoreCase("metrics")) {
+				System.setProperty(PipelineMetrics.PROPERTY, "true");
+			}
+		}
+		boolean useBuchheim = buchheim, useRectilinear = rectilinear;
+		SwingUtilities.invokeLater(() -> new OrthogonalTreeGUI(useBuchheim, useRectilinear).show());
+	}
+
+	OrthogonalTreeGUI(boolean useBuchheimLayout) {
+		this(useBuchheimLayout, false);
+	}
+
+	OrthogonalTreeGUI(boolean useBuchheimLayout, boolean rectilinear) {
+		this.useBuchheimLayout = useBuchheimLayout;
+		this.rectilinear = rectilinear;
+
+		JButton regenerate = new JButton("重新產生");
+		regenerate.addActionListener(e -> regenerate());
+		JPanel bottom = new JPanel(new BorderLayout());
+		bottom.add(status, BorderLayout.CENTER);
+		bottom.add(regenerate, BorderLayout.EAST);
+		if (PipelineMetrics.ENABLED) {
+			// 目前為止所有計算的累計量測
+			JButton metrics = new JButton("量測");
+			metrics.addActionListener(e -> JOptionPane.showMessageDialog(frame, "<html><pre>" + PipelineMetrics.snapshot() + "</pre></html>", "量測", JOptionPane.INFORMATION_MESSAGE));
+			bottom.add(metrics, BorderLayout.WEST);
+		}
+
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		frame.add(scrollPane, BorderLayout.CENTER);
+		frame.add(bottom, BorderLayout.SOUTH);
+	}
+
+	/** 顯示視窗並開始第一次計算；視窗立即出現，計算結果陸續顯示 */
+	void show() {
+		regenerate();
+		frame.pack();
+		frame.setLocationRelativeTo(null);
+		frame.setVisible(true);
+	}
+
+	/** 產生新的隨機輸入：先顯示點與障礙物，再於背景計算 MST（舊的 MST 與佈局計算都會被取消） */
+	private void regenerate() {
+		if (pipeline != null) {
+			pipeline.cancel();
+		}
+		if (treePanel != null) {
+			treePanel.cancelLayout();
+		}
+		awaitingLayout = null;
+
+		List<LineSegment> obstacles = new ArrayList<>();
+		obstacles.add(new LineSegment(new Point(1, 3), new Point(3, 2)));
+		obstacles.add(new LineSegment(new Point(3, 2), new Point(9, 8)));
+		obstacles.add(new LineSegment(new Point(3, 2), new Point(8, 2)));
+		obstacles.add(new LineSegment(new Point(3, 8), new Point(4, 4)));
+
+		List<Point> points = new ArrayList<>();
+		Random r = new Random(System.currentTimeMillis());
+
+		// 新增：點與編號的映射
+		Map<Point, Integer> pointNumberMap = new HashMap<>();
+		int pointCounter = 1;
+
+		// 5 x 5 grids
+		int maxI = 9;
+		int maxJ = 9;
+		for (int i = 1; i <= maxI; i += 2) {
+			for (int j = 1; j <= maxJ; j += 2) {
+				double d1 = r.nextInt(9) * 0.1;
+				double d2 = r.nextInt(9) * 0.1;
+				Point pt = new Point(i + d1, j + d2);
+				points.add(new Point(i + d1, j + d2));
+				pointNumberMap.put(pt, pointCounter++); // 關聯編號
+			}
+		}
+
+		Point pt_1st = new Point(0.5, 0.5);
+		Point pt_last = new Point(maxI + 0.9, maxJ + 0.9);
+		points.add(pt_1st);
+		points.add(pt_last);
+		pointNumberMap.put(pt_1st, 0);
+		pointNumberMap.put(pt_last, pointCounter++);
+		Point customRootPoint = points.get(r.nextInt(points.size()));
+
+		Map<Point, Node> pointToNodeMap = points.stream().collect(Collectors.toMap(p -> p, Node::new, (existing, replacement) -> existing));
+
+		// 點集合：之後的 MST 與繪圖都以其編號運算
+		PointSet pointSet = PointSet.of(points, pointToNodeMap);
+
+		// 指定根節點
+		Node specifiedRoot = pointToNodeMap.get(customRootPoint);
+
+		// 傳入點集合與 pointNumberMap；MST 算好之前先以空的邊集合顯示點與障礙物
+		TreeGraphPanel panel = new TreeGraphPanel(pointSet, List.of(), specifiedRoot, obstacles, pointNumberMap);
+		panel.setUseBuchheimLayout(useBuchheimLayout);
+		panel.setRectilinearRouting(rectilinear);
+		panel.addPropertyChangeListener(TreeGraphPanel.LAYOUT_PROPERTY, e -> {
+			if (awaitingLayout == panel && panel.isLayoutReady()) {
+				awaitingLayout = null;
+				status.setText("完成");
+			}
+		});
+		panel.addPropertyChangeListener(TreeGraphPanel.LAYOUT_FAILURE_PROPERTY, e -> {
+			if (awaitingLayout == panel && panel.getLayoutFailure() != null) {
+				awaitingLayout = null;
+				status.setText("樹狀佈局計算失敗：" + e.getNewValue());
+			}
+		});
+		scrollPane.setViewportView(panel);
+		treePanel = panel;
+
+		BiFunction<PointSet, VisibilityChecker, List<Edge>> engine = rectilinear ? RectilinearMST::findMST : KruskalMST::findMST;
+		pipeline = MstPipeline.start(pointSet, obstacles, engine, executor, new MstPipeline.Listener() {
+			@Override
+			public void stage(String text) {
+				status.setText(text);
+			}
+
+			@Override
+			public void mstReady(List<Edge> mstEdges) {
+				status.setText("計算樹狀佈局…");
+				awaitingLayout = panel;
+				panel.setTree(mstEdges, specifiedRoot);
 			}
 
-			Point pt_1st = new Point(0.5, 0.5);
-			Point pt_last = new Point(maxI + 0.9, maxJ + 0.9);
-			points.add(pt_1st);
-			points.add(pt_last);
-			originalPoints.add(new Point(0.5, 0.5));
-			originalPoints.add(new Point(maxI + 0.9, maxJ + 0.9));
-			pointNumberMap.put(pt_1st, 0);
-			pointNumberMap.put(pt_last, pointCounter++);
-			Point customRootPoint = points.get(r.nextInt(points.size()));
-
-			Map<Point, Node> pointToNodeMap = points.stream().collect(Collectors.toMap(p -> p, Node::new, (existing, replacement) -> existing));
-
-			VisibilityChecker checker = new VisibilityChecker(obstacles);
-			// 最小生成樹 (MST) 演算法 - Kruskal
-			List<Edge> mstEdges = KruskalMST.findMST(points, checker, pointToNodeMap);
-
-			// 指定根節點
-			Node specifiedRoot = pointToNodeMap.get(customRootPoint);
-
-			JFrame frame = new JFrame("可見性圖的最小生成樹 (樹狀佈局)");
-			frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-			// 傳入 pointNumberMap 和原始 points 列表
-			frame.add(new JScrollPane(new TreeGraphPanel(pointToNodeMap, mstEdges, specifiedRoot, originalPoints, obstacles, pointNumberMap)));
-			frame.pack();
-			frame.setLocationRelativeTo(null);
-			frame.setVisible(true);
+			@Override
+			public void failed(Throwable error) {
+				status.setText("計算失敗：" + error);
+			}
 		});
 	}
 }
\ No newline at end of file
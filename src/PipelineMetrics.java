@@ -0,0 +1,184 @@
+// 31. 管線各階段的量測：每個階段（可見性、排序、合併、建立邊物件、佈局、壓縮）發出 JDK Flight Recorder 事件，並以分散式計數器 (LongAdder) 累計查詢與測試次數
+//     計數與計時以 -Dpipeline.metrics=true 啟用；未啟用時檢查的是 static final 常數，JIT 會移除整段量測程式碼，JFR 事件在沒有錄製時也幾乎沒有成本
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+final class PipelineMetrics {
+	/** 啟用計數與計時的系統屬性 */
+	static final String PROPERTY = "pipeline.metrics";
+	/** 類別載入時讀取一次，之後再改變屬性沒有作用 */
+	static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+	/** 量測的階段；LAYOUT 包含其中的 COMPACTION */
+	enum Stage {
+		VISIBILITY("可見性檢查"), SORT("依權重排序"), UNION("Union-Find 合併"), MATERIALIZE("建立邊物件"), LAYOUT("樹狀佈局"), COMPACTION("佈局壓縮");
+
+		final String label;
+
+		Stage(String label) {
+			this.label = label;
+		}
+	}
+
+	enum Counter {
+		VISIBILITY_QUERIES("可見性查詢"), SEGMENT_TESTS("線段相交測試"), CANDIDATE_EDGES("候選邊"), UNIONS("合併"), CONTOUR_MERGES("輪廓合併"), LAYOUT_SHIFTS("子樹平移");
+
+		final String label;
+
+		Counter(String label) {
+			this.label = label;
+		}
+	}
+
+	private static final LongAdder[] COUNTERS = adders(Counter.values().length);
+	private static final LongAdder[] STAGE_NANOS = adders(Stage.values().length);
+	private static final LongAdder[] STAGE_CALLS = adders(Stage.values().length);
+
+	private PipelineMetrics() {
+	}
+
+	/** 累加計數器（未啟用時不做任何事；熱點迴圈中請先在區域變數累計，結束時呼叫一次） */
+	static void add(Counter counter, long amount) {
+		if (ENABLED) {
+			COUNTERS[counter.ordinal()].add(amount);
+		}
+	}
+
+	/** 記錄一次可見性查詢與它測試過的線段數（每次查詢只在結束時呼叫一次） */
+	static void addQuery(long segmentTests) {
+		if (ENABLED) {
+			COUNTERS[Counter.VISIBILITY_QUERIES.ordinal()].increment();
+			COUNTERS[Counter.SEGMENT_TESTS.ordinal()].add(segmentTests);
+		}
+	}
+
+	/** 開始一個階段，與 {@link #end(StageEvent, long)} 成對使用 */
+	static StageEvent begin(Stage stage) {
+		StageEvent event = new StageEvent();
+		event.kind = stage;
+		event.begin();
+		if (ENABLED) {
+			event.startNanos = System.nanoTime();
+		}
+		return event;
+	}
+
+	/**
+	 * 結束階段：記錄耗時，錄製中時送出 JFR 事件。
+	 *
+	 * @param items 此階段處理的項目數（例如邊數或節點數）
+	 */
+	static void end(StageEvent event, long items) {
+		event.end();
+		if (ENABLED) {
+			int k = event.kind.ordinal();
+			STAGE_NANOS[k].add(System.nanoTime() - event.startNanos);
+			STAGE_CALLS[k].increment();
+		}
+		if (event.shouldCommit()) {
+			event.stage = event.kind.label;
+			event.items = items;
+			event.commit();
+		}
+	}
+
+	/** 目前累計值的快照（各計數器分別讀取，並行更新時彼此之間不保證一致） */
+	static Snapshot snapshot() {
+		long[] counters = new long[COUNTERS.length];
+		for (int k = 0; k < counters.length; k++) {
+			counters[k] = COUNTERS[k].sum();
+		}
+		long[] nanos = new long[STAGE_NANOS.length];
+		long[] calls = new long[STAGE_CALLS.length];
+		for (int k = 0; k < nanos.length; k++) {
+			nanos[k] = STAGE_NANOS[k].sum();
+			calls[k] = STAGE_CALLS[k].sum();
+		}
+		return new Snapshot(counters, nanos, calls);
+	}
+
+	/** 將所有累計值歸零 */
+	static void reset() {
+		for (LongAdder adder : COUNTERS) {
+			adder.reset();
+		}
+		for (int k = 0; k < STAGE_NANOS.length; k++) {
+			STAGE_NANOS[k].reset();
+			STAGE_CALLS[k].reset();
+		}
+	}
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int k = 0; k < count; k++) {
+			adders[k] = new LongAdder();
+		}
+		return adders;
+	}
+
+	static final class Snapshot {
+		private final long[] counters;
+		private final long[] stageNanos;
+		private final long[] stageCalls;
+
+		private Snapshot(long[] counters, long[] stageNanos, long[] stageCalls) {
+			this.counters = counters;
+			this.stageNanos = stageNanos;
+			this.stageCalls = stageCalls;
+		}
+
+		long get(Counter counter) {
+			return counters[counter.ordinal()];
+		}
+
+		/** 階段的累計耗時（奈秒） */
+		long nanos(Stage stage) {
+			return stageNanos[stage.ordinal()];
+		}
+
+		/** 階段執行的次數 */
+		long calls(Stage stage) {
+			return stageCalls[stage.ordinal()];
+		}
+
+		/** 每個階段與計數器一行 */
+		@Override
+		public String toString() {
+			if (!ENABLED) {
+				return "未啟用量測（以 -D" + PROPERTY + "=true 啟用）";
+			}
+			StringBuilder text = new StringBuilder();
+			for (Stage stage : Stage.values()) {
+				text.append(String.format(Locale.ROOT, "%-16s %10.1f ms  %6d 次%n", stage.label, nanos(stage) / 1e6, calls(stage)));
+			}
+			for (Counter counter : Counter.values()) {
+				text.append(String.format(Locale.ROOT, "%-16s %14d%n", counter.label, get(counter)));
+			}
+			return text.toString();
+		}
+	}
+
+	/** 一個階段的 JFR 事件；只有在錄製中才會填入欄位並送出 */
+	@Name("orthotree.Stage")
+	@Label("管線階段")
+	@Category("Orthogonal Tree")
+	@Description("可見性、排序、合併、建立邊物件、佈局或壓縮其中一個階段的耗時")
+	static final class StageEvent extends Event {
+		@Label("階段")
+		String stage;
+
+		@Label("項目數")
+		long items;
+
+		// 不會寫入錄製檔的欄位
+		transient Stage kind;
+		transient long startNanos;
+	}
+}
\ No newline at end of file
@@ -1,7 +1,5 @@
 // 1. 資料結構：點
 
-import java.util.Objects;
-
 public class Point {
 	double x;
 	double y;
@@ -12,7 +10,12 @@ public class Point {
 	}
 
 	public double distanceTo(Point other) {
-		return Math.sqrt(Math.pow(this.x - other.x, 2) + Math.pow(this.y - other.y, 2));
+		return distance(this.x, this.y, other.x, other.y);
+	}
+
+	/** 不需建立 Point 物件的距離計算（PointSet 等以原始座標運算的程式共用） */
+	static double distance(double x1, double y1, double x2, double y2) {
+		return Math.sqrt(Math.pow(x1 - x2, 2) + Math.pow(y1 - y2, 2));
 	}
 
 	@Override
@@ -32,6 +35,7 @@ public class Point {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(x, y);
+		// 與 Objects.hash(x, y) 相同的值，但不會把兩個 double 裝箱成 varargs 陣列
+		return 31 * (31 + Double.hashCode(x)) + Double.hashCode(y);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+// 25. 點的均勻網格索引：平均每格約 2 個點，以 CSR 陣列存放各格內的點，供最近點搜尋由近到遠逐環擴張
+
+import java.util.Arrays;
+
+final class PointGrid {
+	/** 每個軸向的格數上限 */
+	private static final int MAX_CELLS_PER_AXIS = 4096;
+
+	final int cols, rows;
+	// 每一環的距離下界所用的格子邊長（只有一格的軸向不會出現位移，不列入）
+	final double ringStep;
+	// CSR 形式：cellStart[c] .. cellStart[c + 1] 為格子 c 內的點
+	final int[] cellStart;
+	final int[] cellItems;
+	final int[] cellOf;
+
+	private final double minX, minY, cellW, cellH;
+
+	PointGrid(PointSet points) {
+		int n = points.size;
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			x0 = Math.min(x0, points.xs[i]);
+			y0 = Math.min(y0, points.ys[i]);
+			x1 = Math.max(x1, points.xs[i]);
+			y1 = Math.max(y1, points.ys[i]);
+		}
+		double w = Math.max(x1 - x0, 1e-9);
+		double h = Math.max(y1 - y0, 1e-9);
+
+		// 平均每格約 2 個點，並依長寬比分配到兩個軸向
+		double target = Math.max(1, n / 2.0);
+		this.cols = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(Math.sqrt(target * w / h))));
+		this.rows = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(Math.sqrt(target * h / w))));
+		this.minX = x0;
+		this.minY = y0;
+		this.cellW = w / cols;
+		this.cellH = h / rows;
+		this.ringStep = Math.min(cols > 1 ? cellW : Double.POSITIVE_INFINITY, rows > 1 ? cellH : Double.POSITIVE_INFINITY);
+
+		int cells = cols * rows;
+		this.cellOf = new int[n];
+		this.cellStart = new int[cells + 1];
+		for (int i = 0; i < n; i++) {
+			cellOf[i] = row(points.ys[i]) * cols + col(points.xs[i]);
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int c = 0; c < cells; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		this.cellItems = new int[n];
+		int[] fill = Arrays.copyOf(cellStart, cells);
+		for (int i = 0; i < n; i++) {
+			cellItems[fill[cellOf[i]]++] = i;
+		}
+	}
+
+	/** 點 i 所在格子到網格邊界的最大環數；超過此環不會再有格子 */
+	int maxRing(int i) {
+		int col = cellOf[i] % cols, row = cellOf[i] / cols;
+		return Math.max(Math.max(col, cols - 1 - col), Math.max(row, rows - 1 - row));
+	}
+
+	/** 第 ring 環（以點所在格子為中心）內的點與中心格內的點至少相距的距離 */
+	double ringDistance(int ring) {
+		return ring > 1 ? (ring - 1) * ringStep : 0;
+	}
+
+	/** 逐格列舉第 ring 環的游標；每個執行緒（或每次搜尋）使用自己的游標 */
+	RingCells ringCells() {
+		return new RingCells();
+	}
+
+	/**
+	 * 以點所在格子為中心的第 ring 環中、在網格內的格子：環的上下兩列整列，中間各列只有左右兩格。
+	 * 用法：{@code for (int cell = cells.first(i, ring); cell >= 0; cell = cells.next())}
+	 */
+	final class RingCells {
+		private int row, col, ring, dr, dc;
+
+		private RingCells() {
+		}
+
+		/** 從點 i 的第 ring 環的第一格開始；環完全在網格外時回傳 -1 */
+		int first(int i, int ring) {
+			this.row = cellOf[i] / cols;
+			this.col = cellOf[i] % cols;
+			this.ring = ring;
+			this.dr = -ring;
+			this.dc = -ring;
+			return next();
+		}
+
+		/** 環中的下一格；沒有時回傳 -1 */
+		int next() {
+			for (; dr <= ring; dr++, dc = -ring) {
+				int r = row + dr;
+				if (r < 0 || r >= rows) {
+					continue;
+				}
+				int step = dr == -ring || dr == ring ? 1 : Math.max(1, 2 * ring);
+				while (dc <= ring) {
+					int c = col + dc;
+					dc += step;
+					if (c >= 0 && c < cols) {
+						return r * cols + c;
+					}
+				}
+			}
+			return -1;
+		}
+	}
+
+	/** 座標 x 所在的欄；超出範圍（包含無限大）時取最近的一欄 */
+	int col(double x) {
+		int c = (int) Math.floor((x - minX) / cellW);
+		return Math.max(0, Math.min(cols - 1, c));
+	}
+
+	/** 座標 y 所在的列；超出範圍（包含無限大）時取最近的一列 */
+	int row(double y) {
+		int r = (int) Math.floor((y - minY) / cellH);
+		return Math.max(0, Math.min(rows - 1, r));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+// 16. 點集合（struct-of-arrays）：以 double[] 座標與連續整數編號取代以 Point 為鍵的 HashMap
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PointSet {
+	final double[] xs;
+	final double[] ys;
+	// 編號 → 節點；純座標的點集合（例如從檔案載入）為 null
+	final Node[] nodes;
+	final int size;
+	// 節點 → 編號（依節點的身分比較）；只存於點集合中而不寫入節點，同一個節點可以同時屬於多個點集合。nodes 為 null 時為 null
+	private final IdentityHashMap<Node, Integer> index;
+
+	/** 純座標的點集合（nodes 為 null），或 nodes 中沒有重複的節點 */
+	PointSet(double[] xs, double[] ys, Node[] nodes) {
+		this(xs, ys, nodes, nodes != null ? indexNodes(nodes) : null);
+	}
+
+	private PointSet(double[] xs, double[] ys, Node[] nodes, IdentityHashMap<Node, Integer> index) {
+		this.xs = xs;
+		this.ys = ys;
+		this.nodes = nodes;
+		this.size = xs.length;
+		this.index = index;
+	}
+
+	/**
+	 * 依 vertices 中第一次出現的順序，為有對應節點的點建立點集合。 沒有對應節點的點與重複的點會被略過；同樣的輸入永遠得到同樣的編號。 節點本身不會被修改。
+	 */
+	static PointSet of(List<Point> vertices, Map<Point, Node> pointToNodeMap) {
+		IdentityHashMap<Node, Integer> index = new IdentityHashMap<>(pointToNodeMap.size());
+		Node[] nodes = new Node[pointToNodeMap.size()];
+		int count = 0;
+		for (Point p : vertices) {
+			Node node = pointToNodeMap.get(p);
+			if (node != null && index.putIfAbsent(node, count) == null) {
+				nodes[count++] = node;
+			}
+		}
+		return fromNodes(nodes, count, index);
+	}
+
+	/** 依 nodes 的迭代順序建立點集合（重複的節點只取第一次）；節點本身不會被修改 */
+	static PointSet of(Collection<Node> nodes) {
+		Node[] array = new Node[nodes.size()];
+		IdentityHashMap<Node, Integer> index = new IdentityHashMap<>(array.length);
+		int count = 0;
+		for (Node node : nodes) {
+			if (index.putIfAbsent(node, count) == null) {
+				array[count++] = node;
+			}
+		}
+		return fromNodes(array, count, index);
+	}
+
+	private static PointSet fromNodes(Node[] nodes, int count, IdentityHashMap<Node, Integer> index) {
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		Node[] exact = new Node[count];
+		for (int i = 0; i < count; i++) {
+			exact[i] = nodes[i];
+			xs[i] = nodes[i].point.x;
+			ys[i] = nodes[i].point.y;
+		}
+		return new PointSet(xs, ys, exact, index);
+	}
+
+	private static IdentityHashMap<Node, Integer> indexNodes(Node[] nodes) {
+		IdentityHashMap<Node, Integer> index = new IdentityHashMap<>(nodes.length);
+		for (int i = 0; i < nodes.length; i++) {
+			index.put(nodes[i], i);
+		}
+		return index;
+	}
+
+	/** 節點在此點集合中的編號；節點不屬於此集合（或此集合沒有節點）時回傳 -1 */
+	int indexOf(Node node) {
+		Integer id = index != null ? index.get(node) : null;
+		return id != null ? id : -1;
+	}
+
+	Point point(int i) {
+		return nodes != null ? nodes[i].point : new Point(xs[i], ys[i]);
+	}
+
+	/** 與 Point.distanceTo 相同的計算方式，確保權重與以物件計算時逐位元相同 */
+	double distance(int i, int j) {
+		return Point.distance(xs[i], ys[i], xs[j], ys[j]);
+	}
+
+	/** 曼哈頓（L1）距離，即直角佈線的長度 */
+	double manhattan(int i, int j) {
+		return Math.abs(xs[i] - xs[j]) + Math.abs(ys[i] - ys[j]);
+	}
+
+	/** Kruskal 使用的權重：距離平方 */
+	double weight(int i, int j) {
+		double distance = distance(i, j);
+		return distance * distance;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,252 @@
+// 24. 直角（L1）最小生成樹：權重為曼哈頓距離，以八分區掃描線產生至多 4n 條候選邊取代全部點對，連線以 L 形直角路徑檢查障礙物
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class RectilinearMST {
+
+	/**
+	 * 直角佈線的 MST：兩點可以連線的條件是兩條 L 形路徑之一不被障礙物擋住（{@link VisibilityChecker#isOrthogonallyVisible}）， 邊的權重為曼哈頓距離（即 L 形路徑的長度）。
+	 * 總權重與「列舉全部可連線點對後做 Kruskal」相同；權重相同的邊可能選到不同的一條。
+	 *
+	 * 1) 不考慮障礙物時，每個點在每個八分區中最近的點（共至多 4n 條候選邊）即包含 L1 MST。
+	 * 2) 其中可連線的 MST 邊必在答案中（它是某個切割上最輕的邊）；被擋住的邊把點分成數塊。
+	 * 3) 剩下的邊以 Borůvka 合併各塊：每塊找出最輕的可連線外連邊，以點的網格索引由近到遠搜尋，搜尋半徑受目前最佳值限制。 沒有邊被擋住時不需要這一步，整體為 O(n log n)。
+	 *
+	 * @return MST 的邊（依 Kruskal 加入的順序）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return findMSTEdges(points, checker).toEdges();
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker)}，結果以編號存放在邊表中（點集合不需要有 {@link Node}） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker) {
+		int n = points.size;
+
+		// 1) 不考慮障礙物的 L1 MST
+		long[] keys = octantNeighbours(points);
+		EdgeList candidates = EdgeList.fromPairKeys(points, keys, keys.length, VisibilityGraph.Weight.MANHATTAN);
+		EdgeList free = candidates.kruskalEdges();
+
+		// 2) 可連線的 MST 邊直接採用，被擋住的邊記下兩端點（它們靠近塊與塊的交界，Borůvka 先從這裡找）
+		long[] chosen = new long[Math.max(0, n - 1)];
+		int chosenCount = 0;
+		IntUnionFind components = new IntUnionFind(n);
+		int[] frontier = new int[2 * free.size];
+		int frontierCount = 0;
+		for (int k = 0; k < free.size; k++) {
+			int a = free.src[k], b = free.dst[k];
+			if (checker.isOrthogonallyVisible(points, a, b)) {
+				components.union(a, b);
+				chosen[chosenCount++] = EdgeList.pairKey(a, b);
+			} else {
+				frontier[frontierCount++] = a;
+				frontier[frontierCount++] = b;
+			}
+		}
+
+		// 3) Borůvka 合併各塊
+		if (frontierCount > 0) {
+			chosenCount = new Boruvka(points, checker, components, Arrays.copyOf(frontier, frontierCount)).run(chosen, chosenCount);
+		}
+
+		// 權重相同時以 free 中的邊優先，其餘依 (i, j) 的全序下，這些邊正是唯一的 MST，因此兩個階段的選擇不會互相矛盾
+		return EdgeList.fromPairKeys(points, chosen, chosenCount, VisibilityGraph.Weight.MANHATTAN);
+	}
+
+	/**
+	 * 八分區掃描：每個點在每個八分區中 L1 距離最近的點。由於對稱，只需對 4 個八分區各掃描一次（每次以座標變換轉到同一個八分區）。
+	 *
+	 * 在變換後的座標中，點 i 的八分區為 x_j >= x_i 且 y_j - x_j >= y_i - x_i，其中的 L1 距離為 (x_j + y_j) - (x_i + y_i)。 依 (x, y) 由大到小處理點，並以 y - x 的名次為索引的 Fenwick 樹查詢已處理點中 x + y 的最小值。
+	 *
+	 * @return 候選邊，以 {@link EdgeList#pairKey} 編碼、排序且不重複
+	 */
+	static long[] octantNeighbours(PointSet points) {
+		int n = points.size;
+		double[] x = points.xs.clone(), y = points.ys.clone();
+		long[] keys = new long[4 * n];
+		int len = 0;
+
+		int[] order = new int[n];
+		long[] sortKeys = new long[n];
+		double[] diff = new double[n];
+		int[] rank = new int[n];
+		int[] byDiff = new int[n];
+		double[] treeValue = new double[n + 1];
+		int[] treeIndex = new int[n + 1];
+
+		for (int dir = 0; dir < 4; dir++) {
+			// 第 1、3 次交換 x 與 y，第 2 次將 x 取負；累積起來即依序轉到四個八分區
+			if (dir == 1 || dir == 3) {
+				double[] t = x;
+				x = y;
+				y = t;
+			} else if (dir == 2) {
+				for (int i = 0; i < n; i++) {
+					x[i] = 0.0 - x[i];
+				}
+			}
+
+			// 依 (x, y) 由小到大排序：先依 y、再依 x 做穩定的基數排序
+			for (int i = 0; i < n; i++) {
+				order[i] = i;
+				sortKeys[i] = EdgeList.sortableBits(y[i]);
+			}
+			EdgeList.radixSort(sortKeys, order, n);
+			for (int k = 0; k < n; k++) {
+				sortKeys[k] = EdgeList.sortableBits(x[order[k]]);
+			}
+			EdgeList.radixSort(sortKeys, order, n);
+
+			// y - x 的名次（相同的值名次相同；+ 0.0 讓 -0.0 與 0.0 視為相同）
+			for (int i = 0; i < n; i++) {
+				diff[i] = y[i] - x[i] + 0.0;
+			}
+			for (int i = 0; i < n; i++) {
+				byDiff[i] = i;
+				sortKeys[i] = EdgeList.sortableBits(diff[i]);
+			}
+			EdgeList.radixSort(sortKeys, byDiff, n);
+			int m = 0;
+			for (int k = 0; k < n; k++) {
+				if (k == 0 || sortKeys[k] != sortKeys[k - 1]) {
+					m++;
+				}
+				rank[byDiff[k]] = m - 1;
+			}
+
+			// Fenwick 樹以反向名次 m - rank 為索引，前綴最小值即名次 >= rank 的最小值
+			Arrays.fill(treeValue, 0, m + 1, Double.POSITIVE_INFINITY);
+			Arrays.fill(treeIndex, 0, m + 1, -1);
+			for (int k = n - 1; k >= 0; k--) {
+				int i = order[k];
+				int best = -1;
+				double bestValue = Double.POSITIVE_INFINITY;
+				for (int pos = m - rank[i]; pos > 0; pos -= pos & -pos) {
+					if (treeValue[pos] < bestValue) {
+						bestValue = treeValue[pos];
+						best = treeIndex[pos];
+					}
+				}
+				if (best >= 0) {
+					keys[len++] = EdgeList.pairKey(i, best);
+				}
+				double value = x[i] + y[i];
+				for (int pos = m - rank[i]; pos <= m; pos += pos & -pos) {
+					if (value < treeValue[pos]) {
+						treeValue[pos] = value;
+						treeIndex[pos] = i;
+					}
+				}
+			}
+		}
+
+		// 排序並去除重複
+		Arrays.sort(keys, 0, len);
+		int out = 0;
+		for (int k = 0; k < len; k++) {
+			if (out == 0 || keys[out - 1] != keys[k]) {
+				keys[out++] = keys[k];
+			}
+		}
+		return Arrays.copyOf(keys, out);
+	}
+
+	/** 以點的均勻網格做 Borůvka：每一輪每個元件找出 (權重, i, j) 最小的可連線外連邊 */
+	private static final class Boruvka {
+		private final PointSet points;
+		private final VisibilityChecker checker;
+		private final IntUnionFind components;
+		/** 先搜尋的點（被擋住的 MST 邊的端點） */
+		private final int[] frontier;
+
+		private final PointGrid grid;
+
+		// 目前這一輪各元件的最佳外連邊
+		private int[] label;
+		private double[] bestWeight;
+		private long[] bestKey;
+
+		Boruvka(PointSet points, VisibilityChecker checker, IntUnionFind components, int[] frontier) {
+			this.points = points;
+			this.checker = checker;
+			this.components = components;
+			this.frontier = frontier;
+			this.grid = new PointGrid(points);
+		}
+
+		/** 執行到沒有元件能再合併為止，將新選的邊加入 chosen，回傳新的邊數 */
+		int run(long[] chosen, int chosenCount) {
+			int n = points.size;
+			// 已確定沒有任何可連線外連邊的元件中的點；之後各輪不再搜尋（元件只會變大，其他元件也不會連到它）
+			boolean[] closed = new boolean[n];
+			while (components.components() > 1) {
+				label = components.labels();
+				int count = components.components();
+				bestWeight = new double[count];
+				bestKey = new long[count];
+				Arrays.fill(bestWeight, Double.POSITIVE_INFINITY);
+				Arrays.fill(bestKey, -1L);
+
+				for (int a : frontier) {
+					if (!closed[a]) {
+						search(a);
+					}
+				}
+				for (int a = 0; a < n; a++) {
+					if (!closed[a]) {
+						search(a);
+					}
+				}
+				for (int a = 0; a < n; a++) {
+					closed[a] |= bestKey[label[a]] < 0;
+				}
+
+				int before = chosenCount;
+				for (int c = 0; c < count; c++) {
+					long key = bestKey[c];
+					if (key >= 0 && components.union((int) (key >>> 32), (int) key)) {
+						chosen[chosenCount++] = key;
+					}
+				}
+				PipelineMetrics.add(PipelineMetrics.Counter.UNIONS, chosenCount - before);
+				if (chosenCount == before) {
+					// 其餘元件之間沒有可連線的點對
+					break;
+				}
+			}
+			return chosenCount;
+		}
+
+		/** 由近到遠逐環搜尋點 a 周圍不在同一元件的點，更新 a 所在元件的最佳外連邊 */
+		private void search(int a) {
+			int c = label[a];
+			double ax = points.xs[a], ay = points.ys[a];
+			PointGrid.RingCells cells = grid.ringCells();
+			for (int ring = 0, maxRing = grid.maxRing(a); ring <= maxRing; ring++) {
+				if (grid.ringDistance(ring) > bestWeight[c]) {
+					return;
+				}
+				for (int cell = cells.first(a, ring); cell >= 0; cell = cells.next()) {
+					for (int p = grid.cellStart[cell], end = grid.cellStart[cell + 1]; p < end; p++) {
+						int b = grid.cellItems[p];
+						if (label[b] == c) {
+							continue;
+						}
+						double w = Math.abs(ax - points.xs[b]) + Math.abs(ay - points.ys[b]);
+						long key = EdgeList.pairKey(a, b);
+						if ((w < bestWeight[c] || (w == bestWeight[c] && key < bestKey[c])) && checker.isOrthogonallyVisible(points, a, b)) {
+							bestWeight[c] = w;
+							bestKey[c] = key;
+						}
+					}
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
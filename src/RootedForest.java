@@ -0,0 +1,191 @@
+// 17. 有根森林：由 MST 邊建立，以 CSR 陣列存放子節點，並預先算好每棵樹的前序與後序，供佈局引擎以迴圈掃描（不遞迴、不雜湊）
+
+import java.util.Arrays;
+import java.util.List;
+
+final class RootedForest {
+	final PointSet points;
+
+	/** 每棵樹的根；有指定根節點時它是第一棵 */
+	final int[] roots;
+	/** 第 t 棵樹的節點在 preOrder / postOrder 中佔 treeStart[t] .. treeStart[t + 1] */
+	final int[] treeStart;
+	final int[] preOrder;
+	final int[] postOrder;
+
+	/** 父節點編號，根為 -1 */
+	final int[] parent;
+	/** 深度，根為 0 */
+	final int[] depth;
+	/** childStart[u] .. childStart[u + 1] 為節點 u 的子節點在 children 中的範圍，順序與 MST 邊的順序相同 */
+	final int[] childStart;
+	final int[] children;
+
+	private RootedForest(PointSet points, int[] roots, int[] treeStart, int[] preOrder, int[] postOrder, int[] parent, int[] depth, int[] childStart, int[] children) {
+		this.points = points;
+		this.roots = roots;
+		this.treeStart = treeStart;
+		this.preOrder = preOrder;
+		this.postOrder = postOrder;
+		this.parent = parent;
+		this.depth = depth;
+		this.childStart = childStart;
+		this.children = children;
+	}
+
+	/**
+	 * 建立森林：先以指定根節點（可為 null）所在的連通元件為第一棵樹，其餘元件依編號順序以最小編號的點為根。 每個節點的子節點依 BFS 發現的順序排列，與原本由 MST 建立單向樹的結果相同。
+	 *
+	 * @param points        點集合（edges 中不屬於此集合的節點會被忽略）
+	 * @param edges         MST 邊集合
+	 * @param specifiedRoot 指定根節點 (可為 null)
+	 */
+	static RootedForest build(PointSet points, List<Edge> edges, Node specifiedRoot) {
+		int[] ends = new int[edges.size() * 2];
+		int endCount = 0;
+		for (Edge edge : edges) {
+			int u = points.indexOf(edge.source);
+			int v = points.indexOf(edge.target);
+			if (u >= 0 && v >= 0) {
+				ends[endCount++] = u;
+				ends[endCount++] = v;
+			}
+		}
+		return build(points, ends, endCount, specifiedRoot != null ? points.indexOf(specifiedRoot) : -1);
+	}
+
+	/**
+	 * 以編號表示的 MST 邊建立森林（例如從二進位檔載入、沒有 {@link Node} 的點集合），結果與 {@link #build(PointSet, List, Node)} 相同。
+	 *
+	 * @param rootIndex 指定根節點的編號（-1 或超出範圍表示不指定）
+	 */
+	static RootedForest build(PointSet points, EdgeList edges, int rootIndex) {
+		int[] ends = new int[edges.size * 2];
+		for (int k = 0; k < edges.size; k++) {
+			ends[2 * k] = edges.src[k];
+			ends[2 * k + 1] = edges.dst[k];
+		}
+		return build(points, ends, ends.length, rootIndex);
+	}
+
+	/** ends[2k], ends[2k + 1] 為第 k 條邊的兩端點編號 */
+	private static RootedForest build(PointSet points, int[] ends, int endCount, int rootIndex) {
+		int n = points.size;
+
+		// 1) 鄰接表（CSR）：adjStart[u] .. adjStart[u + 1] 為節點 u 的鄰居，順序與 edges 相同
+		int[] adjStart = new int[n + 1];
+		for (int k = 0; k < endCount; k++) {
+			adjStart[ends[k] + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			adjStart[i + 1] += adjStart[i];
+		}
+		int[] adjacency = new int[endCount];
+		int[] fill = Arrays.copyOf(adjStart, n);
+		for (int k = 0; k < endCount; k += 2) {
+			adjacency[fill[ends[k]]++] = ends[k + 1];
+			adjacency[fill[ends[k + 1]]++] = ends[k];
+		}
+
+		// 2) 逐棵樹 BFS：queue 依序存放所有樹的 BFS 順序，同時記錄父節點、深度與子節點數
+		int[] parent = new int[n];
+		int[] depth = new int[n];
+		int[] childCount = new int[n];
+		boolean[] visited = new boolean[n];
+		int[] queue = new int[n];
+		int[] roots = new int[n];
+		int[] bfsStart = new int[n + 1];
+		int treeCount = 0, tail = 0;
+
+		for (int next = -1; next < n; next++) {
+			int root = next < 0 ? rootIndex : next;
+			if (root < 0 || root >= n || visited[root]) {
+				continue;
+			}
+			roots[treeCount] = root;
+			bfsStart[treeCount++] = tail;
+			int head = tail;
+			queue[tail++] = root;
+			visited[root] = true;
+			parent[root] = -1;
+			depth[root] = 0;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int k = adjStart[u]; k < adjStart[u + 1]; k++) {
+					int v = adjacency[k];
+					if (!visited[v]) {
+						visited[v] = true;
+						parent[v] = u;
+						depth[v] = depth[u] + 1;
+						childCount[u]++;
+						queue[tail++] = v;
+					}
+				}
+			}
+		}
+		bfsStart[treeCount] = tail;
+
+		// 3) 子節點 CSR：依 BFS 順序填入，同一父節點的子節點即保持發現的順序
+		int[] childStart = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			childStart[u + 1] = childStart[u] + childCount[u];
+		}
+		int[] children = new int[Math.max(0, n - treeCount)];
+		fill = Arrays.copyOf(childStart, n);
+		for (int k = 0; k < tail; k++) {
+			int v = queue[k];
+			if (parent[v] >= 0) {
+				children[fill[parent[v]]++] = v;
+			}
+		}
+
+		// 4) 前序與後序：以明確的堆疊走訪，深度再大也不會堆疊溢位
+		int[] preOrder = new int[n];
+		int[] postOrder = new int[n];
+		int[] stack = new int[n];
+		for (int t = 0; t < treeCount; t++) {
+			int from = bfsStart[t], to = bfsStart[t + 1];
+
+			// 前序：子節點反向推入堆疊，彈出時即為由左到右
+			int out = from, top = 0;
+			stack[top++] = roots[t];
+			while (top > 0) {
+				int u = stack[--top];
+				preOrder[out++] = u;
+				for (int k = childStart[u + 1] - 1; k >= childStart[u]; k--) {
+					stack[top++] = children[k];
+				}
+			}
+
+			// 後序：「先右後左」的前序倒過來即為「先左後右」的後序
+			out = to;
+			stack[top++] = roots[t];
+			while (top > 0) {
+				int u = stack[--top];
+				postOrder[--out] = u;
+				for (int k = childStart[u]; k < childStart[u + 1]; k++) {
+					stack[top++] = children[k];
+				}
+			}
+		}
+
+		return new RootedForest(points, Arrays.copyOf(roots, treeCount), Arrays.copyOf(bfsStart, treeCount + 1), preOrder, postOrder, parent, depth, childStart, children);
+	}
+
+	int treeCount() {
+		return roots.length;
+	}
+
+	int childCount(int u) {
+		return childStart[u + 1] - childStart[u];
+	}
+
+	/** 第 t 棵樹的層數（只有根時為 1） */
+	int levels(int t) {
+		int max = 0;
+		for (int k = treeStart[t]; k < treeStart[t + 1]; k++) {
+			max = Math.max(max, depth[preOrder[k]]);
+		}
+		return max + 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+// 20. 繪圖元素的空間索引：均勻網格，每個元素以外接矩形登錄到所覆蓋的格子，繪圖時只取出與可見範圍相交的元素
+
+import java.util.Arrays;
+
+final class SceneGrid {
+	/** 每個軸向最多的格子數，避免極端輸入配置過大的陣列 */
+	private static final int MAX_CELLS_PER_AXIS = 2048;
+	/** 覆蓋超過這麼多格子的元素（例如很長的邊）不登錄到格子，而是放在另一個清單中，每次查詢都逐一比較 */
+	private static final long MAX_CELLS_PER_ITEM = 64;
+
+	private final double[] itemMinX, itemMinY, itemMaxX, itemMaxY;
+	private final double minX, minY, cellW, cellH;
+	private final int cols, rows;
+	// CSR 形式：cellStart[c] .. cellStart[c + 1] 為格子 c 內的元素編號
+	private final int[] cellStart;
+	private final int[] cellItems;
+	private final int[] largeItems;
+
+	// 查詢時的去重標記；查詢只在 EDT 上進行，不需要每個執行緒一份
+	private final int[] seen;
+	private int mark;
+
+	/** 以 count 個元素的外接矩形建立索引；陣列由呼叫端提供，之後不可再修改 */
+	SceneGrid(double[] itemMinX, double[] itemMinY, double[] itemMaxX, double[] itemMaxY, int count) {
+		this.itemMinX = itemMinX;
+		this.itemMinY = itemMinY;
+		this.itemMaxX = itemMaxX;
+		this.itemMaxY = itemMaxY;
+
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		for (int k = 0; k < count; k++) {
+			x0 = Math.min(x0, itemMinX[k]);
+			y0 = Math.min(y0, itemMinY[k]);
+			x1 = Math.max(x1, itemMaxX[k]);
+			y1 = Math.max(y1, itemMaxY[k]);
+		}
+		if (count == 0) {
+			x0 = y0 = 0;
+			x1 = y1 = 1;
+		}
+		double w = Math.max(x1 - x0, 1e-9);
+		double h = Math.max(y1 - y0, 1e-9);
+
+		// 格子數約等於元素數量，並依長寬比分配到兩個軸向
+		double target = Math.max(1, count);
+		int c = (int) Math.ceil(Math.sqrt(target * w / h));
+		int r = (int) Math.ceil(Math.sqrt(target * h / w));
+		this.cols = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, c));
+		this.rows = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, r));
+		this.minX = x0;
+		this.minY = y0;
+		this.cellW = w / cols;
+		this.cellH = h / rows;
+
+		// 兩趟掃描：先計數，再填入
+		int cells = cols * rows;
+		this.cellStart = new int[cells + 1];
+		int largeCount = 0;
+		for (int k = 0; k < count; k++) {
+			if (isLarge(k)) {
+				largeCount++;
+				continue;
+			}
+			for (int row = row(itemMinY[k]), r1 = row(itemMaxY[k]); row <= r1; row++) {
+				for (int col = col(itemMinX[k]), c1 = col(itemMaxX[k]); col <= c1; col++) {
+					cellStart[row * cols + col + 1]++;
+				}
+			}
+		}
+		for (int i = 0; i < cells; i++) {
+			cellStart[i + 1] += cellStart[i];
+		}
+		this.cellItems = new int[cellStart[cells]];
+		this.largeItems = new int[largeCount];
+		int[] fill = Arrays.copyOf(cellStart, cells);
+		largeCount = 0;
+		for (int k = 0; k < count; k++) {
+			if (isLarge(k)) {
+				largeItems[largeCount++] = k;
+				continue;
+			}
+			for (int row = row(itemMinY[k]), r1 = row(itemMaxY[k]); row <= r1; row++) {
+				for (int col = col(itemMinX[k]), c1 = col(itemMaxX[k]); col <= c1; col++) {
+					cellItems[fill[row * cols + col]++] = k;
+				}
+			}
+		}
+
+		this.seen = new int[count];
+	}
+
+	/** 外接矩形與 [x0, x1] × [y0, y1] 相交的元素編號，由小到大排列（即呼叫端決定的繪製順序） */
+	int[] query(double x0, double y0, double x1, double y1) {
+		if (++mark == Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			mark = 1;
+		}
+		int[] out = new int[16];
+		int len = 0;
+		for (int k : largeItems) {
+			if (itemMaxX[k] >= x0 && itemMinX[k] <= x1 && itemMaxY[k] >= y0 && itemMinY[k] <= y1) {
+				if (len == out.length) {
+					out = Arrays.copyOf(out, len * 2);
+				}
+				out[len++] = k;
+			}
+		}
+		for (int row = row(y0), r1 = row(y1); row <= r1; row++) {
+			for (int col = col(x0), c1 = col(x1); col <= c1; col++) {
+				int cell = row * cols + col;
+				for (int p = cellStart[cell], end = cellStart[cell + 1]; p < end; p++) {
+					int k = cellItems[p];
+					if (seen[k] == mark) {
+						continue;
+					}
+					seen[k] = mark;
+					if (itemMaxX[k] >= x0 && itemMinX[k] <= x1 && itemMaxY[k] >= y0 && itemMinY[k] <= y1) {
+						if (len == out.length) {
+							out = Arrays.copyOf(out, len * 2);
+						}
+						out[len++] = k;
+					}
+				}
+			}
+		}
+		int[] result = Arrays.copyOf(out, len);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private boolean isLarge(int k) {
+		long spanX = col(itemMaxX[k]) - col(itemMinX[k]) + 1;
+		long spanY = row(itemMaxY[k]) - row(itemMinY[k]) + 1;
+		return spanX * spanY > MAX_CELLS_PER_ITEM;
+	}
+
+	private int col(double x) {
+		int c = (int) Math.floor((x - minX) / cellW);
+		return Math.max(0, Math.min(cols - 1, c));
+	}
+
+	private int row(double y) {
+		int r = (int) Math.floor((y - minY) / cellH);
+		return Math.max(0, Math.min(rows - 1, r));
+	}
+}
\ No newline at end of file
@@ -4,130 +4,521 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 // --- Swing 繪圖部分 ---
 @SuppressWarnings("serial")
 class TreeGraphPanel extends JPanel {
-	private final List<Edge> mstEdges;
-	private final Map<Point, Node> pointToNodeMap;
-	private final Node specifiedRoot;
+	/** 新的佈局換上時觸發的屬性變更事件名稱 */
+	static final String LAYOUT_PROPERTY = "layout";
+	/** 佈局計算失敗時觸發的屬性變更事件名稱（新值為失敗的原因） */
+	static final String LAYOUT_FAILURE_PROPERTY = "layoutFailure";
+
+	private static final BasicStroke TREE_STROKE = new BasicStroke(2);
+	private static final BasicStroke NETWORK_STROKE = new BasicStroke(3);
+	private static final Font LABEL_FONT = new Font("新細明體", Font.BOLD, 14);
+
+	// 細節層級（LOD）：縮放比例低於 LABEL_ZOOM 時不畫文字；低於 COLLAPSE_ZOOM 時，畫面上小於 COLLAPSE_PIXELS 的子樹以一個矩形代替
+	private static final double LABEL_ZOOM = 0.6;
+	private static final double COLLAPSE_ZOOM = 0.25;
+	private static final double COLLAPSE_PIXELS = 6;
+	private static final double MIN_ZOOM = 0.01, MAX_ZOOM = 4;
+
+	// 離屏圖塊快取：以裝置座標切成 TILE_SIZE 的方塊，最多保留 MAX_TILES 塊（最久未使用的先丟棄）
+	private static final int TILE_SIZE = 256;
+	private static final int MAX_TILES = 128;
+
+	// 場景的最小尺寸（場景座標）；樹狀佈局固定以 SCENE_HEIGHT 為面板高度，不隨視窗大小、縮放比例或佈局結果改變
+	private static final int SCENE_WIDTH = 1700, SCENE_HEIGHT = 1000;
+
+	// 兩個畫面在場景座標中的水平位移：左側為樹狀佈局，右側為原始座標（乘以 NETWORK_SCALE）
+	private static final int TREE_X_OFFSET = 10;
+	private static final int NETWORK_X_OFFSET = 850;
+	private static final double NETWORK_SCALE = 50;
+
+	private List<Edge> mstEdges;
+	private final PointSet points;
+	private Node specifiedRoot;
 
-	private final List<Point> allPoints2;
 	private final List<LineSegment> obstacles;
-	// 新增：點編號的映射
-	private final Map<Point, Integer> pointNumberMap;
+	// 每個點（依點集合編號）要顯示的標籤：點編號，找不到編號時為原始座標；建構時計算一次，繪圖時不再查表
+	private final String[] labels;
+	// true 時改用線性時間的 BuchheimTreeLayout（預設為 TreeLayoutCalculator）
+	private boolean useBuchheimLayout;
+	// 以直角 (L 形) 路徑繪製右側的 MST 邊；路徑方向由障礙物決定
+	private boolean rectilinearRouting;
+	private VisibilityChecker routingChecker;
+
+	// 目前可繪製的佈局；背景計算完成後在 EDT 上整個換掉，繪圖只讀取它
+	private volatile TreeLayoutModel layout;
+	// 計算中的佈局（沒有時為 null）；輸入再次改變時取消並重新開始
+	private LayoutWorker pendingLayout;
+	// 最近一次失敗的佈局計算與原因（沒有時為 null）；輸入不變時不再重試，改在畫面上顯示原因
+	private LayoutWorker failedLayout;
+	private Throwable layoutFailure;
+
+	// 右側原始座標畫面的空間索引：元素依繪製順序編號為 障礙物 → MST 邊 → 點
+	private Edge[] networkEdges;
+	// 每條邊的 VisibilityChecker.ROUTE_* 方向；未啟用直角繪製時為 null
+	private byte[] networkRoutes;
+	private SceneGrid networkGrid;
+	private double networkMaxX, networkMaxY;
+
+	private double zoom = 1.0;
+	private final Map<Long, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+			return size() > MAX_TILES;
+		}
+	};
+	// 圖塊快取所對應的佈局；佈局換掉時整個快取作廢
+	private TreeLayoutModel tileLayout;
 
 	// 修改建構子，接收點編號的映射
 	public TreeGraphPanel(Map<Point, Node> pointToNodeMap, List<Edge> mstEdges, Node specifiedRoot, List<Point> allPoints2, List<LineSegment> obstacles, Map<Point, Integer> pointNumberMap) {
-		this.pointToNodeMap = pointToNodeMap;
+		this(PointSet.of(allPoints2, pointToNodeMap), mstEdges, specifiedRoot, obstacles, pointNumberMap);
+	}
+
+	public TreeGraphPanel(PointSet points, List<Edge> mstEdges, Node specifiedRoot, List<LineSegment> obstacles, Map<Point, Integer> pointNumberMap) {
+		this.points = points;
 		this.mstEdges = mstEdges;
 		this.specifiedRoot = specifiedRoot;
-		this.allPoints2 = allPoints2;
 		this.obstacles = obstacles;
-		this.pointNumberMap = pointNumberMap; // 儲存點編號的映射
-		setPreferredSize(new Dimension(1700, 1000));
+		this.labels = new String[points.size];
+		for (int i = 0; i < points.size; i++) {
+			Point p = points.point(i);
+			Integer pointNumber = pointNumberMap.get(p);
+			labels[i] = pointNumber != null ? String.valueOf(pointNumber) : p.toString();
+		}
+		buildNetworkGrid();
+		updatePreferredSize();
 		setBackground(Color.WHITE);
+
+		// Ctrl + 滾輪縮放；其餘滾輪事件交還給外層的捲動面板
+		addMouseWheelListener(e -> {
+			if (e.isControlDown()) {
+				setZoom(zoom * (e.getWheelRotation() < 0 ? 1.25 : 0.8));
+			} else if (getParent() != null) {
+				getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
+			}
+		});
 	}
 
-	@Override
-	protected void paintComponent(Graphics g) {
+	/** 切換樹狀佈局引擎 */
+	public void setUseBuchheimLayout(boolean useBuchheimLayout) {
+		this.useBuchheimLayout = useBuchheimLayout;
+		repaint();
+	}
+
+	/** 以直角 (L 形) 路徑繪製 MST 邊（搭配 RectilinearMST），每條邊選擇不被障礙物擋住的轉角 */
+	public void setRectilinearRouting(boolean rectilinearRouting) {
+		this.rectilinearRouting = rectilinearRouting;
+		buildNetworkGrid();
+		tiles.clear();
+		repaint();
+	}
+
+	/** 更換要顯示的 MST 與根節點；佈局會在背景重新計算 */
+	public void setTree(List<Edge> mstEdges, Node specifiedRoot) {
+		this.mstEdges = mstEdges;
+		this.specifiedRoot = specifiedRoot;
+		buildNetworkGrid();
+		tiles.clear();
+		updatePreferredSize();
+		repaint();
+	}
+
+	/** 設定縮放比例，並保持可見範圍的中心不變 */
+	public void setZoom(double newZoom) {
+		newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+		if (newZoom == zoom) {
+			return;
+		}
+		Rectangle visible = getVisibleRect();
+		double ratio = newZoom / zoom;
+		zoom = newZoom;
+		tiles.clear();
+		updatePreferredSize();
+		Rectangle target = new Rectangle((int) ((visible.getCenterX()) * ratio - visible.width / 2.0), (int) ((visible.getCenterY()) * ratio - visible.height / 2.0), visible.width, visible.height);
+		SwingUtilities.invokeLater(() -> scrollRectToVisible(target));
+		repaint();
+	}
+
+	public double getZoom() {
+		return zoom;
+	}
+
+	/** 佈局是否已對應目前的邊、根節點與佈局引擎 */
+	public boolean isLayoutReady() {
+		TreeLayoutModel current = layout;
+		return current != null && current.matches(mstEdges, specifiedRoot, SCENE_HEIGHT, useBuchheimLayout);
+	}
+
+	/** 以目前的邊、根節點與佈局引擎計算佈局失敗的原因；沒有失敗（或輸入已改變）時為 null */
+	public Throwable getLayoutFailure() {
+		return failedLayout != null && failedLayout.matches(mstEdges, specifiedRoot, SCENE_HEIGHT, useBuchheimLayout) ? layoutFailure : null;
+	}
+
+	/** 佈局過期時在背景重新計算；同樣的輸入已在計算中或已經失敗則不重複啟動 */
+	private void requestLayout() {
+		if (isLayoutReady() || getLayoutFailure() != null) {
+			return;
+		}
+		if (pendingLayout != null) {
+			if (pendingLayout.matches(mstEdges, specifiedRoot, SCENE_HEIGHT, useBuchheimLayout)) {
+				return;
+			}
+			pendingLayout.cancel(false);
+		}
+		pendingLayout = new LayoutWorker(mstEdges, specifiedRoot, SCENE_HEIGHT, useBuchheimLayout);
+		pendingLayout.execute();
+	}
+
+	/** 停止計算中的佈局（面板即將被丟棄時呼叫，讓背景的佈局不再佔用處理器與工作陣列）；之後重繪時若佈局仍過期，會重新開始計算 */
+	public void cancelLayout() {
+		if (pendingLayout != null) {
+			pendingLayout.cancel(false);
+			pendingLayout = null;
+		}
+	}
+
+	/** 在背景執行緒計算佈局，完成後於 EDT 上交換並重繪；被取消或已過期的結果直接丟棄，失敗時記錄原因並沿用上一次的佈局 */
+	private final class LayoutWorker extends SwingWorker<TreeLayoutModel, Void> {
+		private final List<Edge> edges;
+		private final Node root;
+		private final int panelHeight;
+		private final boolean buchheim;
+
+		LayoutWorker(List<Edge> edges, Node root, int panelHeight, boolean buchheim) {
+			this.edges = edges;
+			this.root = root;
+			this.panelHeight = panelHeight;
+			this.buchheim = buchheim;
+		}
+
+		boolean matches(List<Edge> edges, Node root, int panelHeight, boolean buchheim) {
+			return this.edges == edges && this.root == root && this.panelHeight == panelHeight && this.buchheim == buchheim;
+		}
+
+		/** cancel 之後（isCancelled 可在任何執行緒讀取）佈局在下一棵樹或下一層開始前丟出 CancellationException 而結束，不會算完才丟棄 */
+		@Override
+		protected TreeLayoutModel doInBackground() {
+			return TreeLayoutModel.compute(points, edges, root, panelHeight, buchheim, this::isCancelled);
+		}
+
+		@Override
+		protected void done() {
+			if (pendingLayout != this || isCancelled()) {
+				return;
+			}
+			pendingLayout = null;
+			TreeLayoutModel previous = layout;
+			try {
+				layout = get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				failedLayout = this;
+				layoutFailure = e.getCause();
+				repaint();
+				// SwingWorker 也有 firePropertyChange，必須指明由面板發出
+				TreeGraphPanel.this.firePropertyChange(LAYOUT_FAILURE_PROPERTY, null, layoutFailure);
+				return;
+			}
+			failedLayout = null;
+			layoutFailure = null;
+			updatePreferredSize();
+			repaint();
+			TreeGraphPanel.this.firePropertyChange(LAYOUT_PROPERTY, previous, layout);
+		}
+	}
+
+	/** 依目前的 MST 建立右側畫面的空間索引 */
+	private void buildNetworkGrid() {
+		networkEdges = mstEdges.toArray(new Edge[0]);
+		int o = obstacles.size(), m = networkEdges.length, count = o + m + points.size;
+		double[] minX = new double[count], minY = new double[count], maxX = new double[count], maxY = new double[count];
+		int k = 0;
+		for (LineSegment s : obstacles) {
+			putBounds(minX, minY, maxX, maxY, k++, s.p1.x, s.p1.y, s.p2.x, s.p2.y);
+		}
+		for (Edge edge : networkEdges) {
+			putBounds(minX, minY, maxX, maxY, k++, edge.source.point.x, edge.source.point.y, edge.target.point.x, edge.target.point.y);
+		}
+		for (int i = 0; i < points.size; i++) {
+			putBounds(minX, minY, maxX, maxY, k++, points.xs[i], points.ys[i], points.xs[i], points.ys[i]);
+		}
+		// L 形路徑仍在兩端點的外接矩形內，空間索引不受影響
+		networkRoutes = null;
+		if (rectilinearRouting) {
+			if (routingChecker == null) {
+				routingChecker = new VisibilityChecker(obstacles);
+			}
+			networkRoutes = new byte[m];
+			for (int e = 0; e < m; e++) {
+				Point p1 = networkEdges[e].source.point, p2 = networkEdges[e].target.point;
+				networkRoutes[e] = (byte) routingChecker.orthogonalRoute(p1.x, p1.y, p2.x, p2.y);
+			}
+		}
+		networkGrid = new SceneGrid(minX, minY, maxX, maxY, count);
+		networkMaxX = networkMaxY = 0;
+		for (int i = 0; i < count; i++) {
+			networkMaxX = Math.max(networkMaxX, maxX[i]);
+			networkMaxY = Math.max(networkMaxY, maxY[i]);
+		}
+	}
 
-		int xOffset = 10;
+	/** 元素 k 的外接矩形（場景座標） */
+	private static void putBounds(double[] minX, double[] minY, double[] maxX, double[] maxY, int k, double x1, double y1, double x2, double y2) {
+		minX[k] = Math.min(x1, x2) * NETWORK_SCALE + NETWORK_X_OFFSET;
+		maxX[k] = Math.max(x1, x2) * NETWORK_SCALE + NETWORK_X_OFFSET;
+		minY[k] = Math.min(y1, y2) * NETWORK_SCALE;
+		maxY[k] = Math.max(y1, y2) * NETWORK_SCALE;
+	}
+
+	/** 依場景大小與縮放比例更新偏好尺寸（場景至少為 SCENE_WIDTH × SCENE_HEIGHT）；只影響捲動範圍，不影響佈局 */
+	private void updatePreferredSize() {
+		double width = Math.max(SCENE_WIDTH, networkMaxX + 100);
+		double height = Math.max(SCENE_HEIGHT, networkMaxY + 100);
+		TreeLayoutModel model = layout;
+		if (model != null) {
+			width = Math.max(width, model.maxX + TREE_X_OFFSET + 150);
+			height = Math.max(height, model.maxY + 100);
+		}
+		setPreferredSize(new Dimension((int) Math.ceil(width * zoom), (int) Math.ceil(height * zoom)));
+		revalidate();
+	}
 
+	@Override
+	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		Graphics2D g2d = (Graphics2D) g;
-		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-		// 修改這裡：從 TreeLayoutCalculator 換成 BuchheimTreeLayout
-		// Map<Node, Point> nodeLayout = BuchheimTreeLayout.calculateLayout(pointToNodeMap, mstEdges, 500, getHeight(), specifiedRoot);
-		Map<Node, Point> nodeLayout = TreeLayoutCalculator.calculateLayout(pointToNodeMap, mstEdges, 500, getHeight(), specifiedRoot);
+		// 佈局過期時在背景重新計算；計算完成前沿用上一次的佈局
+		requestLayout();
+		TreeLayoutModel model = layout;
+		if (model != tileLayout) {
+			tiles.clear();
+			tileLayout = model;
+		}
 
-		g2d.setColor(Color.BLUE);
-		g2d.setStroke(new BasicStroke(2));
-		for (Edge edge : mstEdges) {
-			Point p1 = nodeLayout.get(edge.source);
-			Point p2 = nodeLayout.get(edge.target);
-			if (p1 != null && p2 != null) {
-				g2d.drawLine((int) (p1.x + xOffset), (int) p1.y, (int) (p2.x + xOffset), (int) p2.y);
+		// 只畫與可見範圍相交的圖塊；沒有快取的圖塊在此繪製一次
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		int tx0 = Math.floorDiv(clip.x, TILE_SIZE), tx1 = Math.floorDiv(clip.x + clip.width - 1, TILE_SIZE);
+		int ty0 = Math.floorDiv(clip.y, TILE_SIZE), ty1 = Math.floorDiv(clip.y + clip.height - 1, TILE_SIZE);
+		for (int ty = ty0; ty <= ty1; ty++) {
+			for (int tx = tx0; tx <= tx1; tx++) {
+				long key = ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+				BufferedImage tile = tiles.get(key);
+				if (tile == null) {
+					tile = renderTile(model, tx, ty);
+					tiles.put(key, tile);
+				}
+				g.drawImage(tile, tx * TILE_SIZE, ty * TILE_SIZE, null);
 			}
 		}
 
-		// draw tree points
-		g2d.setColor(Color.BLACK);
-		for (Map.Entry<Node, Point> entry : nodeLayout.entrySet()) {
-			Point p = entry.getValue();
-			g2d.fillOval((int) (p.x - 5 + xOffset), (int) p.y - 5, 10, 10);
-			g2d.drawString("x=" + String.valueOf((p.x - 5 + xOffset)), (int) (p.x - 5 + xOffset), (int) p.y + 15);
-
-			// g2d.drawString(entry.getKey().point.toString(), (int) (p.x + 10 + +xOffset), (int) p.y);
-			// 修改這裡：從點編號的映射中取得編號
-			Integer pointNumber = pointNumberMap.get(entry.getKey().point);
-			if (pointNumber != null) {
-				g2d.drawString(String.valueOf(pointNumber), (int) (p.x + 10 + xOffset), (int) p.y);
+		if (!isLayoutReady()) {
+			Rectangle visible = getVisibleRect();
+			Throwable failure = getLayoutFailure();
+			g.setColor(failure != null ? Color.RED : Color.GRAY);
+			g.setFont(LABEL_FONT);
+			g.drawString(failure != null ? "佈局計算失敗：" + failure : "佈局計算中…", visible.x + 10, visible.y + 20);
+		}
+	}
+
+	/** 以目前的縮放比例繪製一個圖塊 */
+	private BufferedImage renderTile(TreeLayoutModel model, int tx, int ty) {
+		BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = tile.createGraphics();
+		g2d.setColor(getBackground());
+		g2d.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+		g2d.setFont(getFont());
+		// 縮得很小時關閉反鋸齒：線條本來就只有一兩個像素，畫起來快得多
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, zoom >= COLLAPSE_ZOOM ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+		g2d.translate(-tx * TILE_SIZE, -ty * TILE_SIZE);
+		g2d.scale(zoom, zoom);
+		Rectangle2D clip = new Rectangle2D.Double(tx * TILE_SIZE / zoom, ty * TILE_SIZE / zoom, TILE_SIZE / zoom, TILE_SIZE / zoom);
+		g2d.clip(clip);
+		paintScene(g2d, model, clip);
+		g2d.dispose();
+		return tile;
+	}
+
+	/** 繪製場景中與 clip（場景座標）相交的部分 */
+	private void paintScene(Graphics2D g2d, TreeLayoutModel model, Rectangle2D clip) {
+		if (model != null) {
+			if (zoom < COLLAPSE_ZOOM) {
+				paintTreeCollapsed(g2d, model, clip);
 			} else {
-				// 如果找不到編號，仍舊顯示原始座標
-				g2d.drawString(entry.getKey().point.toString(), (int) (p.x + 10 + xOffset), (int) p.y);
+				paintTree(g2d, model, clip);
 			}
 		}
 
 		// paint network
-		paint2(g2d);
+		paint2(g2d, clip);
 
 		// 新增：特別標示指定的根節點
-		if (specifiedRoot != null && nodeLayout.containsKey(specifiedRoot)) {
-			g2d.setColor(Color.ORANGE);
-			Point rootP = nodeLayout.get(specifiedRoot);
-			if (rootP != null) {
-				g2d.fillOval((int) (rootP.x - 8 + xOffset), (int) rootP.y - 8, 16, 16);
-				g2d.setColor(Color.BLACK);
-				g2d.setFont(new Font("新細明體", Font.BOLD, 14));
-				g2d.drawString("Root", (int) (rootP.x + 10 + xOffset), (int) rootP.y - 20);
-			}
+		if (model != null) {
+			paintTreeRoot(g2d, model);
 		}
 
 		g2d.setColor(Color.BLACK);
-		g2d.setFont(new Font("新細明體", Font.BOLD, 14));
+		g2d.setFont(LABEL_FONT);
 		g2d.drawString("藍色線: 最小生成樹 (樹狀佈局)", 10, 880);
 	}
 
-	void paint2(Graphics2D g2d) {
+	/** 依快取的座標繪製樹狀佈局：只取出與 clip 相交的節點（元素 v 包含 v 與其父節點之間的邊） */
+	private void paintTree(Graphics2D g2d, TreeLayoutModel model, Rectangle2D clip) {
+		double[] x = model.x, y = model.y;
+		int[] parent = model.forest.parent;
+		boolean drawLabels = zoom >= LABEL_ZOOM;
 
-		int xOffset = 850;
+		// 文字畫在節點右側與下方，查詢範圍往左、上下放寬，讓落在範圍外的節點其文字仍會畫出
+		double left = drawLabels ? 100 : 10, vertical = drawLabels ? 25 : 10;
+		int[] visible = model.grid.query(clip.getMinX() - TREE_X_OFFSET - left, clip.getMinY() - vertical, clip.getMaxX() - TREE_X_OFFSET + 10, clip.getMaxY() + vertical);
 
-		// 繪製障礙物
-		g2d.setColor(Color.RED);
-		g2d.setStroke(new BasicStroke(3));
-		for (LineSegment obstacle : obstacles) {
-			g2d.drawLine((int) (obstacle.p1.x * 50 + xOffset), (int) (obstacle.p1.y * 50), (int) (obstacle.p2.x * 50 + xOffset), (int) (obstacle.p2.y * 50));
-		}
-
-		// 繪製最小生成樹的邊
 		g2d.setColor(Color.BLUE);
-		g2d.setStroke(new BasicStroke(3));
-		for (Edge edge : mstEdges) {
-			Point p1 = edge.source.point;
-			Point p2 = edge.target.point;
-			g2d.drawLine((int) (p1.x * 50 + xOffset), (int) (p1.y * 50), (int) (p2.x * 50 + xOffset), (int) (p2.y * 50));
+		g2d.setStroke(TREE_STROKE);
+		for (int v : visible) {
+			int p = parent[v];
+			if (p >= 0) {
+				g2d.drawLine((int) (x[p] + TREE_X_OFFSET), (int) y[p], (int) (x[v] + TREE_X_OFFSET), (int) y[v]);
+			}
 		}
 
-		// 繪製所有點
+		// draw tree points
 		g2d.setColor(Color.BLACK);
-		for (Point p : allPoints2) {
-			g2d.fillOval((int) (p.x * 50 - 5 + xOffset), (int) (p.y * 50 - 5), 10, 10);
+		for (int v : visible) {
+			g2d.fillOval((int) (x[v] - 5 + TREE_X_OFFSET), (int) y[v] - 5, 10, 10);
+			if (drawLabels) {
+				g2d.drawString("x=" + String.valueOf((x[v] - 5 + TREE_X_OFFSET)), (int) (x[v] - 5 + TREE_X_OFFSET), (int) y[v] + 15);
 
-			// g2d.drawString(p.toString(), (int) (p.x * 50 + 10 + xOffset), (int) (p.y * 50));
-			// 修改這裡：從點編號的映射中取得編號
-			Integer pointNumber = pointNumberMap.get(p);
-			if (pointNumber != null) {
-				g2d.drawString(String.valueOf(pointNumber), (int) (p.x * 50 + 10 + xOffset), (int) (p.y * 50));
+				// 點編號（找不到編號時為原始座標）
+				g2d.drawString(labels[v], (int) (x[v] + 10 + TREE_X_OFFSET), (int) y[v]);
+			}
+		}
+	}
+
+	/**
+	 * 縮小時的樹狀佈局：由各棵樹的根往下走，與 clip 不相交的子樹整個略過， 畫面上小於 COLLAPSE_PIXELS 的子樹畫成一個矩形，不再往下展開。
+	 */
+	private void paintTreeCollapsed(Graphics2D g2d, TreeLayoutModel model, Rectangle2D clip) {
+		RootedForest forest = model.forest;
+		double[] x = model.x, y = model.y;
+		double margin = 10, collapse = COLLAPSE_PIXELS / zoom;
+		double x0 = clip.getMinX() - TREE_X_OFFSET - margin, x1 = clip.getMaxX() - TREE_X_OFFSET + margin;
+		double y0 = clip.getMinY() - margin, y1 = clip.getMaxY() + margin;
+
+		g2d.setStroke(TREE_STROKE);
+		int[] stack = new int[Math.max(1, points.size)];
+		for (int root : forest.roots) {
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				int v = stack[--top];
+				if (model.subtreeMaxX[v] < x0 || model.subtreeMinX[v] > x1 || model.subtreeMaxY[v] < y0 || y[v] > y1) {
+					continue;
+				}
+				double w = model.subtreeMaxX[v] - model.subtreeMinX[v], h = model.subtreeMaxY[v] - y[v];
+				if (forest.childCount(v) > 0 && w < collapse && h < collapse) {
+					g2d.setColor(Color.BLUE);
+					g2d.fill(new Rectangle2D.Double(model.subtreeMinX[v] + TREE_X_OFFSET - 2 / zoom, y[v] - 2 / zoom, w + 4 / zoom, h + 4 / zoom));
+					continue;
+				}
+				g2d.setColor(Color.BLUE);
+				for (int c = forest.childStart[v]; c < forest.childStart[v + 1]; c++) {
+					int child = forest.children[c];
+					g2d.drawLine((int) (x[v] + TREE_X_OFFSET), (int) y[v], (int) (x[child] + TREE_X_OFFSET), (int) y[child]);
+					stack[top++] = child;
+				}
+				g2d.setColor(Color.BLACK);
+				g2d.fillOval((int) (x[v] - 5 + TREE_X_OFFSET), (int) y[v] - 5, 10, 10);
+			}
+		}
+	}
+
+	/** 特別標示指定的根節點 */
+	private void paintTreeRoot(Graphics2D g2d, TreeLayoutModel model) {
+		int root = model.root != null ? points.indexOf(model.root) : -1;
+		if (root >= 0) {
+			g2d.setColor(Color.ORANGE);
+			g2d.fillOval((int) (model.x[root] - 8 + TREE_X_OFFSET), (int) model.y[root] - 8, 16, 16);
+			g2d.setColor(Color.BLACK);
+			g2d.setFont(LABEL_FONT);
+			g2d.drawString("Root", (int) (model.x[root] + 10 + TREE_X_OFFSET), (int) model.y[root] - 20);
+		}
+	}
+
+	/** 繪製原始座標畫面中與 clip（場景座標）相交的障礙物、MST 邊與點 */
+	void paint2(Graphics2D g2d, Rectangle2D clip) {
+
+		int xOffset = NETWORK_X_OFFSET;
+		double scale = NETWORK_SCALE;
+		boolean drawLabels = zoom >= LABEL_ZOOM;
+		// 縮小時點只畫成一個像素，畫面上短於一個像素的邊直接略過（已被端點蓋住）
+		boolean detailed = zoom >= COLLAPSE_ZOOM;
+		double pixel = 1 / zoom;
+
+		double left = drawLabels ? 100 : 10, vertical = drawLabels ? 25 : 10;
+		int[] visible = networkGrid.query(clip.getMinX() - left, clip.getMinY() - vertical, clip.getMaxX() + 10, clip.getMaxY() + vertical);
+		int edgeStart = obstacles.size(), pointStart = edgeStart + networkEdges.length;
+
+		// 元素已依編號排序：障礙物 → MST 邊 → 點
+		g2d.setStroke(NETWORK_STROKE);
+		for (int k : visible) {
+			if (k < edgeStart) {
+				// 繪製障礙物
+				LineSegment obstacle = obstacles.get(k);
+				g2d.setColor(Color.RED);
+				g2d.drawLine((int) (obstacle.p1.x * scale + xOffset), (int) (obstacle.p1.y * scale), (int) (obstacle.p2.x * scale + xOffset), (int) (obstacle.p2.y * scale));
+			} else if (k < pointStart) {
+				// 繪製最小生成樹的邊
+				Point p1 = networkEdges[k - edgeStart].source.point;
+				Point p2 = networkEdges[k - edgeStart].target.point;
+				if (!detailed && Math.abs(p1.x - p2.x) * scale < pixel && Math.abs(p1.y - p2.y) * scale < pixel) {
+					continue;
+				}
+				g2d.setColor(Color.BLUE);
+				int x1 = (int) (p1.x * scale + xOffset), y1 = (int) (p1.y * scale);
+				int x2 = (int) (p2.x * scale + xOffset), y2 = (int) (p2.y * scale);
+				int route = networkRoutes != null ? networkRoutes[k - edgeStart] : VisibilityChecker.ROUTE_BLOCKED;
+				if (route == VisibilityChecker.ROUTE_HORIZONTAL_FIRST) {
+					g2d.drawLine(x1, y1, x2, y1);
+					g2d.drawLine(x2, y1, x2, y2);
+				} else if (route == VisibilityChecker.ROUTE_VERTICAL_FIRST) {
+					g2d.drawLine(x1, y1, x1, y2);
+					g2d.drawLine(x1, y2, x2, y2);
+				} else {
+					g2d.drawLine(x1, y1, x2, y2);
+				}
 			} else {
-				// 如果找不到編號，仍舊顯示原始座標
-				g2d.drawString(p.toString(), (int) (p.x * 50 + 10 + xOffset), (int) (p.y * 50));
+				// 繪製所有點
+				int i = k - pointStart;
+				double x = points.xs[i], y = points.ys[i];
+				g2d.setColor(Color.BLACK);
+				if (!detailed) {
+					g2d.fill(new Rectangle2D.Double(x * scale + xOffset, y * scale, pixel, pixel));
+					continue;
+				}
+				g2d.fillOval((int) (x * scale - 5 + xOffset), (int) (y * scale - 5), 10, 10);
+				if (drawLabels) {
+					g2d.drawString(labels[i], (int) (x * scale + 10 + xOffset), (int) (y * scale));
+				}
 			}
 		}
 
@@ -136,10 +527,10 @@ class TreeGraphPanel extends JPanel {
 			g2d.setColor(Color.ORANGE);
 			Point rootP = specifiedRoot.point;
 			if (rootP != null) {
-				g2d.fillOval((int) (rootP.x * 50 - 8 + xOffset), (int) (rootP.y * 50 - 8), 16, 16);
+				g2d.fillOval((int) (rootP.x * scale - 8 + xOffset), (int) (rootP.y * scale - 8), 16, 16);
 				g2d.setColor(Color.BLACK);
-				g2d.setFont(new Font("新細明體", Font.BOLD, 14));
-				g2d.drawString("Root", (int) (rootP.x * 50 + 10 + xOffset), (int) (rootP.y * 50 - 10));
+				g2d.setFont(LABEL_FONT);
+				g2d.drawString("Root", (int) (rootP.x * scale + 10 + xOffset), (int) (rootP.y * scale - 10));
 			}
 		}
 
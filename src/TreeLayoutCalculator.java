@@ -1,19 +1,19 @@
 //8. 樹狀佈局計算器：計算每個節點在面板上的 (x, y) 座標（加入方案A：後處理壓縮）
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
 
 public class TreeLayoutCalculator {
+	/** 平行模式下森林的節點數少於此數時，仍在目前的執行緒上佈局（工作分派的成本高於佈局本身） */
+	private static final int PARALLEL_THRESHOLD = 4096;
+	/** 平行佈局時每個工作至少處理的節點數 */
+	private static final int NODES_PER_TASK = 1024;
 
 	/**
 	 * 計算所有節點的位置，用於樹狀佈局顯示 內含「方案A：後處理壓縮（horizontal compaction）」
@@ -26,323 +26,299 @@ public class TreeLayoutCalculator {
 	 * @return Node -> Point 座標的映射
 	 */
 	public static Map<Node, Point> calculateLayout(Map<Point, Node> pointToNodeMap, List<Edge> edges, int panelWidth, int panelHeight, Node specifiedRoot) {
+		// 每次呼叫都會依 pointToNodeMap 的迭代順序重新編號；已有點集合時請改用 PointSet 版本
+		return calculateLayout(PointSet.of(pointToNodeMap.values()), edges, panelWidth, panelHeight, specifiedRoot);
+	}
 
-		// 1) 建立鄰接表：每個節點 → 鄰居清單
-		Map<Node, List<Node>> adjacencyList = new HashMap<>();
-		for (Edge edge : edges) {
-			adjacencyList.computeIfAbsent(edge.source, k -> new ArrayList<>()).add(edge.target);
-			adjacencyList.computeIfAbsent(edge.target, k -> new ArrayList<>()).add(edge.source);
-		}
+	/**
+	 * 以點集合的編號運算的版本：樹由 {@link RootedForest} 轉成 CSR 子節點陣列，之後每個步驟都是對前序/後序陣列的迴圈掃描， 座標存放在 double[] 中，不遞迴也不對節點做雜湊，路徑狀的深樹不會堆疊溢位。
+	 *
+	 * @param points        點集合（edges 中不屬於此集合的節點會被忽略）
+	 * @param edges         MST 邊集合
+	 * @param panelWidth    面板寬度
+	 * @param panelHeight   面板高度
+	 * @param specifiedRoot 指定根節點 (可為 null)
+	 * @return Node -> Point 座標的映射
+	 */
+	public static Map<Node, Point> calculateLayout(PointSet points, List<Edge> edges, int panelWidth, int panelHeight, Node specifiedRoot) {
+		RootedForest forest = RootedForest.build(points, edges, specifiedRoot);
+		double[] x = new double[points.size];
+		double[] y = new double[points.size];
+		layout(forest, panelHeight, x, y);
 
-		// 2) 儲存每個節點的最終座標
 		Map<Node, Point> layoutMap = new HashMap<>();
-
-		// 3) 用於 BFS 記錄已拜訪過的節點
-		Set<Node> visited = new HashSet<>();
-
-		// 4) 儲存每棵樹的根節點
-		List<Node> roots = new ArrayList<>();
-
-		// 5) 所有節點
-		Set<Node> allNodes = new HashSet<>(pointToNodeMap.values());
-
-		// 6) 如果有指定根節點，先處理它（把同一連通元件標記 visited）
-		if (specifiedRoot != null && allNodes.contains(specifiedRoot)) {
-			roots.add(specifiedRoot);
-			markComponent(specifiedRoot, adjacencyList, visited);
+		for (int v = 0; v < points.size; v++) {
+			layoutMap.put(points.nodes[v], new Point(x[v], y[v]));
 		}
+		return layoutMap;
+	}
 
-		// 7) 其他未拜訪節點（其他連通元件）也當作新樹的根
-		for (Node node : allNodes) {
-			if (!visited.contains(node)) {
-				roots.add(node);
-				markComponent(node, adjacencyList, visited);
-			}
-		}
-
-		// 8) 佈局起點與參數
-		double currentX = 250.0;
-		double startY = 20;
-		double minGap = 20.0; // 後處理壓縮時的最小水平間距（可依字型大小調整）
-
-		// 9) 逐一處理每棵樹
-		for (Node root : roots) {
-			// 9.1 由 MST 建立以 root 為根的單向樹
-			Map<Node, List<Node>> tree = buildTreeFromGraph(root, adjacencyList);
+	/** 計算森林中每個節點的座標，寫入 x[] / y[]（以節點編號索引） */
+	static void layout(RootedForest forest, int panelHeight, double[] x, double[] y) {
+		layout(forest, panelHeight, x, y, 1);
+	}
 
-			// 9.2 計算每個節點的子樹寬度
-			Map<Node, Double> subtreeWidths = new HashMap<>();
-			calculateSubtreeWidths(root, tree, subtreeWidths);
+	/**
+	 * 平行版本：各棵樹互不相關，先平行計算每棵樹的子樹寬度，再依序累加出每棵樹的起始 X（只需要各棵樹的寬度），最後平行指定座標並壓縮。
+	 * 每棵樹的運算（包含起始 X）與循序版本完全相同，因此結果與執行緒數無關。
+	 *
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	static void layout(RootedForest forest, int panelHeight, double[] x, double[] y, int parallelism) {
+		layout(forest, panelHeight, x, y, parallelism, () -> false);
+	}
 
-			// 9.3 計算整棵樹的最大深度（只用來估算高度置中）
-			Map<Node, Integer> depths = new HashMap<>();
-			int maxDepth = calculateDepth(root, tree, depths);
+	/**
+	 * 同 {@link #layout(RootedForest, int, double[], double[], int)}，但每棵樹與每一層壓縮開始前檢查 cancelled，成立時丟出 {@link CancellationException}
+	 * （平行時由所有工作各自檢查，很快全部結束）。
+	 */
+	static void layout(RootedForest forest, int panelHeight, double[] x, double[] y, int parallelism, BooleanSupplier cancelled) {
+		int n = forest.parent.length;
+		int trees = forest.treeCount();
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		PipelineMetrics.StageEvent layoutStage = PipelineMetrics.begin(PipelineMetrics.Stage.LAYOUT);
+
+		ForestLayout layout = new ForestLayout(forest, panelHeight, x, y, cancelled);
+		ForkJoinPool pool = threads > 1 && trees > 1 && n >= PARALLEL_THRESHOLD ? new ForkJoinPool(threads) : null;
+		try {
+			// 3.1 ~ 3.5 每棵樹的子樹寬度、壓縮比例與垂直位置
+			if (pool != null) {
+				pool.invoke(new TreeTask(layout, false, 0, trees));
+			} else {
+				layout.measure(0, trees);
+			}
 
-			// 9.4 計算整棵樹的總寬度
-			double treeWidth = subtreeWidths.getOrDefault(root, 50.0);
+			// 3.6 依序決定每棵樹的起始 X
+			layout.pack();
 
-			// 9.5 計算水平方向的壓縮比例 (spacingFactor)
-			double availableWidth = 50; // panelWidth - 100.0; // 依原始程式保留
-			double spacingFactor = 1.0;
-			if (treeWidth > 0 && treeWidth < availableWidth) {
-				spacingFactor = availableWidth / treeWidth;
+			// 3.7 ~ 3.8 指定節點座標並壓縮
+			if (pool != null) {
+				pool.invoke(new TreeTask(layout, true, 0, trees));
+			} else {
+				layout.place(0, trees);
 			}
-
-			// 9.6 垂直置中
-			double finalY = startY;
-			double treeHeight = maxDepth * 50;
-			double availableHeight = panelHeight - startY - 20;
-			if (treeHeight < availableHeight) {
-				finalY += (availableHeight - treeHeight) / 2.0;
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
 			}
+		}
 
-			// 9.7 根據壓縮後寬度調整起始 X，使整棵樹居中
-			double startX = currentX + 450 + (availableWidth - treeWidth * spacingFactor) / 2.0;
+		// （可選）將所有 x 平移，讓最小 x >= 0
+		normalizeToNonNegative(x);
+		PipelineMetrics.end(layoutStage, n);
+	}
 
-			// 9.8 指定節點座標（原演算法）
-			assignPositions(root, tree, layoutMap, startX, finalY, subtreeWidths, spacingFactor);
+	/** 一次佈局的狀態；工作陣列以節點編號索引，各棵樹寫入的位置互不重疊，因此不同的樹可以同時處理 */
+	private static final class ForestLayout {
+		// 1) 佈局起點與參數
+		static final double START_X = 250.0;
+		static final double START_Y = 20;
+		static final double MIN_GAP = 20.0; // 後處理壓縮時的最小水平間距（可依字型大小調整）
+		static final double AVAILABLE_WIDTH = 50; // panelWidth - 100.0; // 依原始程式保留
+
+		final RootedForest forest;
+		final int panelHeight;
+		final double[] x, y;
+		final BooleanSupplier cancelled;
+
+		// 2) 工作陣列：子樹寬度、子樹大小、節點在前序中的位置（子樹在前序中是連續的一段）
+		final double[] widths;
+		final int[] subtreeSize;
+		final int[] preIndex;
+		// 每棵樹的壓縮比例、根的 y 與起始 X
+		final double[] spacingFactor;
+		final double[] rootY;
+		final double[] startX;
+
+		ForestLayout(RootedForest forest, int panelHeight, double[] x, double[] y, BooleanSupplier cancelled) {
+			int n = forest.parent.length;
+			int trees = forest.treeCount();
+			this.forest = forest;
+			this.panelHeight = panelHeight;
+			this.x = x;
+			this.y = y;
+			this.cancelled = cancelled;
+			this.widths = new double[n];
+			this.subtreeSize = new int[n];
+			this.preIndex = new int[n];
+			this.spacingFactor = new double[trees];
+			this.rootY = new double[trees];
+			this.startX = new double[trees];
+		}
 
-			// 9.9 方案A：後處理壓縮（將各子樹在不重疊下盡量靠攏）
-			Map<Node, Integer> depthMap = new HashMap<>();
-			computeDepths(root, tree, 0, depthMap);
-			horizontalCompaction(root, tree, layoutMap, depthMap, minGap);
+		/** 第 [fromTree, toTree) 棵樹的子樹寬度與大小、壓縮比例與垂直位置 */
+		void measure(int fromTree, int toTree) {
+			for (int t = fromTree; t < toTree; t++) {
+				checkCancelled(cancelled);
+				int from = forest.treeStart[t], to = forest.treeStart[t + 1];
+				for (int k = from; k < to; k++) {
+					preIndex[forest.preOrder[k]] = k;
+				}
 
-			// 9.10 更新下一棵樹的起始 X（以壓縮前 treeWidth 為準；若希望考慮壓縮後寬度，可在此改為 computeWidth）
-			currentX += treeWidth * spacingFactor;
-		}
+				// 3.1 計算每個節點的子樹寬度與子樹大小（後序）
+				for (int k = from; k < to; k++) {
+					int u = forest.postOrder[k];
+					subtreeSize[u] = 1;
+					if (forest.childCount(u) == 0) {
+						widths[u] = 50.0;
+						continue;
+					}
+					double totalWidth = 0.0;
+					for (int c = forest.childStart[u]; c < forest.childStart[u + 1]; c++) {
+						totalWidth += widths[forest.children[c]];
+						subtreeSize[u] += subtreeSize[forest.children[c]];
+					}
+					widths[u] = totalWidth;
+				}
 
-		// （可選）將所有 x 平移，讓最小 x >= 0
-		normalizeToNonNegative(layoutMap);
+				// 3.2 計算整棵樹的層數（只用來估算高度置中）
+				int maxDepth = forest.levels(t);
 
-		return layoutMap;
-	}
+				// 3.3 計算整棵樹的總寬度
+				double treeWidth = widths[forest.roots[t]];
 
-	/** BFS 標記從 root 出發的所有連通節點 */
-	private static void markComponent(Node root, Map<Node, List<Node>> graph, Set<Node> visited) {
-		Queue<Node> q = new LinkedList<>();
-		q.add(root);
-		visited.add(root);
-		while (!q.isEmpty()) {
-			Node u = q.poll();
-			for (Node v : graph.getOrDefault(u, Collections.emptyList())) {
-				if (!visited.contains(v)) {
-					visited.add(v);
-					q.add(v);
+				// 3.4 計算水平方向的壓縮比例 (spacingFactor)
+				spacingFactor[t] = 1.0;
+				if (treeWidth > 0 && treeWidth < AVAILABLE_WIDTH) {
+					spacingFactor[t] = AVAILABLE_WIDTH / treeWidth;
 				}
-			}
-		}
-	}
 
-	/** 計算節點深度（回傳最大深度） */
-	private static int calculateDepth(Node node, Map<Node, List<Node>> tree, Map<Node, Integer> depths) {
-		if (depths.containsKey(node))
-			return depths.get(node);
-		List<Node> children = tree.getOrDefault(node, new ArrayList<>());
-		if (children.isEmpty()) {
-			depths.put(node, 1);
-			return 1;
-		}
-		int maxChildDepth = 0;
-		for (Node child : children) {
-			maxChildDepth = Math.max(maxChildDepth, calculateDepth(child, tree, depths));
-		}
-		depths.put(node, 1 + maxChildDepth);
-		return 1 + maxChildDepth;
-	}
-
-	/** 自上而下標記深度（用於後處理壓縮的輪廓疊合） */
-	private static void computeDepths(Node node, Map<Node, List<Node>> tree, int depth, Map<Node, Integer> depthMap) {
-		depthMap.put(node, depth);
-		for (Node child : tree.getOrDefault(node, List.of())) {
-			computeDepths(child, tree, depth + 1, depthMap);
+				// 3.5 垂直置中
+				double finalY = START_Y;
+				double treeHeight = maxDepth * 50;
+				double availableHeight = panelHeight - START_Y - 20;
+				if (treeHeight < availableHeight) {
+					finalY += (availableHeight - treeHeight) / 2.0;
+				}
+				rootY[t] = finalY;
+			}
 		}
-	}
 
-	/** 分配節點座標（原有演算法） */
-	private static void assignPositions(Node node, Map<Node, List<Node>> tree, Map<Node, Point> layoutMap, double x, double y, Map<Node, Double> subtreeWidths, double spacingFactor) {
-		// 先處理葉節點：沒有子節點時直接放置在傳入的 x
-		List<Node> children = tree.getOrDefault(node, new ArrayList<>());
-		if (children.isEmpty()) {
-			layoutMap.put(node, new Point(x, y));
-			return;
-		}
+		/** 由左到右排開各棵樹：只需要每棵樹的寬度，是唯一依序執行的步驟 */
+		void pack() {
+			double currentX = START_X;
+			for (int t = 0; t < startX.length; t++) {
+				double treeWidth = widths[forest.roots[t]];
 
-		// 1) 先根據原本演算法，使用「父節點暫時的 x」來排好所有子節點
-		double childrenTotalWidth = children.stream().mapToDouble(c -> subtreeWidths.getOrDefault(c, 50.0)).sum();
-		double currentChildX = x - (childrenTotalWidth * spacingFactor / 2.0);
+				// 3.6 根據壓縮後寬度調整起始 X，使整棵樹居中
+				startX[t] = currentX + 450 + (AVAILABLE_WIDTH - treeWidth * spacingFactor[t]) / 2.0;
 
-		for (Node child : children) {
-			double childWidth = subtreeWidths.getOrDefault(child, 50.0) * spacingFactor;
-			double childX = currentChildX + (childWidth / 2.0);
-			assignPositions(child, tree, layoutMap, childX, y + 50, subtreeWidths, spacingFactor);
-			currentChildX += childWidth;
+				// 3.9 更新下一棵樹的起始 X（以壓縮前 treeWidth 為準；若希望考慮壓縮後寬度，可在此改為 computeWidth）
+				currentX += treeWidth * spacingFactor[t];
+			}
 		}
 
-		// 2) 所有子節點都有了 x：將「母節點的 x」設為「下一層相鄰子節點 x 的平均值」
-		double sum = 0.0;
-		for (Node child : children) {
-			sum += layoutMap.get(child).x;
+		/** 指定第 [fromTree, toTree) 棵樹的節點座標並壓縮 */
+		void place(int fromTree, int toTree) {
+			int largest = 0;
+			for (int t = fromTree; t < toTree; t++) {
+				largest = Math.max(largest, forest.treeStart[t + 1] - forest.treeStart[t]);
+			}
+			Compaction compaction = new Compaction(forest, x, MIN_GAP, largest, cancelled);
+			for (int t = fromTree; t < toTree; t++) {
+				checkCancelled(cancelled);
+				// 3.7 指定節點座標（原演算法）
+				assignPositions(forest, t, startX[t], rootY[t], widths, spacingFactor[t], x, y);
+
+				// 3.8 方案A：後處理壓縮（將各子樹在不重疊下盡量靠攏）
+				PipelineMetrics.StageEvent compactionStage = PipelineMetrics.begin(PipelineMetrics.Stage.COMPACTION);
+				compaction.run(t, preIndex, subtreeSize);
+				PipelineMetrics.end(compactionStage, forest.treeStart[t + 1] - forest.treeStart[t]);
+			}
 		}
-		double avgX = sum / children.size();
-		layoutMap.put(node, new Point(avgX, y));
 	}
 
-	/** 計算每個節點的子樹寬度（原有演算法） */
-	private static void calculateSubtreeWidths(Node node, Map<Node, List<Node>> tree, Map<Node, Double> widths) {
-		List<Node> children = tree.getOrDefault(node, new ArrayList<>());
-		if (children.isEmpty()) {
-			widths.put(node, 50.0);
-			return;
-		}
-		double totalWidth = 0.0;
-		for (Node child : children) {
-			calculateSubtreeWidths(child, tree, widths);
-			totalWidth += widths.getOrDefault(child, 50.0);
+	/** 處理第 [fromTree, toTree) 棵樹；節點數超過 NODES_PER_TASK 時依節點數分成兩半 fork/join（一棵樹不會被拆開） */
+	@SuppressWarnings("serial")
+	private static final class TreeTask extends RecursiveAction {
+		private final ForestLayout layout;
+		// false 為 measure，true 為 place
+		private final boolean place;
+		private final int fromTree, toTree;
+
+		TreeTask(ForestLayout layout, boolean place, int fromTree, int toTree) {
+			this.layout = layout;
+			this.place = place;
+			this.fromTree = fromTree;
+			this.toTree = toTree;
 		}
-		widths.put(node, totalWidth);
-	}
 
-	/** 由 MST 建立單向樹 (從 root 出發) */
-	private static Map<Node, List<Node>> buildTreeFromGraph(Node root, Map<Node, List<Node>> adjacencyList) {
-		Map<Node, List<Node>> tree = new HashMap<>();
-		Queue<Node> queue = new LinkedList<>();
-		Set<Node> visited = new HashSet<>();
-
-		queue.add(root);
-		visited.add(root);
-		tree.put(root, new ArrayList<>());
-
-		while (!queue.isEmpty()) {
-			Node parent = queue.poll();
-			for (Node child : adjacencyList.getOrDefault(parent, Collections.emptyList())) {
-				if (!visited.contains(child)) {
-					visited.add(child);
-					tree.computeIfAbsent(parent, k -> new ArrayList<>()).add(child);
-					tree.computeIfAbsent(child, k -> new ArrayList<>()); // 確保每個節點有條目
-					queue.add(child);
-				}
+		@Override
+		protected void compute() {
+			int[] treeStart = layout.forest.treeStart;
+			if (toTree - fromTree > 1 && treeStart[toTree] - treeStart[fromTree] > NODES_PER_TASK) {
+				// 第一棵起點超過節點中點的樹，限制在 (fromTree, toTree) 內
+				int half = (treeStart[fromTree] + treeStart[toTree]) >>> 1;
+				int mid = Arrays.binarySearch(treeStart, fromTree + 1, toTree, half);
+				mid = Math.max(fromTree + 1, Math.min(toTree - 1, mid >= 0 ? mid : -mid - 1));
+				invokeAll(new TreeTask(layout, place, fromTree, mid), new TreeTask(layout, place, mid, toTree));
+				return;
+			}
+			if (place) {
+				layout.place(fromTree, toTree);
+			} else {
+				layout.measure(fromTree, toTree);
 			}
 		}
-		return tree;
 	}
 
-	// -------------------------
-	// 方案A：後處理壓縮（核心）
-	// -------------------------
-
 	/**
-	 * 將整棵子樹（以 root 為根）做水平壓縮，使各子樹在不重疊前提下盡量靠攏。 採用「逐層掃描 + 子樹輪廓」的近似演算法。
+	 * 分配節點座標（原有演算法）：前序決定每個子節點暫時的 x（依子樹寬度由左到右排開）與 y， 再以後序將母節點的 x 設為其子節點 x 的平均值；葉節點維持暫時的 x。
 	 */
-	private static void horizontalCompaction(Node root, Map<Node, List<Node>> tree, Map<Node, Point> layout, Map<Node, Integer> depthMap, double minGap) {
-		// 依深度分組
-		Map<Integer, List<Node>> byDepth = groupNodesByDepth(root, tree, depthMap);
-		List<Integer> depths = new ArrayList<>(byDepth.keySet());
-		Collections.sort(depths);
-
-		// 逐層處理：將同層的子樹從左到右掃，碰到重疊就把右側子樹往左推
-		for (int d : depths) {
-			List<Node> level = new ArrayList<>(byDepth.get(d));
-			level.sort(Comparator.comparingDouble(n -> layout.get(n).x));
-
-			Contour acc = null; // 累積已放置之子樹的「右輪廓」
-
-			for (Node u : level) {
-				// 以 u 為根的子樹輪廓
-				Contour cu = buildContour(u, tree, layout, depthMap);
-				if (acc == null) {
-					acc = cu;
-					continue;
-				}
+	private static void assignPositions(RootedForest forest, int t, double rootX, double rootY, double[] widths, double spacingFactor, double[] x, double[] y) {
+		int from = forest.treeStart[t], to = forest.treeStart[t + 1];
+		x[forest.roots[t]] = rootX;
+		y[forest.roots[t]] = rootY;
+
+		// 1) 使用「父節點暫時的 x」來排好所有子節點
+		for (int k = from; k < to; k++) {
+			int u = forest.preOrder[k];
+			double childrenTotalWidth = 0.0;
+			for (int c = forest.childStart[u]; c < forest.childStart[u + 1]; c++) {
+				childrenTotalWidth += widths[forest.children[c]];
+			}
+			double currentChildX = x[u] - (childrenTotalWidth * spacingFactor / 2.0);
+			for (int c = forest.childStart[u]; c < forest.childStart[u + 1]; c++) {
+				int child = forest.children[c];
+				double childWidth = widths[child] * spacingFactor;
+				x[child] = currentChildX + (childWidth / 2.0);
+				y[child] = y[u] + 50;
+				currentChildX += childWidth;
+			}
+		}
 
-				// 計算為避免重疊所需的左移量（負值表示往左移）
-				double dx = overlapNeeded(acc, cu, minGap);
-				if (dx < 0) {
-					shiftSubtree(u, tree, layout, dx);
-					cu = cu.shifted(dx);
+		// 2) 所有子節點都有了 x：將「母節點的 x」設為「下一層相鄰子節點 x 的平均值」
+		for (int k = from; k < to; k++) {
+			int u = forest.postOrder[k];
+			int count = forest.childCount(u);
+			if (count > 0) {
+				double sum = 0.0;
+				for (int c = forest.childStart[u]; c < forest.childStart[u + 1]; c++) {
+					sum += x[forest.children[c]];
 				}
-				acc = Contour.merge(acc, cu);
+				x[u] = sum / count;
 			}
 		}
 	}
 
-	/** 將整棵子樹（u 為根）水平平移 dx */
-	private static void shiftSubtree(Node u, Map<Node, List<Node>> tree, Map<Node, Point> layout, double dx) {
-		Point p = layout.get(u);
-		layout.put(u, new Point(p.x + dx, p.y));
-		for (Node v : tree.getOrDefault(u, List.of())) {
-			shiftSubtree(v, tree, layout, dx);
+	/** 取消旗標成立時丟出 {@link CancellationException} */
+	private static void checkCancelled(BooleanSupplier cancelled) {
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException();
 		}
 	}
 
 	/** 將所有 x 平移，使最小 x >= 0（可選） */
-	private static void normalizeToNonNegative(Map<Node, Point> layout) {
+	private static void normalizeToNonNegative(double[] x) {
 		double minX = Double.POSITIVE_INFINITY;
-		for (Point p : layout.values())
-			minX = Math.min(minX, p.x);
+		for (double v : x)
+			minX = Math.min(minX, v);
 		if (minX < 0) {
 			double dx = -minX + 5; // 留 5px 邊距
-			for (Map.Entry<Node, Point> e : layout.entrySet()) {
-				Point p = e.getValue();
-				e.setValue(new Point(p.x + dx, p.y));
-			}
-		}
-	}
-
-	/** 以 root 為根，建立每個節點所屬深度的分組 */
-	private static Map<Integer, List<Node>> groupNodesByDepth(Node root, Map<Node, List<Node>> tree, Map<Node, Integer> depthMap) {
-		Map<Integer, List<Node>> byDepth = new HashMap<>();
-		Queue<Node> q = new LinkedList<>();
-		Set<Node> vis = new HashSet<>();
-		q.add(root);
-		vis.add(root);
-		while (!q.isEmpty()) {
-			Node u = q.poll();
-			int d = depthMap.getOrDefault(u, 0);
-			byDepth.computeIfAbsent(d, k -> new ArrayList<>()).add(u);
-			for (Node v : tree.getOrDefault(u, List.of())) {
-				if (!vis.contains(v)) {
-					vis.add(v);
-					q.add(v);
-				}
+			for (int v = 0; v < x.length; v++) {
+				x[v] += dx;
 			}
 		}
-		return byDepth;
-	}
-
-	/** 建立以 u 為根之子樹輪廓 */
-	private static Contour buildContour(Node u, Map<Node, List<Node>> tree, Map<Node, Point> layout, Map<Node, Integer> depthMap) {
-		Contour c = new Contour();
-		Deque<Node> stack = new ArrayDeque<>();
-		stack.push(u);
-		while (!stack.isEmpty()) {
-			Node x = stack.pop();
-			int d = depthMap.getOrDefault(x, 0);
-			c.include(d, layout.get(x).x);
-			List<Node> children = tree.getOrDefault(x, List.of());
-			for (int i = children.size() - 1; i >= 0; --i) {
-				stack.push(children.get(i));
-			}
-		}
-		return c;
-	}
-
-	/**
-	 * 計算使 cu 與 acc 不重疊所需的位移量（負值 = 往左移）。 overlap = max_over_common_depth (acc.right + minGap - cu.left) 若 overlap <= 0 → 無需移動，回傳 0；否則回傳 -overlap。
-	 */
-	private static double overlapNeeded(Contour acc, Contour cu, double minGap) {
-		double need = Double.NEGATIVE_INFINITY;
-		Set<Integer> depths = new HashSet<>(acc.right.keySet());
-		depths.retainAll(cu.left.keySet());
-		if (depths.isEmpty())
-			return 0.0;
-		for (int d : depths) {
-			double r = acc.right.getOrDefault(d, Double.NEGATIVE_INFINITY);
-			double l = cu.left.getOrDefault(d, Double.POSITIVE_INFINITY);
-			need = Math.max(need, (r + minGap) - l);
-		}
-		if (need <= 0)
-			return 0.0; // 不需要移動
-		return -need; // 往左移
 	}
 
 	// （工具）計算目前佈局寬度（可用來比較不同策略的結果）
@@ -356,51 +332,110 @@ public class TreeLayoutCalculator {
 	}
 
 	// -------------------------
-	// 輪廓（contour）輔助結構與運算
+	// 方案A：後處理壓縮（核心）
 	// -------------------------
 
 	/**
-	 * 子樹輪廓：紀錄各深度的最左/最右 x。 使用絕對深度（與 depthMap 一致），以便跨子樹比較。
+	 * 將整棵樹做水平壓縮，使各子樹在不重疊前提下盡量靠攏。 採用「逐層掃描 + 子樹輪廓」的近似演算法：
+	 * 同層的節點依 x 由左到右掃，累積已放置之子樹在各深度的最右 x（右輪廓），碰到重疊就把右側子樹往左推。
+	 *
+	 * 子樹在前序中是連續的一段，因此子樹輪廓與平移都是對一段陣列的迴圈；只有一個節點的層不需要比較，直接略過。
 	 */
-	private static class Contour {
-		final Map<Integer, Double> left = new HashMap<>();
-		final Map<Integer, Double> right = new HashMap<>();
-
-		void include(int depth, double x) {
-			left.put(depth, Math.min(left.getOrDefault(depth, x), x));
-			right.put(depth, Math.max(right.getOrDefault(depth, x), x));
+	private static final class Compaction {
+		final RootedForest forest;
+		final double[] x;
+		final double minGap;
+		/** 很深的樹只有一棵時，每一層開始前也檢查取消 */
+		final BooleanSupplier cancelled;
+		/** 累積的右輪廓（以絕對深度索引）；沒有節點的深度為負無限大 */
+		final double[] accRight;
+		/** 依深度分組後的節點（前序即為同層由左到右、與 BFS 相同的順序） */
+		final int[] levelNodes;
+		final int[] levelStart;
+
+		/** capacity 為之後要壓縮的樹中最多的節點數（輪廓與分層的工作陣列只需要這麼大） */
+		Compaction(RootedForest forest, double[] x, double minGap, int capacity, BooleanSupplier cancelled) {
+			this.forest = forest;
+			this.x = x;
+			this.minGap = minGap;
+			this.cancelled = cancelled;
+			this.accRight = new double[capacity];
+			this.levelNodes = new int[capacity];
+			this.levelStart = new int[capacity + 1];
+			Arrays.fill(accRight, Double.NEGATIVE_INFINITY);
 		}
 
-		Contour shifted(double dx) {
-			Contour c = new Contour();
-			for (Map.Entry<Integer, Double> e : left.entrySet())
-				c.left.put(e.getKey(), e.getValue() + dx);
-			for (Map.Entry<Integer, Double> e : right.entrySet())
-				c.right.put(e.getKey(), e.getValue() + dx);
-			return c;
-		}
+		void run(int t, int[] preIndex, int[] subtreeSize) {
+			int from = forest.treeStart[t], to = forest.treeStart[t + 1];
+			int levels = forest.levels(t);
 
-		static Contour merge(Contour a, Contour b) {
-			Contour c = new Contour();
-			// 合併左界
-			Set<Integer> depths = new HashSet<>();
-			depths.addAll(a.left.keySet());
-			depths.addAll(b.left.keySet());
-			for (int d : depths) {
-				double la = a.left.getOrDefault(d, Double.POSITIVE_INFINITY);
-				double lb = b.left.getOrDefault(d, Double.POSITIVE_INFINITY);
-				c.left.put(d, Math.min(la, lb));
+			// 依深度分組（計數排序，保留前序的相對順序）
+			Arrays.fill(levelStart, 0, levels + 1, 0);
+			for (int k = from; k < to; k++) {
+				levelStart[forest.depth[forest.preOrder[k]] + 1]++;
+			}
+			for (int d = 0; d < levels; d++) {
+				levelStart[d + 1] += levelStart[d];
 			}
-			// 合併右界
-			depths.clear();
-			depths.addAll(a.right.keySet());
-			depths.addAll(b.right.keySet());
-			for (int d : depths) {
-				double ra = a.right.getOrDefault(d, Double.NEGATIVE_INFINITY);
-				double rb = b.right.getOrDefault(d, Double.NEGATIVE_INFINITY);
-				c.right.put(d, Math.max(ra, rb));
+			int[] fill = Arrays.copyOf(levelStart, levels);
+			for (int k = from; k < to; k++) {
+				int v = forest.preOrder[k];
+				levelNodes[fill[forest.depth[v]]++] = v;
+			}
+
+			// 逐層處理；merges / shifts 為併入輪廓與實際左移的子樹數
+			long merges = 0, shifts = 0;
+			for (int d = 0; d < levels; d++) {
+				checkCancelled(cancelled);
+				int lo = levelStart[d], hi = levelStart[d + 1];
+				if (hi - lo < 2) {
+					continue;
+				}
+				sortLevelByX(lo, hi);
+
+				int accDepth = d - 1; // 累積輪廓目前涵蓋的最深深度
+				for (int i = lo; i < hi; i++) {
+					int u = levelNodes[i];
+					int start = preIndex[u], end = start + subtreeSize[u];
+
+					// 計算為避免重疊所需的左移量：共同深度上 max(acc.right + minGap - cu.left)
+					double need = Double.NEGATIVE_INFINITY;
+					for (int k = start; k < end; k++) {
+						int v = forest.preOrder[k];
+						if (forest.depth[v] <= accDepth) {
+							need = Math.max(need, (accRight[forest.depth[v]] + minGap) - x[v]);
+						}
+					}
+
+					// 往左移後併入累積輪廓
+					double dx = need > 0 ? -need : 0.0;
+					merges++;
+					if (dx != 0) {
+						shifts++;
+					}
+					for (int k = start; k < end; k++) {
+						int v = forest.preOrder[k];
+						x[v] += dx;
+						accRight[forest.depth[v]] = Math.max(accRight[forest.depth[v]], x[v]);
+						accDepth = Math.max(accDepth, forest.depth[v]);
+					}
+				}
+				Arrays.fill(accRight, d, accDepth + 1, Double.NEGATIVE_INFINITY);
+			}
+			PipelineMetrics.add(PipelineMetrics.Counter.CONTOUR_MERGES, merges);
+			PipelineMetrics.add(PipelineMetrics.Counter.LAYOUT_SHIFTS, shifts);
+		}
+
+		/** 將 levelNodes[lo, hi) 依目前的 x 做穩定排序 */
+		private void sortLevelByX(int lo, int hi) {
+			int len = hi - lo;
+			long[] keys = new long[len];
+			int[] order = Arrays.copyOfRange(levelNodes, lo, hi);
+			for (int k = 0; k < len; k++) {
+				keys[k] = EdgeList.sortableBits(x[order[k]]);
 			}
-			return c;
+			EdgeList.radixSort(keys, order, len);
+			System.arraycopy(order, 0, levelNodes, lo, len);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+// 19. 樹狀佈局的快取模型：一次算好的座標（以點集合編號索引）與繪圖用的空間索引，繪圖時只讀取；建立後不再變動，可在執行緒間直接交換
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+final class TreeLayoutModel {
+	final PointSet points;
+	final List<Edge> edges;
+	final Node root;
+	final int panelHeight;
+	final boolean buchheim;
+
+	final RootedForest forest;
+	final double[] x;
+	final double[] y;
+
+	/** 以節點 v 為根之子樹的外接矩形（子樹最上方必為 v 本身，因此只需 x 範圍與最大 y） */
+	final double[] subtreeMinX, subtreeMaxX, subtreeMaxY;
+	/** 元素 v = 節點 v 加上它與父節點之間的邊 */
+	final SceneGrid grid;
+	/** 所有節點座標的範圍 */
+	final double maxX, maxY;
+
+	private TreeLayoutModel(PointSet points, List<Edge> edges, Node root, int panelHeight, boolean buchheim, RootedForest forest, double[] x, double[] y) {
+		this.points = points;
+		this.edges = edges;
+		this.root = root;
+		this.panelHeight = panelHeight;
+		this.buchheim = buchheim;
+		this.forest = forest;
+		this.x = x;
+		this.y = y;
+
+		int n = x.length;
+		this.subtreeMinX = x.clone();
+		this.subtreeMaxX = x.clone();
+		this.subtreeMaxY = y.clone();
+		for (int k = 0; k < n; k++) {
+			int v = forest.postOrder[k];
+			int p = forest.parent[v];
+			if (p >= 0) {
+				subtreeMinX[p] = Math.min(subtreeMinX[p], subtreeMinX[v]);
+				subtreeMaxX[p] = Math.max(subtreeMaxX[p], subtreeMaxX[v]);
+				subtreeMaxY[p] = Math.max(subtreeMaxY[p], subtreeMaxY[v]);
+			}
+		}
+
+		double[] minXs = new double[n], minYs = new double[n], maxXs = new double[n], maxYs = new double[n];
+		double mx = 0, my = 0;
+		for (int v = 0; v < n; v++) {
+			int p = forest.parent[v];
+			double px = p >= 0 ? x[p] : x[v], py = p >= 0 ? y[p] : y[v];
+			minXs[v] = Math.min(x[v], px);
+			maxXs[v] = Math.max(x[v], px);
+			minYs[v] = Math.min(y[v], py);
+			maxYs[v] = Math.max(y[v], py);
+			mx = Math.max(mx, x[v]);
+			my = Math.max(my, y[v]);
+		}
+		this.grid = new SceneGrid(minXs, minYs, maxXs, maxYs, n);
+		this.maxX = mx;
+		this.maxY = my;
+	}
+
+	/**
+	 * 計算佈局並建立空間索引（耗時，應在 EDT 以外呼叫）。
+	 *
+	 * @param buchheim true 時使用 {@link BuchheimTreeLayout}，否則使用 {@link TreeLayoutCalculator}
+	 */
+	static TreeLayoutModel compute(PointSet points, List<Edge> edges, Node root, int panelHeight, boolean buchheim) {
+		return compute(points, edges, root, panelHeight, buchheim, () -> false);
+	}
+
+	/**
+	 * 同 {@link #compute(PointSet, List, Node, int, boolean)}，但 cancelled 成立後在下一棵樹（或下一層壓縮）開始前丟出 {@link CancellationException}，
+	 * 不再佔用執行緒與工作陣列。
+	 *
+	 * @param cancelled 可由任何執行緒讀取的取消旗標
+	 */
+	static TreeLayoutModel compute(PointSet points, List<Edge> edges, Node root, int panelHeight, boolean buchheim, BooleanSupplier cancelled) {
+		RootedForest forest = RootedForest.build(points, edges, root);
+		double[] x = new double[points.size];
+		double[] y = new double[points.size];
+		if (buchheim) {
+			BuchheimTreeLayout.layout(forest, panelHeight, x, y, cancelled);
+		} else {
+			// 多個元件時各棵樹平行佈局，結果與單執行緒相同
+			TreeLayoutCalculator.layout(forest, panelHeight, x, y, 0, cancelled);
+		}
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException();
+		}
+		return new TreeLayoutModel(points, edges, root, panelHeight, buchheim, forest, x, y);
+	}
+
+	/** 此模型是否就是以這些輸入計算的結果（邊集合以參考比較） */
+	boolean matches(List<Edge> edges, Node root, int panelHeight, boolean buchheim) {
+		return this.edges == edges && this.root == root && this.panelHeight == panelHeight && this.buchheim == buchheim;
+	}
+}
\ No newline at end of file
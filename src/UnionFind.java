@@ -2,32 +2,25 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-// 7. Union-Find 資料結構 (用於 Kruskal)
+// 7. Union-Find 資料結構 (用於 Kruskal)；以節點物件為鍵的介面，內部委派給以陣列實作的 IntUnionFind
 class UnionFind {
-	private final Map<Node, Node> parent = new HashMap<>();
+	private final Map<Node, Integer> index = new HashMap<>();
+	private final Node[] nodes;
+	private final IntUnionFind sets;
 
 	public UnionFind(List<Node> nodes) {
-		for (Node node : nodes) {
-			parent.put(node, node);
+		this.nodes = nodes.toArray(new Node[0]);
+		for (int i = 0; i < this.nodes.length; i++) {
+			index.put(this.nodes[i], i);
 		}
+		this.sets = new IntUnionFind(this.nodes.length);
 	}
 
 	public Node find(Node i) {
-		if (parent.get(i) == i) {
-			return i;
-		}
-		Node root = find(parent.get(i));
-		parent.put(i, root);
-		return root;
+		return nodes[sets.find(index.get(i))];
 	}
 
 	public boolean union(Node i, Node j) {
-		Node rootI = find(i);
-		Node rootJ = find(j);
-		if (!rootI.equals(rootJ)) {
-			parent.put(rootI, rootJ);
-			return true;
-		}
-		return false;
+		return sets.union(index.get(i), index.get(j));
 	}
 }
\ No newline at end of file
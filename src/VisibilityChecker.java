@@ -1,16 +1,108 @@
 // 4. 可見性檢查器
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 public class VisibilityChecker {
-	private final List<LineSegment> obstacles;
+	/** {@link #orthogonalRoute} 的結果：兩段路徑都被擋住 */
+	public static final int ROUTE_BLOCKED = -1;
+	/** 先水平再垂直，轉角在 (x2, y1) */
+	public static final int ROUTE_HORIZONTAL_FIRST = 0;
+	/** 先垂直再水平，轉角在 (x1, y2) */
+	public static final int ROUTE_VERTICAL_FIRST = 1;
+
+	// 以打包座標建立時為 null，需要時才建立線段物件
+	private List<LineSegment> obstacles;
+	// 障礙物的均勻網格索引，建構時建立一次，之後每次查詢只檢查路徑經過的格子
+	private final ObstacleGrid grid;
+	// 取消後每次查詢都丟出 CancellationException，使用此檢查器的 MST 引擎在下一次可見性檢查時就停止
+	private volatile boolean cancelled;
 
 	public VisibilityChecker(List<LineSegment> obstacles) {
 		this.obstacles = obstacles;
+		this.grid = new ObstacleGrid(obstacles);
+	}
+
+	/**
+	 * 直接以打包的障礙物座標建立（例如從二進位檔載入），不建立任何線段物件。
+	 *
+	 * @param segments 每條線段依序 4 個值：x1, y1, x2, y2；之後不可再修改
+	 * @param count    線段數
+	 */
+	public VisibilityChecker(double[] segments, int count) {
+		this.grid = new ObstacleGrid(segments, count);
+	}
+
+	public synchronized List<LineSegment> getObstacles() {
+		if (obstacles == null) {
+			double[] segments = grid.segments();
+			List<LineSegment> list = new ArrayList<>(grid.size());
+			for (int o = 0; o < 4 * grid.size(); o += 4) {
+				list.add(new LineSegment(new Point(segments[o], segments[o + 1]), new Point(segments[o + 2], segments[o + 3])));
+			}
+			obstacles = list;
+		}
+		return obstacles;
+	}
+
+	/** 障礙物數 */
+	int obstacleCount() {
+		return grid.size();
+	}
+
+	/** 第 k 條障礙物的座標（x1, y1, x2, y2）從 obstacleCoordinates()[4 * k] 開始；回傳的是內部陣列，不可修改 */
+	double[] obstacleCoordinates() {
+		return grid.segments();
+	}
+
+	/** 取消使用此檢查器的計算：之後的每次查詢（包含其他執行緒中進行中的引擎）都丟出 {@link CancellationException}，無法恢復 */
+	void cancel() {
+		cancelled = true;
+	}
+
+	private void checkCancelled() {
+		if (cancelled) {
+			throw new CancellationException();
+		}
 	}
 
 	public boolean isVisible(Point start, Point end) {
-		LineSegment path = new LineSegment(start, end);
-		return obstacles.stream().noneMatch(obstacle -> GeometryUtils.doIntersect(path, obstacle));
+		checkCancelled();
+		return !grid.intersectsAny(start.x, start.y, end.x, end.y);
+	}
+
+	public boolean isVisible(double x1, double y1, double x2, double y2) {
+		checkCancelled();
+		return !grid.intersectsAny(x1, y1, x2, y2);
+	}
+
+	/** 點集合中編號 i 與 j 的兩點是否互相可見 */
+	public boolean isVisible(PointSet points, int i, int j) {
+		checkCancelled();
+		return !grid.intersectsAny(points.xs[i], points.ys[i], points.xs[j], points.ys[j]);
+	}
+
+	/** 兩點間的直角（L 形）路徑：優先檢查先水平再垂直，被擋住時再檢查先垂直再水平；回傳 ROUTE_* 常數 */
+	public int orthogonalRoute(double x1, double y1, double x2, double y2) {
+		checkCancelled();
+		// 最多四段線段，測試數累計後只發布一次
+		long first = grid.scan(x1, y1, x2, y1);
+		long second = first >= 0 ? grid.scan(x2, y1, x2, y2) : 0;
+		long tested = ObstacleGrid.tested(first) + ObstacleGrid.tested(second);
+		int route = ROUTE_HORIZONTAL_FIRST;
+		if (first < 0 || second < 0) {
+			first = grid.scan(x1, y1, x1, y2);
+			second = first >= 0 ? grid.scan(x1, y2, x2, y2) : 0;
+			tested += ObstacleGrid.tested(first) + ObstacleGrid.tested(second);
+			route = first >= 0 && second >= 0 ? ROUTE_VERTICAL_FIRST : ROUTE_BLOCKED;
+		}
+		PipelineMetrics.addQuery(tested);
+		return route;
+	}
+
+	/** 點集合中編號 i 與 j 的兩點之間是否有不被擋住的直角路徑 */
+	public boolean isOrthogonallyVisible(PointSet points, int i, int j) {
+		return orthogonalRoute(points.xs[i], points.ys[i], points.xs[j], points.ys[j]) != ROUTE_BLOCKED;
 	}
 }
\ No newline at end of file
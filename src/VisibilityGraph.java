@@ -0,0 +1,229 @@
+// 34. 可見性圖：所有可見點對 (i < j) 以點的編號存放，不含權重；稠密時為上三角位元矩陣（每列從新的 64 位元字開始），稀疏時為壓縮列 (CSR) 鄰接表
+//     建好之後換用不同的權重函數只需要重新排序與合併（KruskalMST.findMSTEdges(VisibilityGraph, Weight)），不必再做任何可見性檢查
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+final class VisibilityGraph {
+	/** 點對的權重；權重相同的點對依 (i, j) 順序 */
+	@FunctionalInterface
+	interface Weight {
+		/** 歐氏距離的平方，即 {@link PointSet#weight(int, int)}，其他 MST 引擎使用的權重 */
+		Weight SQUARED_EUCLIDEAN = PointSet::weight;
+		/** 歐氏距離；與平方的順序相同，因此 MST 相同，只有邊的權重不同 */
+		Weight EUCLIDEAN = (points, i, j) -> Math.sqrt(points.weight(i, j));
+		/** 直角 (L1) 距離；可見性仍是直線連線的可見性（L 形連線見 {@link RectilinearMST}） */
+		Weight MANHATTAN = (points, i, j) -> Math.abs(points.xs[i] - points.xs[j]) + Math.abs(points.ys[i] - points.ys[j]);
+
+		double weight(PointSet points, int i, int j);
+	}
+
+	/** 可見點對的比例超過 1 / BITS_PER_PAIR 時位元矩陣比鄰接表（每個點對一個 int）小 */
+	private static final int BITS_PER_PAIR = 32;
+	/** 平行建立時每個執行緒平均分到的工作塊數 */
+	private static final int CHUNKS_PER_THREAD = 8;
+
+	final PointSet points;
+	final int size;
+	private final long pairCount;
+	// 位元矩陣：點對 (i, j) 是 words[rowWord[i] + (j - i - 1) / 64] 的第 (j - i - 1) % 64 個位元；稀疏時為 null
+	private final long[] words;
+	private final int[] rowWord;
+	// 鄰接表：第 i 列可見的 j 依遞增順序存於 adjacency[rowStart[i] .. rowStart[i + 1])；稠密時為 null
+	private final int[] adjacency;
+	private final int[] rowStart;
+
+	private VisibilityGraph(PointSet points, long pairCount, long[] words, int[] rowWord, int[] adjacency, int[] rowStart) {
+		this.points = points;
+		this.size = points.size;
+		this.pairCount = pairCount;
+		this.words = words;
+		this.rowWord = rowWord;
+		this.adjacency = adjacency;
+		this.rowStart = rowStart;
+	}
+
+	/**
+	 * 檢查所有點對的可見性。 先寫入位元矩陣（每列從新的字開始，因此不同列可以同時寫入），可見點對夠少時再轉成鄰接表。
+	 *
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 * @throws IllegalArgumentException 點數太多，位元矩陣超過單一陣列的上限
+	 */
+	static VisibilityGraph build(PointSet points, VisibilityChecker checker, int parallelism) {
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		int n = points.size;
+		int[] rowWord = new int[n + 1];
+		long total = 0;
+		for (int i = 0; i < n; i++) {
+			rowWord[i] = (int) total;
+			total += (n - i - 1 + 63) >>> 6;
+			if (total > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("點數太多，無法建立可見性位元矩陣: " + n);
+			}
+		}
+		rowWord[n] = (int) total;
+		long[] words = new long[(int) total];
+
+		PipelineMetrics.StageEvent stage = PipelineMetrics.begin(PipelineMetrics.Stage.VISIBILITY);
+		long pairCount;
+		if (threads > 1 && n > 1) {
+			int[] bounds = splitRows(n, threads * CHUNKS_PER_THREAD);
+			long[] counts = new long[bounds.length - 1];
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new RowTask(points, checker, words, rowWord, bounds, counts, 0, counts.length));
+			} finally {
+				pool.shutdown();
+			}
+			pairCount = 0;
+			for (long count : counts) {
+				pairCount += count;
+			}
+		} else {
+			pairCount = fillRows(points, checker, words, rowWord, 0, n);
+		}
+		PipelineMetrics.end(stage, pairCount);
+
+		long possible = (long) n * (n - 1) / 2;
+		if (pairCount * BITS_PER_PAIR >= possible) {
+			return new VisibilityGraph(points, pairCount, words, rowWord, null, null);
+		}
+		// 稀疏：轉成鄰接表（點對數小於 possible / 32，必定放得進 int[]）
+		int[] rowStart = new int[n + 1];
+		int[] adjacency = new int[(int) pairCount];
+		int p = 0;
+		for (int i = 0; i < n; i++) {
+			rowStart[i] = p;
+			for (int w = rowWord[i]; w < rowWord[i + 1]; w++) {
+				int base = i + 1 + ((w - rowWord[i]) << 6);
+				for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+					adjacency[p++] = base + Long.numberOfTrailingZeros(bits);
+				}
+			}
+		}
+		rowStart[n] = p;
+		return new VisibilityGraph(points, pairCount, null, null, adjacency, rowStart);
+	}
+
+	/** 檢查第 [from, to) 列的點對並寫入位元矩陣，回傳可見的點對數 */
+	private static long fillRows(PointSet points, VisibilityChecker checker, long[] words, int[] rowWord, int from, int to) {
+		int n = points.size;
+		long count = 0;
+		for (int i = from; i < to; i++) {
+			int base = rowWord[i];
+			for (int j = i + 1; j < n; j++) {
+				if (checker.isVisible(points, i, j)) {
+					int bit = j - i - 1;
+					words[base + (bit >>> 6)] |= 1L << bit;
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/** 將列 0..n-1 切成約 chunkCount 塊，使每塊的點對數量大致相同（第 i 列有 n - 1 - i 個點對） */
+	private static int[] splitRows(int n, int chunkCount) {
+		long perChunk = Math.max(1, ((long) n * (n - 1) / 2 + chunkCount - 1) / chunkCount);
+		int[] bounds = new int[Math.min(n, chunkCount) + 2];
+		int count = 1;
+		long acc = 0;
+		for (int i = 0; i < n; i++) {
+			acc += n - 1 - i;
+			if (acc >= perChunk && i + 1 < n && count < bounds.length - 1) {
+				bounds[count++] = i + 1;
+				acc = 0;
+			}
+		}
+		bounds[count++] = n;
+		return Arrays.copyOf(bounds, count);
+	}
+
+	/** 可見點對數 */
+	long pairCount() {
+		return pairCount;
+	}
+
+	/** 是否以位元矩陣存放 */
+	boolean isDense() {
+		return words != null;
+	}
+
+	/** 點 i 與點 j 之間是否可見（順序不拘；i == j 時為 false） */
+	boolean isVisible(int i, int j) {
+		if (i == j) {
+			return false;
+		}
+		int lo = Math.min(i, j), hi = Math.max(i, j);
+		if (words != null) {
+			int bit = hi - lo - 1;
+			return (words[rowWord[lo] + (bit >>> 6)] & (1L << bit)) != 0;
+		}
+		return Arrays.binarySearch(adjacency, rowStart[lo], rowStart[lo + 1], hi) >= 0;
+	}
+
+	/**
+	 * 所有可見點對依 (i, j) 順序、以 weight 計算權重的邊表（尚未排序）
+	 *
+	 * @throws IllegalStateException 點對數超過邊表的上限
+	 */
+	EdgeList edges(Weight weight) {
+		if (pairCount > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("可見點對太多，無法放入邊表: " + pairCount);
+		}
+		EdgeList edges = new EdgeList(points, (int) pairCount);
+		if (words != null) {
+			for (int i = 0; i < size; i++) {
+				for (int w = rowWord[i]; w < rowWord[i + 1]; w++) {
+					int base = i + 1 + ((w - rowWord[i]) << 6);
+					for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+						int j = base + Long.numberOfTrailingZeros(bits);
+						edges.add(i, j, weight.weight(points, i, j));
+					}
+				}
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+					int j = adjacency[p];
+					edges.add(i, j, weight.weight(points, i, j));
+				}
+			}
+		}
+		return edges;
+	}
+
+	/** 平行處理 [from, to) 範圍內的工作塊；範圍超過一塊時分成兩半 fork/join */
+	@SuppressWarnings("serial")
+	private static final class RowTask extends RecursiveAction {
+		private final PointSet points;
+		private final VisibilityChecker checker;
+		private final long[] words;
+		private final int[] rowWord;
+		private final int[] bounds;
+		private final long[] counts;
+		private final int from, to;
+
+		RowTask(PointSet points, VisibilityChecker checker, long[] words, int[] rowWord, int[] bounds, long[] counts, int from, int to) {
+			this.points = points;
+			this.checker = checker;
+			this.words = words;
+			this.rowWord = rowWord;
+			this.bounds = bounds;
+			this.counts = counts;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new RowTask(points, checker, words, rowWord, bounds, counts, from, mid), new RowTask(points, checker, words, rowWord, bounds, counts, mid, to));
+			} else if (to > from) {
+				counts[from] = fillRows(points, checker, words, rowWord, bounds[from], bounds[from + 1]);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,344 @@
+// 33. 可見性圖快取：以點集合與障礙物內容的 SHA-256 為鍵，保存所有可見點對，命中時不做任何可見性檢查，直接進入排序與合併
+//     兩層：記憶體中保留最近使用的壓縮資料（依位元組數上限），磁碟上每個鍵一個檔案，總大小超過上限時依最後使用時間刪除最舊的檔案
+//
+// 檔案格式（little-endian）：
+//   0  int      MAGIC（"OTGV"）
+//   4  int      VERSION
+//   8  int      點數 n
+//  12  long     可見點對數 e
+//  20  byte[32] 鍵（SHA-256），讀取時核對
+// 之後為 n 列，第 i 列為 varint 點對數，再依序為各點對 (i, j) 的 j 與前一個 j（第一個為 i）之差的 varint；
+// 點對依 (i, j) 順序存放，權重不存，讀取時由座標重新計算（與 KruskalMST.buildEdgeList 的結果完全相同）
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class VisibilityGraphCache {
+	static final int MAGIC = 'O' | 'T' << 8 | 'G' << 16 | 'V' << 24;
+	static final int VERSION = 1;
+	/** 快取檔的副檔名 */
+	static final String SUFFIX = ".vis";
+	private static final int HEADER_BYTES = 52;
+	private static final int KEY_BYTES = 32;
+	/** 壓縮後超過此大小（單一 byte[] 的上限）的圖不快取 */
+	private static final long MAX_ENTRY_BYTES = Integer.MAX_VALUE - 8;
+
+	private final Path directory;
+	private final long maxDiskBytes;
+	private final long maxMemoryBytes;
+
+	// 記憶體層：鍵（十六進位）→ 壓縮資料，依存取順序排列，最舊的在前
+	private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+	private long memoryBytes;
+	private long memoryHits, diskHits, misses;
+
+	/**
+	 * @param directory      快取檔所在的目錄（不存在時建立）；為 null 時只使用記憶體層
+	 * @param maxDiskBytes   磁碟上快取檔的總大小上限
+	 * @param maxMemoryBytes 記憶體層保存的壓縮資料總大小上限（0 表示不使用記憶體層）
+	 */
+	VisibilityGraphCache(Path directory, long maxDiskBytes, long maxMemoryBytes) throws IOException {
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		this.directory = directory;
+		this.maxDiskBytes = maxDiskBytes;
+		this.maxMemoryBytes = maxMemoryBytes;
+	}
+
+	/**
+	 * 所有可見點對 (i, j)（i < j），依列舉順序存放且尚未排序，與 {@link KruskalMST#buildEdgeList(PointSet, VisibilityChecker)} 的結果相同。
+	 * 依序查詢記憶體層與磁碟；都沒有時計算並存入兩層。 磁碟讀寫失敗時視為未命中，不影響結果。
+	 */
+	EdgeList visibleEdges(PointSet points, VisibilityChecker checker) {
+		byte[] key = key(points, checker);
+		String name = hex(key);
+
+		byte[] data;
+		synchronized (this) {
+			data = memory.get(name);
+			if (data != null) {
+				memoryHits++;
+			}
+		}
+		if (data != null) {
+			return decode(data, points);
+		}
+
+		data = readFile(name, key);
+		if (data != null) {
+			EdgeList edges = decode(data, points);
+			if (edges != null) {
+				synchronized (this) {
+					diskHits++;
+				}
+				remember(name, data);
+				return edges;
+			}
+			// 內容損毀：重新計算後覆寫
+		}
+
+		synchronized (this) {
+			misses++;
+		}
+		EdgeList edges = KruskalMST.buildEdgeList(points, checker);
+		data = encode(edges, key);
+		if (data != null) {
+			remember(name, data);
+			writeFile(name, data);
+		}
+		return edges;
+	}
+
+	/** 記憶體層命中、磁碟命中與未命中的次數 */
+	synchronized String statistics() {
+		return "可見性圖快取：記憶體命中 " + memoryHits + " 次，磁碟命中 " + diskHits + " 次，未命中 " + misses + " 次";
+	}
+
+	/**
+	 * 鍵：相交判定的版本與容許誤差、點數、障礙物數與所有座標的位元表示的 SHA-256；點的順序決定編號，因此也在鍵中。
+	 * 判定方式或誤差改變時，舊的快取檔不會再被讀到（最終依最後使用時間刪除）。
+	 */
+	static byte[] key(PointSet points, VisibilityChecker checker) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("JDK 必須提供 SHA-256", e);
+		}
+		int n = points.size, m = checker.obstacleCount();
+		double[] segments = checker.obstacleCoordinates();
+		ByteBuffer buffer = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(GeometryUtils.SEMANTICS_VERSION).putDouble(GeometryUtils.ORIENTATION_EPSILON).putDouble(GeometryUtils.BOX_REJECT_EPSILON);
+		buffer.putInt(n).putInt(m);
+		for (int i = 0; i < n; i++) {
+			buffer = flushIfFull(digest, buffer);
+			buffer.putDouble(points.xs[i]).putDouble(points.ys[i]);
+		}
+		for (int k = 0; k < 4 * m; k++) {
+			buffer = flushIfFull(digest, buffer);
+			buffer.putDouble(segments[k]);
+		}
+		buffer.flip();
+		digest.update(buffer);
+		return digest.digest();
+	}
+
+	private static ByteBuffer flushIfFull(MessageDigest digest, ByteBuffer buffer) {
+		if (buffer.remaining() < 16) {
+			buffer.flip();
+			digest.update(buffer);
+			buffer.clear();
+		}
+		return buffer;
+	}
+
+	/** 壓縮為檔案格式；超過 MAX_ENTRY_BYTES 時回傳 null */
+	static byte[] encode(EdgeList edges, byte[] key) {
+		int n = edges.vertexCount;
+		// 先計算長度，再一次配置
+		long length = HEADER_BYTES;
+		for (int e = 0, i = 0; i < n; i++) {
+			int start = e, previous = i;
+			for (; e < edges.size && edges.src[e] == i; e++) {
+				length += varintLength(edges.dst[e] - previous);
+				previous = edges.dst[e];
+			}
+			length += varintLength(e - start);
+		}
+		if (length > MAX_ENTRY_BYTES) {
+			return null;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putLong(edges.size).put(key);
+		for (int e = 0, i = 0; i < n; i++) {
+			int end = e;
+			while (end < edges.size && edges.src[end] == i) {
+				end++;
+			}
+			putVarint(buffer, end - e);
+			for (int previous = i; e < end; e++) {
+				putVarint(buffer, edges.dst[e] - previous);
+				previous = edges.dst[e];
+			}
+		}
+		return buffer.array();
+	}
+
+	/** 解壓為邊表；內容與點集合不符或損毀時回傳 null */
+	static EdgeList decode(byte[] data, PointSet points) {
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		int n = points.size;
+		if (data.length < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != n) {
+			return null;
+		}
+		long pairs = buffer.getLong();
+		if (pairs < 0 || pairs > Integer.MAX_VALUE - 8 || pairs > (long) n * (n - 1) / 2) {
+			return null;
+		}
+		buffer.position(HEADER_BYTES);
+		EdgeList edges = new EdgeList(points, (int) pairs);
+		try {
+			for (int i = 0; i < n; i++) {
+				int count = getVarint(buffer);
+				for (int j = i; count > 0; count--) {
+					int delta = getVarint(buffer);
+					if (delta <= 0 || delta >= n - j || edges.size == pairs) {
+						return null;
+					}
+					j += delta;
+					edges.add(i, j, points.weight(i, j));
+				}
+			}
+		} catch (RuntimeException e) {
+			// varint 讀到資料尾端之外
+			return null;
+		}
+		return edges.size == pairs && !buffer.hasRemaining() ? edges : null;
+	}
+
+	private static int varintLength(int value) {
+		int length = 1;
+		while ((value >>>= 7) != 0) {
+			length++;
+		}
+		return length;
+	}
+
+	private static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static int getVarint(ByteBuffer buffer) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("varint 太長");
+	}
+
+	/** 放入記憶體層，超過上限時移除最久未使用的項目 */
+	private synchronized void remember(String name, byte[] data) {
+		if (data.length > maxMemoryBytes) {
+			return;
+		}
+		byte[] previous = memory.put(name, data);
+		memoryBytes += data.length - (previous != null ? previous.length : 0);
+		for (Iterator<byte[]> it = memory.values().iterator(); memoryBytes > maxMemoryBytes && it.hasNext();) {
+			memoryBytes -= it.next().length;
+			it.remove();
+		}
+	}
+
+	private Path file(String name) {
+		return directory.resolve(name + SUFFIX);
+	}
+
+	/** 讀取快取檔並核對鍵；命中時更新最後使用時間。 沒有檔案或讀取失敗時回傳 null */
+	private byte[] readFile(String name, byte[] key) {
+		if (directory == null) {
+			return null;
+		}
+		Path file = file(name);
+		try {
+			byte[] data = Files.readAllBytes(file);
+			if (data.length < HEADER_BYTES || !Arrays.equals(data, 20, 20 + KEY_BYTES, key, 0, KEY_BYTES)) {
+				return null;
+			}
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			return data;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			System.err.println(file + ": 無法讀取可見性圖快取 - " + e);
+			return null;
+		}
+	}
+
+	/** 先寫到暫存檔再改名，其他行程不會讀到寫到一半的檔案；之後依上限刪除最舊的檔案 */
+	private void writeFile(String name, byte[] data) {
+		if (directory == null || data.length > maxDiskBytes) {
+			return;
+		}
+		Path file = file(name);
+		try {
+			Path temp = Files.createTempFile(directory, name, ".tmp");
+			try {
+				Files.write(temp, data);
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+			evict();
+		} catch (IOException e) {
+			System.err.println(file + ": 無法寫入可見性圖快取 - " + e);
+		}
+	}
+
+	/** 磁碟上的快取檔總大小超過上限時，依最後使用時間由舊到新刪除 */
+	private void evict() throws IOException {
+		Map<Path, FileTime> used = new HashMap<>();
+		long total = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+			for (Path file : stream) {
+				try {
+					used.put(file, Files.getLastModifiedTime(file));
+					total += Files.size(file);
+				} catch (NoSuchFileException e) {
+					// 其他行程剛刪除
+				}
+			}
+		}
+		if (total <= maxDiskBytes) {
+			return;
+		}
+		List<Path> files = new ArrayList<>(used.keySet());
+		files.sort(Comparator.comparing(used::get));
+		for (Path file : files) {
+			if (total <= maxDiskBytes) {
+				break;
+			}
+			try {
+				long size = Files.size(file);
+				Files.delete(file);
+				total -= size;
+			} catch (NoSuchFileException e) {
+				// 其他行程剛刪除
+			}
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder text = new StringBuilder(2 * bytes.length);
+		for (byte b : bytes) {
+			text.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return text.toString();
+	}
+}
\ No newline at end of file
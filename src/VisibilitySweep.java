@@ -0,0 +1,619 @@
+// 30. 可見性圖的旋轉掃描建構（Lee 演算法）：每個點依角度掃描其他點與障礙物端點，以平衡樹維護與掃描射線相交的障礙物，
+//     每個點 O((n + m) log(n + m))、全部 O(n² log n)，取代逐對檢查的 O(n² · m)；各點的掃描互相獨立，平行執行
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class VisibilitySweep {
+	/** 每個平行工作至少處理的來源點數 */
+	private static final int SOURCES_PER_TASK = 8;
+
+	// 事件種類；角度相同時依 REMOVE / MARK → INSERT → TARGET 的順序處理（加入事件的順序，基數排序為穩定排序）：
+	// 同一個頂點上先移除再插入，比較大小時不會遇到只在該頂點與射線相接的片段
+	private static final int REMOVE = 0, MARK = 1, INSERT = 2, TARGET = 3;
+
+	/** 角度的絕對誤差餘裕（atan2 的誤差遠小於此） */
+	private static final double ANGLE_SLACK = 1e-12;
+	/** 對應 GeometryUtils 共線判斷（面積小於 ORIENTATION_EPSILON）的餘裕 */
+	private static final double AREA_SLACK = 8 * GeometryUtils.ORIENTATION_EPSILON;
+	/** 最近障礙物與射線的交點和目標點距離的相對誤差小於此值時，交給 VisibilityChecker 判斷 */
+	private static final double DISTANCE_SLACK = 1e-9;
+
+	private static final int[] NONE = new int[0];
+
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker);
+	}
+
+	/** 使用所有可用的處理器 */
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker) {
+		return findMST(points, checker, 0);
+	}
+
+	/**
+	 * 以旋轉掃描建立可見性圖，再做 Kruskal。可見的點對與 {@link KruskalMST#buildEdgeList} 完全相同，且依相同的 (i, j) 順序加入邊表，
+	 * 因此結果（包含邊的順序）與 {@link KruskalMST#findMST(PointSet, VisibilityChecker)} 完全一致，與執行緒數無關。
+	 *
+	 * @param parallelism 使用的執行緒數（<= 0 表示使用可用的處理器數）
+	 */
+	public static List<Edge> findMST(List<Point> vertices, VisibilityChecker checker, Map<Point, Node> pointToNodeMap, int parallelism) {
+		return findMST(PointSet.of(vertices, pointToNodeMap), checker, parallelism);
+	}
+
+	public static List<Edge> findMST(PointSet points, VisibilityChecker checker, int parallelism) {
+		return findMSTEdges(points, checker, parallelism).toEdges();
+	}
+
+	/** 同 {@link #findMST(PointSet, VisibilityChecker, int)}，結果以編號存放在邊表中（點集合不需要有 {@link Node}） */
+	static EdgeList findMSTEdges(PointSet points, VisibilityChecker checker, int parallelism) {
+		EdgeList allEdges = buildEdgeList(points, checker, parallelism);
+		allEdges.sortByWeight();
+		return allEdges.kruskalEdges();
+	}
+
+	/**
+	 * 所有可見的點對 (i, j)，i &lt; j，依 (i, j) 的順序存入邊表（尚未排序），與 {@link KruskalMST#buildEdgeList} 相同。
+	 *
+	 * 每個來源點 p 的掃描：
+	 * <ol>
+	 * <li>障礙物先在彼此的交點切開（只做一次），使掃描用的平衡樹可以只依「沿射線的遠近」排序。</li>
+	 * <li>編號較大的點與片段端點依繞 p 的角度排序；射線逆時針轉動，片段在先遇到的端點插入、在後遇到的端點移除。</li>
+	 * <li>遇到目標點 q 時，只檢查樹中最近的片段所屬的障礙物是否擋住 pq；沒擋住且交點明顯比 q 遠，其他片段更遠，q 可見。</li>
+	 * </ol>
+	 * 目標點與某個片段端點幾乎共線、或交點與 q 幾乎同遠時，GeometryUtils 的容許誤差可能讓結果與幾何不同， 這些少數點對改用 {@link VisibilityChecker#isVisible(PointSet, int, int)}。
+	 * 點落在某條障礙物所在直線的容許誤差內（且在障礙物的範圍內）時，從它出發的路徑即使在幾何上離開障礙物也可能被判為相交，
+	 * 以它為來源的點對全部、以它為目標的點對也都改用 VisibilityChecker。
+	 */
+	static EdgeList buildEdgeList(PointSet points, VisibilityChecker checker, int parallelism) {
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		int n = points.size;
+		Scene scene = new Scene(points, checker);
+		int[][] rows = new int[n][];
+		if (threads > 1 && n > SOURCES_PER_TASK) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new SourceTask(scene, rows, 0, n));
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			Sweep sweep = new Sweep(scene);
+			for (int i = 0; i < n; i++) {
+				rows[i] = sweep.visibleFrom(i);
+			}
+		}
+
+		int total = 0;
+		for (int[] row : rows) {
+			total += row.length;
+		}
+		EdgeList allEdges = new EdgeList(points, total);
+		for (int i = 0; i < n; i++) {
+			for (int j : rows[i]) {
+				allEdges.add(i, j, points.weight(i, j));
+			}
+		}
+		return allEdges;
+	}
+
+	/** 掃描 [from, to) 範圍內的來源點；範圍超過 SOURCES_PER_TASK 時分成兩半 fork/join */
+	@SuppressWarnings("serial")
+	private static final class SourceTask extends RecursiveAction {
+		private final Scene scene;
+		private final int[][] rows;
+		private final int from, to;
+
+		SourceTask(Scene scene, int[][] rows, int from, int to) {
+			this.scene = scene;
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > SOURCES_PER_TASK) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new SourceTask(scene, rows, from, mid), new SourceTask(scene, rows, mid, to));
+				return;
+			}
+			Sweep sweep = new Sweep(scene);
+			for (int i = from; i < to; i++) {
+				rows[i] = sweep.visibleFrom(i);
+			}
+		}
+	}
+
+	/** 所有來源點共用的唯讀資料：切開後的障礙物片段，以及碰到障礙物而看不到任何點的點 */
+	private static final class Scene {
+		final PointSet points;
+		final VisibilityChecker checker;
+		// 原始障礙物座標，每條 4 個值
+		final double[] segments;
+		// 片段座標（每條 4 個值）與所屬的原始障礙物；片段之間只在端點相接
+		final double[] pieces;
+		final int[] pieceOrigin;
+		final int pieceCount;
+		// 點落在障礙物上（含容許誤差）：任何從它出發的路徑都會與該障礙物相交
+		final boolean[] isolated;
+		// 點在某條障礙物所在直線的容許誤差內、投影落在障礙物範圍內，但不在障礙物上（例如在水平障礙物的外接矩形上方 1e-12）：
+		// 方向判斷把它視為在線上，路徑是否被擋住與幾何不同，與它有關的點對都交給 VisibilityChecker
+		final boolean[] nearLine;
+
+		Scene(PointSet points, VisibilityChecker checker) {
+			this.points = points;
+			this.checker = checker;
+			this.segments = checker.obstacleCoordinates();
+			int m = checker.obstacleCount();
+
+			// 1) 找出所有交點（以 minX 排序後，只檢查 x 範圍重疊的障礙物）
+			long[] keys = new long[m];
+			int[] order = new int[m];
+			for (int k = 0; k < m; k++) {
+				keys[k] = EdgeList.sortableBits(Math.min(segments[4 * k], segments[4 * k + 2]));
+				order[k] = k;
+			}
+			EdgeList.radixSort(keys, order, m);
+			Splits splits = new Splits();
+			for (int a = 0; a < m; a++) {
+				int s = order[a];
+				double maxX = Math.max(segments[4 * s], segments[4 * s + 2]);
+				for (int b = a + 1; b < m; b++) {
+					int t = order[b];
+					if (Math.min(segments[4 * t], segments[4 * t + 2]) > maxX) {
+						break;
+					}
+					splits.addCrossing(segments, s, t);
+				}
+			}
+
+			// 2) 依交點在各障礙物上的位置切成片段
+			int[] start = splits.groupBySegment(m);
+			double[] out = new double[4 * (m + splits.count)];
+			int[] origin = new int[m + splits.count];
+			int count = 0;
+			int[] along = new int[splits.count];
+			for (int s = 0; s < m; s++) {
+				int o = 4 * s;
+				int k = 0;
+				for (int p = start[s]; p < start[s + 1]; p++) {
+					along[k++] = splits.order[p];
+				}
+				splits.sortAlong(along, k, segments[o], segments[o + 1], segments[o + 2], segments[o + 3]);
+				double x = segments[o], y = segments[o + 1];
+				for (int p = 0; p <= k; p++) {
+					double nx = p < k ? splits.x[along[p]] : segments[o + 2];
+					double ny = p < k ? splits.y[along[p]] : segments[o + 3];
+					// 同一點被切兩次時不產生長度為 0 的片段（原本就是一個點的障礙物保留）
+					if (nx == x && ny == y && !(k == 0 && p == 0)) {
+						continue;
+					}
+					int q = 4 * count;
+					out[q] = x;
+					out[q + 1] = y;
+					out[q + 2] = nx;
+					out[q + 3] = ny;
+					origin[count++] = s;
+					x = nx;
+					y = ny;
+				}
+			}
+			this.pieces = out;
+			this.pieceOrigin = origin;
+			this.pieceCount = count;
+
+			// 路徑 p → p 只在 p 碰到障礙物時被擋住；此時 p → q 的檢查會在同一條障礙物上得到相同的結果
+			this.isolated = new boolean[points.size];
+			for (int i = 0; i < points.size; i++) {
+				isolated[i] = !checker.isVisible(points, i, i);
+			}
+			this.nearLine = nearLine(points, segments, m, isolated);
+		}
+
+		/**
+		 * 標出離某條障礙物所在直線的面積（GeometryUtils 的方向判斷所用的外積）小於 AREA_SLACK、且投影落在障礙物範圍內的點。
+		 * 只檢查障礙物外接矩形向外擴大 2 · AREA_SLACK / 長度 的範圍內的點（點的網格索引）。
+		 */
+		private static boolean[] nearLine(PointSet points, double[] segments, int m, boolean[] isolated) {
+			int n = points.size;
+			boolean[] near = new boolean[n];
+			if (n == 0 || m == 0) {
+				return near;
+			}
+			PointGrid grid = new PointGrid(points);
+			for (int o = 0; o < 4 * m; o += 4) {
+				double x1 = segments[o], y1 = segments[o + 1], x2 = segments[o + 2], y2 = segments[o + 3];
+				double dx = x2 - x1, dy = y2 - y1, squared = dx * dx + dy * dy;
+				if (squared == 0) {
+					// 一個點的障礙物：方向都是共線，只有點正好在它上面時相交（isolated）
+					continue;
+				}
+				double margin = 2 * AREA_SLACK / Math.sqrt(squared);
+				for (int r = grid.row(Math.min(y1, y2) - margin), r1 = grid.row(Math.max(y1, y2) + margin); r <= r1; r++) {
+					for (int c = grid.col(Math.min(x1, x2) - margin), c1 = grid.col(Math.max(x1, x2) + margin); c <= c1; c++) {
+						int cell = r * grid.cols + c;
+						for (int p = grid.cellStart[cell]; p < grid.cellStart[cell + 1]; p++) {
+							int i = grid.cellItems[p];
+							double rx = points.xs[i], ry = points.ys[i];
+							// 與 GeometryUtils.orientation 相同的外積；投影的範圍同樣放寬 AREA_SLACK
+							double area = dy * (rx - x2) - dx * (ry - y2);
+							double along = (rx - x1) * dx + (ry - y1) * dy;
+							if (!isolated[i] && Math.abs(area) < AREA_SLACK && along >= -AREA_SLACK && along <= squared + AREA_SLACK) {
+								near[i] = true;
+							}
+						}
+					}
+				}
+			}
+			return near;
+		}
+	}
+
+	/** 障礙物上的切點：所屬障礙物與座標；兩條障礙物交叉時兩邊使用同一個座標，切開後的片段在此相接 */
+	private static final class Splits {
+		int[] segment = new int[16];
+		double[] x = new double[16];
+		double[] y = new double[16];
+		int[] order;
+		int count;
+
+		/** 障礙物 s 與 t 相交時記下切點：交叉時為交點，一端落在另一條內部時為該端點 */
+		void addCrossing(double[] segments, int s, int t) {
+			int o = 4 * s, p = 4 * t;
+			double s1x = segments[o], s1y = segments[o + 1], s2x = segments[o + 2], s2y = segments[o + 3];
+			double t1x = segments[p], t1y = segments[p + 1], t2x = segments[p + 2], t2y = segments[p + 3];
+			if (Math.max(s1y, s2y) < Math.min(t1y, t2y) || Math.max(t1y, t2y) < Math.min(s1y, s2y)) {
+				return;
+			}
+			int d1 = side(s1x, s1y, s2x, s2y, t1x, t1y), d2 = side(s1x, s1y, s2x, s2y, t2x, t2y);
+			int d3 = side(t1x, t1y, t2x, t2y, s1x, s1y), d4 = side(t1x, t1y, t2x, t2y, s2x, s2y);
+			if (d1 * d2 < 0 && d3 * d4 < 0) {
+				double ex = s2x - s1x, ey = s2y - s1y, fx = t2x - t1x, fy = t2y - t1y;
+				double u = ((t1x - s1x) * fy - (t1y - s1y) * fx) / (ex * fy - ey * fx);
+				u = Math.max(0, Math.min(1, u));
+				double ix = s1x + u * ex, iy = s1y + u * ey;
+				add(s, ix, iy);
+				add(t, ix, iy);
+				return;
+			}
+			if (d1 == 0 && inside(s1x, s1y, s2x, s2y, t1x, t1y)) {
+				add(s, t1x, t1y);
+			}
+			if (d2 == 0 && inside(s1x, s1y, s2x, s2y, t2x, t2y)) {
+				add(s, t2x, t2y);
+			}
+			if (d3 == 0 && inside(t1x, t1y, t2x, t2y, s1x, s1y)) {
+				add(t, s1x, s1y);
+			}
+			if (d4 == 0 && inside(t1x, t1y, t2x, t2y, s2x, s2y)) {
+				add(t, s2x, s2y);
+			}
+		}
+
+		/** 依所屬障礙物分組（計數排序），回傳各組的起點；組內的切點編號在 order 中 */
+		int[] groupBySegment(int m) {
+			int[] start = new int[m + 1];
+			for (int k = 0; k < count; k++) {
+				start[segment[k] + 1]++;
+			}
+			for (int s = 0; s < m; s++) {
+				start[s + 1] += start[s];
+			}
+			order = new int[count];
+			int[] fill = Arrays.copyOf(start, m);
+			for (int k = 0; k < count; k++) {
+				order[fill[segment[k]]++] = k;
+			}
+			return start;
+		}
+
+		/** 將 ids[0 .. len) 依切點在線段 (x1, y1) → (x2, y2) 上的位置排序（每條障礙物上的切點通常很少，用插入排序） */
+		void sortAlong(int[] ids, int len, double x1, double y1, double x2, double y2) {
+			double dx = x2 - x1, dy = y2 - y1;
+			for (int a = 1; a < len; a++) {
+				int id = ids[a];
+				double key = (x[id] - x1) * dx + (y[id] - y1) * dy;
+				int b = a - 1;
+				while (b >= 0 && (x[ids[b]] - x1) * dx + (y[ids[b]] - y1) * dy > key) {
+					ids[b + 1] = ids[b];
+					b--;
+				}
+				ids[b + 1] = id;
+			}
+		}
+
+		private void add(int s, double px, double py) {
+			if (count == segment.length) {
+				segment = Arrays.copyOf(segment, 2 * count);
+				x = Arrays.copyOf(x, 2 * count);
+				y = Arrays.copyOf(y, 2 * count);
+			}
+			segment[count] = s;
+			x[count] = px;
+			y[count] = py;
+			count++;
+		}
+
+		/** (px, py) 在線段的外接矩形內且不是端點 */
+		private static boolean inside(double x1, double y1, double x2, double y2, double px, double py) {
+			boolean endpoint = (px == x1 && py == y1) || (px == x2 && py == y2);
+			return !endpoint && px >= Math.min(x1, x2) && px <= Math.max(x1, x2) && py >= Math.min(y1, y2) && py <= Math.max(y1, y2);
+		}
+	}
+
+	/** 單一執行緒的掃描狀態；緩衝區在同一個工作的各來源點之間重複使用 */
+	private static final class Sweep {
+		private final Scene scene;
+		// 與掃描射線相交的片段，依與來源點的遠近排序（只在相交的片段之間比較，因此比較結果與目前的角度無關）
+		private final TreeSet<Integer> active = new TreeSet<>(this::compare);
+		private double px, py;
+
+		// 事件：排序鍵（角度）與事件編號；事件編號對應 eventType / eventId / eventAngle
+		private long[] keys = new long[0];
+		private int[] order = new int[0];
+		private int[] eventType = new int[0];
+		private int[] eventId = new int[0];
+		private double[] eventAngle = new double[0];
+		private int eventCount;
+		// 非目標點事件（片段端點）的角度，遞增
+		private double[] critical = new double[0];
+		private int criticalCount;
+		// 每個片段被插入與移除的角度（與來源點共線的片段為 NaN）
+		private final double[] startAngle;
+		private final double[] endAngle;
+		// 來源點在每個片段所在直線的哪一側（比較片段遠近時反覆用到）
+		private final int[] sourceSide;
+		private int[] visible = new int[0];
+
+		Sweep(Scene scene) {
+			this.scene = scene;
+			this.startAngle = new double[scene.pieceCount];
+			this.endAngle = new double[scene.pieceCount];
+			this.sourceSide = new int[scene.pieceCount];
+		}
+
+		/** 來源點 i 看得到的、編號大於 i 的點（遞增） */
+		int[] visibleFrom(int i) {
+			PointSet points = scene.points;
+			int n = points.size;
+			if (scene.isolated[i] || i == n - 1) {
+				return NONE;
+			}
+			ensureCapacity(2 * scene.pieceCount + n - i - 1);
+			if (scene.nearLine[i]) {
+				return checkAll(i);
+			}
+			px = points.xs[i];
+			py = points.ys[i];
+			eventCount = 0;
+			active.clear();
+
+			// 片段：逆時針掃描時先遇到的端點插入、後遇到的端點移除；跨過 ±π 的片段在掃描開始時已與射線相交
+			double[] pieces = scene.pieces;
+			double nearest = Double.POSITIVE_INFINITY;
+			for (int k = 0, o = 0; k < scene.pieceCount; k++, o += 4) {
+				double ax = pieces[o] - px, ay = pieces[o + 1] - py, bx = pieces[o + 2] - px, by = pieces[o + 3] - py;
+				nearest = Math.min(nearest, Math.min(ax * ax + ay * ay, bx * bx + by * by));
+				double cross = ax * by - ay * bx;
+				double angleA = Math.atan2(ay, ax), angleB = Math.atan2(by, bx);
+				if (cross == 0) {
+					// 與來源點共線：不佔任何角度範圍，只記下端點的角度
+					addEvent(angleA, k, MARK);
+					addEvent(angleB, k, MARK);
+					startAngle[k] = Double.NaN;
+					continue;
+				}
+				sourceSide[k] = side(pieces[o], pieces[o + 1], pieces[o + 2], pieces[o + 3], px, py);
+				startAngle[k] = cross > 0 ? angleA : angleB;
+				endAngle[k] = cross > 0 ? angleB : angleA;
+				if (startAngle[k] > endAngle[k]) {
+					active.add(k);
+				}
+				addEvent(endAngle[k], k, REMOVE);
+			}
+			nearest = Math.sqrt(nearest);
+			for (int k = 0; k < scene.pieceCount; k++) {
+				if (!Double.isNaN(startAngle[k])) {
+					addEvent(startAngle[k], k, INSERT);
+				}
+			}
+			for (int j = i + 1; j < n; j++) {
+				if (!scene.isolated[j]) {
+					addEvent(Math.atan2(points.ys[j] - py, points.xs[j] - px), j, TARGET);
+				}
+			}
+			EdgeList.radixSort(keys, order, eventCount);
+
+			criticalCount = 0;
+			for (int s = 0; s < eventCount; s++) {
+				int e = order[s];
+				if (eventType[e] != TARGET) {
+					critical[criticalCount++] = eventAngle[e];
+				}
+			}
+
+			int visibleCount = 0;
+			for (int s = 0; s < eventCount; s++) {
+				int e = order[s];
+				switch (eventType[e]) {
+				case INSERT:
+					active.add(eventId[e]);
+					break;
+				case REMOVE:
+					if (!active.remove(eventId[e])) {
+						// 退化的輸入讓片段的遠近關係不一致：此來源點改為逐對檢查
+						return checkAll(i);
+					}
+					break;
+				case TARGET:
+					if (isVisible(i, eventId[e], eventAngle[e], nearest)) {
+						visible[visibleCount++] = eventId[e];
+					}
+					break;
+				default:
+					break;
+				}
+			}
+			int[] row = Arrays.copyOf(visible, visibleCount);
+			Arrays.sort(row);
+			return row;
+		}
+
+		/** 來源點 i 與目標點 j（角度 angle）是否互相可見；nearest 為來源點到最近的片段端點的距離 */
+		private boolean isVisible(int i, int j, double angle, double nearest) {
+			PointSet points = scene.points;
+			if (scene.nearLine[j]) {
+				return scene.checker.isVisible(points, i, j);
+			}
+			double qx = points.xs[j], qy = points.ys[j];
+			double dx = qx - px, dy = qy - py;
+			double distance = Math.hypot(dx, dy);
+			if (distance == 0) {
+				// 座標相同：兩點都沒碰到障礙物，路徑不會被擋住
+				return true;
+			}
+			// 與某個片段端點幾乎共線（同向或反向）：交給逐對檢查
+			double window = ANGLE_SLACK + AREA_SLACK / (distance * nearest);
+			if (nearCritical(angle, window) || nearCritical(angle > 0 ? angle - Math.PI : angle + Math.PI, window)) {
+				return scene.checker.isVisible(points, i, j);
+			}
+			if (active.isEmpty()) {
+				return true;
+			}
+			int front = active.first();
+			double[] segments = scene.segments;
+			int o = 4 * scene.pieceOrigin[front];
+			if (GeometryUtils.doIntersect(px, py, qx, qy, segments[o], segments[o + 1], segments[o + 2], segments[o + 3])) {
+				return false;
+			}
+			// 射線 p + λ (q - p) 與最近片段所在直線的交點：λ 明顯大於 1 時，其他片段都在 q 之後
+			int f = 4 * front;
+			double ax = scene.pieces[f] - px, ay = scene.pieces[f + 1] - py;
+			double ex = scene.pieces[f + 2] - scene.pieces[f], ey = scene.pieces[f + 3] - scene.pieces[f + 1];
+			double lambda = (ax * ey - ay * ex) / (dx * ey - dy * ex);
+			return lambda > 1 + DISTANCE_SLACK || scene.checker.isVisible(points, i, j);
+		}
+
+		/** [center - window, center + window]（跨過 ±π 時繞回）內是否有片段端點 */
+		private boolean nearCritical(double center, double window) {
+			if (criticalCount == 0) {
+				return false;
+			}
+			if (window >= Math.PI) {
+				return true;
+			}
+			double lo = center - window, hi = center + window;
+			if (anyCritical(lo, hi)) {
+				return true;
+			}
+			if (lo < -Math.PI) {
+				return anyCritical(lo + 2 * Math.PI, Math.PI);
+			}
+			if (hi > Math.PI) {
+				return anyCritical(-Math.PI, hi - 2 * Math.PI);
+			}
+			return false;
+		}
+
+		private boolean anyCritical(double lo, double hi) {
+			int a = 0, b = criticalCount;
+			while (a < b) {
+				int mid = (a + b) >>> 1;
+				if (critical[mid] < lo) {
+					a = mid + 1;
+				} else {
+					b = mid;
+				}
+			}
+			return a < criticalCount && critical[a] <= hi;
+		}
+
+		/**
+		 * 兩個都與目前射線相交、且不交叉的片段，依與來源點的遠近比較：t 整條在 s 所在直線靠來源點的一側時 t 較近，整條在另一側時 s 較近；
+		 * t 跨過 s 的直線時改以 s 相對於 t 的直線判斷。共線時依編號。
+		 */
+		private int compare(int s, int t) {
+			if (s == t) {
+				return 0;
+			}
+			int result = closer(s, t);
+			if (result == 0) {
+				result = -closer(t, s);
+			}
+			return result != 0 ? result : Integer.compare(s, t);
+		}
+
+		/** 以片段 s 的直線判斷：t 較近時回傳 1，s 較近時回傳 -1，無法判斷時回傳 0 */
+		private int closer(int s, int t) {
+			double[] pieces = scene.pieces;
+			int o = 4 * s, p = 4 * t;
+			double x1 = pieces[o], y1 = pieces[o + 1], x2 = pieces[o + 2], y2 = pieces[o + 3];
+			int source = sourceSide[s];
+			int a = sideOfPiece(x1, y1, x2, y2, pieces[p], pieces[p + 1]) * source;
+			int b = sideOfPiece(x1, y1, x2, y2, pieces[p + 2], pieces[p + 3]) * source;
+			if (a == 0 && b == 0) {
+				return 0;
+			}
+			if (a >= 0 && b >= 0) {
+				return 1;
+			}
+			if (a <= 0 && b <= 0) {
+				return -1;
+			}
+			return 0;
+		}
+
+		/** 同 {@link VisibilitySweep#side}，但相接的端點（切點的座標完全相同）一律視為在線上，不受交點座標捨入的影響 */
+		private static int sideOfPiece(double x1, double y1, double x2, double y2, double px, double py) {
+			if ((px == x1 && py == y1) || (px == x2 && py == y2)) {
+				return 0;
+			}
+			return side(x1, y1, x2, y2, px, py);
+		}
+
+		/** 來源點 i 的每個點對都以 VisibilityChecker 檢查 */
+		private int[] checkAll(int i) {
+			PointSet points = scene.points;
+			int count = 0;
+			for (int j = i + 1; j < points.size; j++) {
+				if (scene.checker.isVisible(points, i, j)) {
+					visible[count++] = j;
+				}
+			}
+			return Arrays.copyOf(visible, count);
+		}
+
+		private void addEvent(double angle, int id, int type) {
+			int e = eventCount++;
+			keys[e] = EdgeList.sortableBits(angle);
+			order[e] = e;
+			eventType[e] = type;
+			eventId[e] = id;
+			eventAngle[e] = angle;
+		}
+
+		private void ensureCapacity(int events) {
+			if (keys.length < events) {
+				keys = new long[events];
+				order = new int[events];
+				eventType = new int[events];
+				eventId = new int[events];
+				eventAngle = new double[events];
+				critical = new double[events];
+			}
+			if (visible.length < scene.points.size) {
+				visible = new int[scene.points.size];
+			}
+		}
+	}
+
+	/** (px, py) 在有向直線 (x1, y1) → (x2, y2) 的左側為 1、右側為 -1、線上為 0 */
+	private static int side(double x1, double y1, double x2, double y2, double px, double py) {
+		double cross = (x2 - x1) * (py - y1) - (y2 - y1) * (px - x1);
+		return cross > 0 ? 1 : cross < 0 ? -1 : 0;
+	}
+}
\ No newline at end of file
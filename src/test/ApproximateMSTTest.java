@@ -0,0 +1,137 @@
+// 近似 MST：近鄰數涵蓋所有點時與暴力 Kruskal 逐邊相同；compareWithExact 回報的精確總權重與邊數和 Kruskal 一致，近似結果不會比精確輕
+// 近鄰是最近的 k 個可見點（與逐一排序、檢查所有點的結果相同），被障礙物圍住而可見點不足 k 個時其餘位置為 NONE
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ApproximateMSTTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void allNeighborsMatchesKruskal(Scenes scene) {
+		int neighbors = Math.max(1, scene.points.size - 1);
+		for (int threads : new int[] { 1, 4 }) {
+			assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(ApproximateMST.findMSTEdges(scene.points, scene.checker, neighbors, threads)), threads + " 個執行緒");
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void compareWithExactReportsKruskalWeight(Scenes scene) {
+		EdgeList exact = KruskalMST.findMSTEdges(scene.points, scene.checker);
+		for (int neighbors : new int[] { 1, 3, ApproximateMST.DEFAULT_NEIGHBORS }) {
+			EdgeList approximate = ApproximateMST.findMSTEdges(scene.points, scene.checker, neighbors, 2);
+			ApproximateMST.Report report = ApproximateMST.compareWithExact(scene.points, scene.checker, approximate, 2);
+			String message = "k = " + neighbors;
+
+			assertEquals(exact.size, report.exactEdges, message);
+			assertEquals(totalWeight(exact), report.exactWeight, 1e-9 * Math.max(1, report.exactWeight), message);
+			assertEquals(approximate.size, report.approximateEdges, message);
+			assertEquals(totalWeight(approximate), report.approximateWeight, message);
+			// 近似結果連接的元件和精確 MST 相同，因此邊數相同、總權重不會更小
+			assertEquals(exact.size, approximate.size, message);
+			assertTrue(report.relativeDifference() >= -1e-12, message + ": " + report);
+			double expected = report.exactWeight > 0 ? (report.approximateWeight - report.exactWeight) / report.exactWeight : 0;
+			assertEquals(expected, report.relativeDifference(), message);
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void neighborsAreNearestVisiblePoints(Scenes scene) {
+		int n = scene.points.size;
+		if (n < 2) {
+			return;
+		}
+		PointGrid grid = new PointGrid(scene.points);
+		for (int neighbors : new int[] { 1, 3, ApproximateMST.DEFAULT_NEIGHBORS }) {
+			int k = Math.min(neighbors, n - 1);
+			long[] expected = nearestVisible(scene, k);
+			for (int threads : new int[] { 1, 4 }) {
+				assertArrayEquals(expected, ApproximateMST.visibleNeighbors(scene.points, scene.checker, grid, k, threads), "k = " + k + ", " + threads + " 個執行緒");
+			}
+		}
+	}
+
+	@Test
+	void enclosedPointsSearchWholeGrid() {
+		// 方框內的 3 個點只看得到彼此；方框外 8 x 8 的格點
+		List<Point> vertices = new ArrayList<>();
+		vertices.add(new Point(4.2, 4.2));
+		vertices.add(new Point(4.8, 4.3));
+		vertices.add(new Point(4.5, 4.7));
+		for (int x = 0; x < 8; x++) {
+			for (int y = 0; y < 8; y++) {
+				vertices.add(new Point(x + 0.5 * (y % 2), y));
+			}
+		}
+		List<LineSegment> obstacles = List.of(new LineSegment(new Point(4, 4), new Point(5, 4)), new LineSegment(new Point(5, 4), new Point(5, 5)),
+				new LineSegment(new Point(5, 5), new Point(4, 5)), new LineSegment(new Point(4, 5), new Point(4, 4)));
+		Scenes scene = Scenes.of("enclosure", vertices, obstacles);
+
+		int k = 4;
+		long[] candidates = ApproximateMST.visibleNeighbors(scene.points, scene.checker, new PointGrid(scene.points), k, 1);
+		assertArrayEquals(nearestVisible(scene, k), candidates);
+		for (int a = 0; a < 3; a++) {
+			assertEquals(ApproximateMST.NONE, candidates[a * k + k - 1], "點 " + a);
+		}
+		assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(ApproximateMST.findMSTEdges(scene.points, scene.checker, k, 1)));
+	}
+
+	@Test
+	void rejectsNonPositiveNeighbors() {
+		Scenes scene = Scenes.random(7, 10, 2);
+		assertThrows(IllegalArgumentException.class, () -> ApproximateMST.findMSTEdges(scene.points, scene.checker, 0, 1));
+	}
+
+	/** 依 (權重, 點編號) 排序所有其他點，逐一以暴力法檢查可見性後取前 k 個；格式同 {@link ApproximateMST#visibleNeighbors} */
+	private static long[] nearestVisible(Scenes scene, int k) {
+		PointSet points = scene.points;
+		int n = points.size;
+		long[] expected = new long[n * k];
+		Arrays.fill(expected, ApproximateMST.NONE);
+		for (int a = 0; a < n; a++) {
+			if (!scene.isVisible(a, a)) {
+				continue;
+			}
+			int from = a;
+			List<Integer> others = new ArrayList<>();
+			for (int b = 0; b < n; b++) {
+				if (b != a) {
+					others.add(b);
+				}
+			}
+			others.sort(Comparator.<Integer>comparingDouble(b -> points.weight(from, b)).thenComparingInt(b -> b));
+			int count = 0;
+			for (int b : others) {
+				if (count < k && scene.isVisible(a, b)) {
+					expected[a * k + count++] = EdgeList.pairKey(a, b);
+				}
+			}
+		}
+		return expected;
+	}
+
+	private static double totalWeight(EdgeList edges) {
+		double sum = 0;
+		for (int e = 0; e < edges.size; e++) {
+			sum += edges.weight[e];
+		}
+		return sum;
+	}
+}
\ No newline at end of file
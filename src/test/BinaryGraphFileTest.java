@@ -0,0 +1,116 @@
+// 二進位檔：寫出後讀回的點、障礙物、邊與佈局逐位元相同；檔案被截斷、檔頭不符或邊的端點超出範圍時以 IOException 拒絕
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BinaryGraphFileTest {
+	private Path file;
+
+	@BeforeEach
+	void createFile() throws IOException {
+		file = Files.createTempFile("graph", ".otg");
+	}
+
+	@AfterEach
+	void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	void roundTrip() throws IOException {
+		Scenes scene = Scenes.random(5, 200, 30);
+		PointSet points = new PointSet(scene.points.xs, scene.points.ys, null);
+		double[] segments = scene.checker.obstacleCoordinates();
+		int m = scene.checker.obstacleCount();
+		EdgeList mst = KruskalMST.findMSTEdges(points, scene.checker);
+		double[] x = new double[points.size], y = new double[points.size];
+		TreeLayoutCalculator.layout(RootedForest.build(points, mst, -1), 1000, x, y);
+
+		BinaryGraphFile.write(file, points, segments, m, mst, x, y);
+		BinaryGraphFile read = BinaryGraphFile.read(file);
+		assertArrayEquals(Arrays.copyOf(points.xs, points.size), Arrays.copyOf(read.points.xs, read.points.size));
+		assertArrayEquals(Arrays.copyOf(points.ys, points.size), Arrays.copyOf(read.points.ys, read.points.size));
+		assertEquals(m, read.segmentCount);
+		assertArrayEquals(Arrays.copyOf(segments, 4 * m), read.segments);
+		assertEquals(Scenes.signature(mst), Scenes.signature(read.edges));
+		assertArrayEquals(x, read.layoutX);
+		assertArrayEquals(y, read.layoutY);
+	}
+
+	/** 沒有邊與佈局、沒有障礙物、甚至沒有點的檔案也能讀回 */
+	@Test
+	void optionalBlocksAndEmptyFile() throws IOException {
+		PointSet points = new PointSet(new double[] { 1, 2, 3 }, new double[] { 4, 5, 6 }, null);
+		BinaryGraphFile.write(file, points, new double[0], 0, null, null, null);
+		BinaryGraphFile read = BinaryGraphFile.read(file);
+		assertEquals(3, read.points.size);
+		assertEquals(0, read.segmentCount);
+		assertNull(read.edges);
+		assertNull(read.layoutX);
+
+		BinaryGraphFile.write(file, new PointSet(new double[0], new double[0], null), new double[0], 0, new EdgeList(points, 0), null, null);
+		read = BinaryGraphFile.read(file);
+		assertEquals(0, read.points.size);
+		assertEquals(0, read.edges.size);
+	}
+
+	@Test
+	void truncatedFileIsRejected() throws IOException {
+		PointSet points = randomPoints(50);
+		EdgeList edges = new EdgeList(points, 1);
+		edges.add(0, 1, points.weight(0, 1));
+		BinaryGraphFile.write(file, points, new double[] { 0, 0, 1, 1 }, 1, edges, null, null);
+		long size = Files.size(file);
+		for (long keep : new long[] { size - 1, size / 2, 31, 0 }) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(keep);
+			}
+			assertThrows(IOException.class, () -> BinaryGraphFile.read(file), "截斷為 " + keep + " 位元組");
+		}
+	}
+
+	@Test
+	void wrongMagicIsRejected() throws IOException {
+		Files.write(file, new byte[64]);
+		IOException e = assertThrows(IOException.class, () -> BinaryGraphFile.read(file));
+		assertTrue(e.getMessage().contains("檔頭"), e.getMessage());
+	}
+
+	@Test
+	void edgeEndpointsOutOfRangeAreRejected() throws IOException {
+		PointSet points = randomPoints(10);
+		for (int[] edge : new int[][] { { 0, 10 }, { -1, 3 }, { 12, 1 } }) {
+			EdgeList edges = new EdgeList(points, 2);
+			edges.add(0, 1, 1.0);
+			edges.add(edge[0], edge[1], 1.0);
+			BinaryGraphFile.write(file, points, new double[0], 0, edges, null, null);
+			IOException e = assertThrows(IOException.class, () -> BinaryGraphFile.read(file), Arrays.toString(edge));
+			assertTrue(e.getMessage().contains("第 1 條邊"), e.getMessage());
+		}
+	}
+
+	private static PointSet randomPoints(int n) {
+		Random r = new Random(n);
+		double[] xs = new double[n], ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = r.nextDouble();
+			ys[i] = r.nextDouble();
+		}
+		return new PointSet(xs, ys, null);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+// 平行 Borůvka：與暴力 Kruskal 逐邊相同（包含邊的順序），與執行緒數無關
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class BoruvkaMSTTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void matchesKruskal(Scenes scene) {
+		for (int threads : new int[] { 1, 4 }) {
+			assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(BoruvkaMST.findMSTEdges(scene.points, scene.checker, threads)), threads + " 個執行緒");
+		}
+	}
+}
\ No newline at end of file
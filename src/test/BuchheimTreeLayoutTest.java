@@ -0,0 +1,82 @@
+// Buchheim/Walker 佈局：同一層相鄰的節點至少相隔 minGap，父節點位於第一個與最後一個子節點的正中間，各棵樹由左到右不重疊
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BuchheimTreeLayoutTest {
+	/** 佈局使用的最小水平距離與層高 */
+	private static final double MIN_GAP = 20.0;
+	private static final double LEVEL_HEIGHT = 50.0;
+	/** 浮點誤差的容許值 */
+	private static final double EPS = 1e-6;
+
+	@ParameterizedTest(name = "seed {0}")
+	@ValueSource(longs = { 1, 2, 3, 4, 5, 6 })
+	void levelsAreSeparatedAndParentsCentred(long seed) {
+		Random r = new Random(seed);
+		int n = 300 + r.nextInt(700);
+		double[] xs = new double[n], ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = r.nextDouble() * 1000;
+			ys[i] = r.nextDouble() * 1000;
+		}
+		PointSet points = new PointSet(xs, ys, null);
+		EdgeList edges = new EdgeList(points, n);
+		for (int v = 1; v < n; v++) {
+			// 少數的點開始新的樹；其餘接到較近的點（深而窄）或任意一點（寬）
+			if (r.nextInt(40) != 0) {
+				int parent = r.nextBoolean() ? Math.max(0, v - 1 - r.nextInt(3)) : r.nextInt(v);
+				edges.add(parent, v, points.weight(parent, v));
+			}
+		}
+		RootedForest forest = RootedForest.build(points, edges, r.nextInt(n));
+		double[] x = new double[n], y = new double[n];
+		BuchheimTreeLayout.layout(forest, 1000, x, y);
+
+		double previousRight = Double.NEGATIVE_INFINITY;
+		for (int t = 0; t < forest.treeCount(); t++) {
+			// 同一棵樹中同一層的節點依 x 排序後，相鄰兩個至少相隔 minGap
+			Map<Integer, List<Integer>> levels = new HashMap<>();
+			double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+			for (int k = forest.treeStart[t]; k < forest.treeStart[t + 1]; k++) {
+				int v = forest.preOrder[k];
+				levels.computeIfAbsent(forest.depth[v], d -> new ArrayList<>()).add(v);
+				left = Math.min(left, x[v]);
+				right = Math.max(right, x[v]);
+				assertEquals(y[forest.roots[t]] + forest.depth[v] * LEVEL_HEIGHT, y[v], EPS, "節點 " + v + " 的 y");
+			}
+			for (List<Integer> level : levels.values()) {
+				level.sort(Comparator.comparingDouble(v -> x[v]));
+				for (int i = 1; i < level.size(); i++) {
+					double gap = x[level.get(i)] - x[level.get(i - 1)];
+					assertTrue(gap >= MIN_GAP - EPS, "第 " + t + " 棵樹的節點 " + level.get(i - 1) + " 與 " + level.get(i) + " 只相隔 " + gap);
+				}
+			}
+
+			// 父節點在第一個與最後一個子節點的正中間
+			for (int k = forest.treeStart[t]; k < forest.treeStart[t + 1]; k++) {
+				int v = forest.preOrder[k];
+				if (forest.childCount(v) > 0) {
+					int first = forest.children[forest.childStart[v]];
+					int last = forest.children[forest.childStart[v + 1] - 1];
+					assertEquals((x[first] + x[last]) / 2, x[v], EPS, "節點 " + v + " 未置中");
+					assertTrue(x[first] <= x[last], "節點 " + v + " 的子節點順序");
+				}
+			}
+
+			// 各棵樹由左到右排列，至少相隔 minGap
+			assertTrue(left >= previousRight + MIN_GAP - EPS, "第 " + t + " 棵樹與前一棵重疊");
+			previousRight = right;
+		}
+	}
+}
\ No newline at end of file
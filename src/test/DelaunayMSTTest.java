@@ -0,0 +1,56 @@
+// Delaunay MST：與暴力 Kruskal 逐邊相同；歐氏 MST 的邊被擋住時，由 Borůvka 連接各塊的結果也相同
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class DelaunayMSTTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void matchesKruskal(Scenes scene) {
+		assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(DelaunayMST.findMSTEdges(scene.points, scene.checker)));
+	}
+
+	/** 一道幾乎貫穿的牆把點分成兩半，只留一個缺口：許多歐氏 MST 的邊被擋住，兩塊只能經由缺口附近連接 */
+	@Test
+	void wallWithGap() {
+		Random r = new Random(3);
+		List<Point> vertices = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			vertices.add(new Point(r.nextDouble() * 100, r.nextDouble() * 100));
+		}
+		List<LineSegment> walls = List.of(new LineSegment(new Point(50.5, -1), new Point(50.5, 90)));
+		Scenes scene = Scenes.of("wallWithGap", vertices, walls);
+		assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(DelaunayMST.findMSTEdges(scene.points, scene.checker)));
+	}
+
+	/** 每個點都被四面牆圍住：沒有任何可見點對，結果沒有邊 */
+	@Test
+	void enclosedPointsHaveNoEdges() {
+		List<Point> vertices = new ArrayList<>();
+		List<LineSegment> walls = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 5; j++) {
+				vertices.add(new Point(10 * i, 10 * j));
+				Point a = new Point(10 * i - 1, 10 * j - 1), b = new Point(10 * i + 1, 10 * j - 1), c = new Point(10 * i + 1, 10 * j + 1), d = new Point(10 * i - 1, 10 * j + 1);
+				walls.add(new LineSegment(a, b));
+				walls.add(new LineSegment(b, c));
+				walls.add(new LineSegment(c, d));
+				walls.add(new LineSegment(d, a));
+			}
+		}
+		Scenes scene = Scenes.of("enclosed", vertices, walls);
+		assertEquals(0, DelaunayMST.findMSTEdges(scene.points, scene.checker).size);
+	}
+}
\ No newline at end of file
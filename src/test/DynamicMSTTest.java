@@ -0,0 +1,223 @@
+// 動態 MST：隨機的新增、刪除、移動點與新增、移除障礙物，每一步之後都與對目前的點重新執行暴力 Kruskal 的結果相同
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DynamicMSTTest {
+	private static final int STEPS = 150;
+
+	@ParameterizedTest(name = "seed {0}")
+	@ValueSource(longs = { 1, 2, 3, 4 })
+	void randomEditsMatchKruskal(long seed) {
+		run(new Random(seed), false);
+	}
+
+	@ParameterizedTest(name = "seed {0}")
+	@ValueSource(longs = { 5, 6, 7, 8 })
+	void integerGridEditsMatchKruskal(long seed) {
+		run(new Random(seed), true);
+	}
+
+	/** 點較多的場景中移除一道長牆與數條短障礙物：樹連通，只列舉障礙物附近的點對 */
+	@Test
+	void removeObstaclesFromConnectedTree() {
+		Scenes initial = Scenes.random(11, 400, 20);
+		List<Point> start = new ArrayList<>();
+		for (int i = 0; i < initial.points.size; i++) {
+			start.add(initial.points.point(i));
+		}
+		List<LineSegment> obstacles = new ArrayList<>(initial.obstacles);
+		LineSegment wall = new LineSegment(new Point(50.5, -1), new Point(50.5, 90));
+		obstacles.add(wall);
+		DynamicMST mst = new DynamicMST(start, obstacles);
+		List<Integer> ids = new ArrayList<>();
+		for (int id = 0; id < start.size(); id++) {
+			ids.add(id);
+		}
+		while (!obstacles.isEmpty()) {
+			LineSegment s = obstacles.remove(obstacles.size() - 1);
+			mst.removeObstacle(s);
+			assertMatches(mst, ids, obstacles, "removeObstacle " + s.p1 + "-" + s.p2);
+		}
+	}
+
+	/** 點被四面牆圍住時樹不連通：移除其中一面牆後，被隔開的點必須接回樹上 */
+	@Test
+	void removeObstacleReconnectsEnclosedPoint() {
+		List<Point> start = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < 6; j++) {
+				start.add(new Point(10 * i + 0.3 * j, 10 * j + 0.2 * i));
+			}
+		}
+		Point a = new Point(19, 19), b = new Point(21, 19), c = new Point(21, 21), d = new Point(19, 21);
+		start.add(new Point(20, 20));
+		List<LineSegment> obstacles = new ArrayList<>(List.of(new LineSegment(a, b), new LineSegment(b, c), new LineSegment(c, d), new LineSegment(d, a)));
+		DynamicMST mst = new DynamicMST(start, obstacles);
+		List<Integer> ids = new ArrayList<>();
+		for (int id = 0; id < start.size(); id++) {
+			ids.add(id);
+		}
+		assertMatches(mst, ids, obstacles, "初始");
+		assertEquals(start.size() - 2, mst.edges().size());
+		for (int k = 0; k < 4; k++) {
+			LineSegment s = obstacles.remove(0);
+			mst.removeObstacle(s);
+			assertMatches(mst, ids, obstacles, "removeObstacle " + s.p1 + "-" + s.p2);
+		}
+	}
+
+	/**
+	 * 端點與障礙物只差 1e-12（外接矩形不重疊，但在方向的容許誤差內）：新增時樹邊 (0,0)-(1,0) 被擋住，移除後必須接回。
+	 * 相距很遠的一對幾乎重合的點也會被近乎共線的障礙物以容許誤差擋住（見 GeometryUtils.doIntersect），移除時不能只列舉障礙物附近的點。
+	 */
+	@Test
+	void nearTouchObstacleMatchesKruskal() {
+		List<Point> start = List.of(new Point(0, 0), new Point(1, 0), new Point(0, 5));
+		DynamicMST mst = new DynamicMST(start, List.of());
+		List<Integer> ids = List.of(0, 1, 2);
+		LineSegment touching = new LineSegment(new Point(1 + 1e-12, 0), new Point(2, 1));
+		mst.addObstacle(touching);
+		assertMatches(mst, ids, List.of(touching), "addObstacle");
+		assertEquals(1, mst.edges().size());
+		mst.removeObstacle(touching);
+		assertMatches(mst, ids, List.of(), "removeObstacle");
+		assertEquals(2, mst.edges().size());
+
+		// 一開始就有障礙物：移除時 (0,0)-(1,0) 的外接矩形與障礙物不重疊，仍須成為候選
+		mst = new DynamicMST(start, List.of(touching));
+		assertMatches(mst, ids, List.of(touching), "初始");
+		mst.removeObstacle(touching);
+		assertMatches(mst, ids, List.of(), "removeObstacle");
+
+		// 另一條遠處的障礙物使可見性檢查的網格格子涵蓋 x = 100，遠處的點對才會與 (0,0)-(1,0) 比較
+		List<Point> far = List.of(new Point(100, 0.995e-9), new Point(100.000000001, 1.0051e-9), new Point(100, 1));
+		LineSegment collinear = new LineSegment(new Point(0, 0), new Point(1, 0));
+		LineSegment distant = new LineSegment(new Point(300, 300), new Point(301, 301));
+		assertTrue(GeometryUtils.doIntersect(100, 0.995e-9, 100.000000001, 1.0051e-9, 0, 0, 1, 0));
+		mst = new DynamicMST(far, List.of(distant));
+		mst.addObstacle(collinear);
+		assertMatches(mst, ids, List.of(distant, collinear), "addObstacle");
+		mst.removeObstacle(collinear);
+		assertMatches(mst, ids, List.of(distant), "removeObstacle");
+		mst = new DynamicMST(far, List.of(distant, collinear));
+		assertMatches(mst, ids, List.of(distant, collinear), "初始");
+		mst.removeObstacle(collinear);
+		assertMatches(mst, ids, List.of(distant), "removeObstacle");
+	}
+
+	private static void run(Random r, boolean grid) {
+		Scenes initial = grid ? Scenes.integerGrid(r.nextLong(), 30, 6, 12) : Scenes.random(r.nextLong(), 30, 6);
+		List<Point> start = new ArrayList<>();
+		for (int i = 0; i < initial.points.size; i++) {
+			start.add(initial.points.point(i));
+		}
+		DynamicMST mst = new DynamicMST(start, initial.obstacles);
+
+		// 以編號順序存放仍存在的點；座標不重複（重複的點在點集合中只算一次）
+		List<Integer> ids = new ArrayList<>();
+		Set<Point> occupied = new HashSet<>(start);
+		for (int id = 0; id < start.size(); id++) {
+			ids.add(id);
+		}
+		List<LineSegment> obstacles = new ArrayList<>(initial.obstacles);
+		assertMatches(mst, ids, obstacles, "初始");
+
+		for (int step = 0; step < STEPS; step++) {
+			String op;
+			switch (r.nextInt(5)) {
+			case 0: {
+				Point p = freePoint(r, grid, occupied);
+				ids.add(mst.insertPoint(p));
+				op = "insertPoint " + p;
+				break;
+			}
+			case 1: {
+				if (ids.size() < 2) {
+					continue;
+				}
+				int id = ids.remove(r.nextInt(ids.size()));
+				occupied.remove(mst.node(id).point);
+				mst.deletePoint(id);
+				op = "deletePoint " + id;
+				break;
+			}
+			case 2: {
+				if (ids.isEmpty()) {
+					continue;
+				}
+				int id = ids.get(r.nextInt(ids.size()));
+				occupied.remove(mst.node(id).point);
+				Point p = freePoint(r, grid, occupied);
+				mst.movePoint(id, p);
+				op = "movePoint " + id + " " + p;
+				break;
+			}
+			case 3: {
+				LineSegment s = randomSegment(r, grid);
+				obstacles.add(s);
+				mst.addObstacle(s);
+				op = "addObstacle " + s.p1 + "-" + s.p2;
+				break;
+			}
+			default: {
+				if (obstacles.isEmpty()) {
+					continue;
+				}
+				LineSegment s = obstacles.remove(r.nextInt(obstacles.size()));
+				mst.removeObstacle(s);
+				op = "removeObstacle " + s.p1 + "-" + s.p2;
+			}
+			}
+			assertMatches(mst, ids, obstacles, "第 " + step + " 步 " + op);
+		}
+	}
+
+	/** 動態 MST 的邊依「存在的點在編號順序中的位置」重新編號後，須與暴力 Kruskal 逐條相同 */
+	private static void assertMatches(DynamicMST mst, List<Integer> ids, List<LineSegment> obstacles, String message) {
+		List<Point> live = new ArrayList<>();
+		Map<Node, Integer> position = new IdentityHashMap<>();
+		for (int id : ids.stream().sorted().toList()) {
+			position.put(mst.node(id), live.size());
+			live.add(mst.node(id).point);
+		}
+		Scenes expected = Scenes.of("dynamic", live, new ArrayList<>(obstacles));
+
+		List<String> actual = new ArrayList<>();
+		for (Edge e : mst.edges()) {
+			actual.add(Scenes.entry(position.get(e.source), position.get(e.target), e.weight));
+		}
+		assertEquals(expected.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), actual, message);
+		assertEquals(live.size(), mst.size(), message);
+	}
+
+	private static Point freePoint(Random r, boolean grid, Set<Point> occupied) {
+		while (true) {
+			Point p = grid ? new Point(r.nextInt(12), r.nextInt(12)) : new Point(r.nextDouble() * 100, r.nextDouble() * 100);
+			if (occupied.add(p)) {
+				return p;
+			}
+		}
+	}
+
+	private static LineSegment randomSegment(Random r, boolean grid) {
+		if (grid) {
+			int x = r.nextInt(12), y = r.nextInt(12);
+			return new LineSegment(new Point(x, y), new Point(x + r.nextInt(7) - 3, y + r.nextInt(7) - 3));
+		}
+		double x = r.nextDouble() * 100, y = r.nextDouble() * 100;
+		return new LineSegment(new Point(x, y), new Point(x + r.nextGaussian() * 10, y + r.nextGaussian() * 10));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+// Filter-Kruskal：與暴力 Kruskal 逐邊相同（包含權重相同時依 (i, j) 決定的順序）
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class FilterKruskalTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void matchesKruskal(Scenes scene) {
+		assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), scene.signature(FilterKruskal.findMST(scene.points, scene.checker)));
+	}
+
+	/** 整數格點上所有相鄰點的距離都相同：分割時大量權重等於樞紐，超過基本情形的大小後仍須依 (i, j) 排序 */
+	@Test
+	void equalWeightsAboveBaseCase() {
+		List<Point> vertices = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			for (int j = 0; j < 12; j++) {
+				vertices.add(new Point(i, j));
+			}
+		}
+		Scenes scene = Scenes.of("grid 12x12", vertices, List.of());
+		assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), scene.signature(FilterKruskal.findMST(scene.points, scene.checker)));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+// 線段相交：外接矩形的提早排除不可改變容許誤差下的結果，批次（向量化）版本與逐一呼叫 doIntersect 相同
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GeometryUtilsTest {
+	/** 端點與另一條線段只差 1e-12：依方向的容許誤差視為碰到，外接矩形雖然不重疊也不能排除 */
+	@Test
+	void nearTouchWithDisjointBoxesStillIntersects() {
+		assertTrue(GeometryUtils.doIntersect(0, 0, 1, 0, 1 + 1e-12, 0, 2, 1));
+		assertTrue(GeometryUtils.doIntersect(1 + 1e-12, 0, 2, 1, 0, 0, 1, 0));
+		assertTrue(GeometryUtils.doIntersect(new LineSegment(new Point(0, 0), new Point(1, 0)), new LineSegment(new Point(1 + 1e-12, 0), new Point(2, 1))));
+
+		// 批次版本：相交的線段放在一整個向量之後，確保經過向量化的路徑
+		int m = 17;
+		double[] x1 = new double[m], y1 = new double[m], x2 = new double[m], y2 = new double[m];
+		for (int k = 0; k < m; k++) {
+			x1[k] = 5;
+			y1[k] = 5 + k;
+			x2[k] = 6;
+			y2[k] = 6 + k;
+		}
+		x1[m - 2] = 1 + 1e-12;
+		y1[m - 2] = 0;
+		x2[m - 2] = 2;
+		y2[m - 2] = 1;
+		assertEquals(m - 2, GeometryUtils.firstIntersection(0, 0, 1, 0, x1, y1, x2, y2, 0, m));
+		assertEquals(m - 2, GeometryUtils.firstIntersectionScalar(0, 0, 1, 0, x1, y1, x2, y2, 0, m));
+	}
+
+	/**
+	 * 與不做外接矩形排除的方向測試比較；座標都是有限值，包含大量幾乎碰到的端點。 排除只會把相交改為不相交，且只發生在夾角小於約 1/512 弧度、
+	 * 相距超過容許誤差卻被共線判斷視為相交的近乎平行線段（見 BOX_REJECT_EPSILON）。
+	 */
+	@Test
+	void boxRejectKeepsOrientationSemantics() {
+		Random r = new Random(1);
+		for (int t = 0; t < 200000; t++) {
+			double[] v = new double[8];
+			for (int i = 0; i < 8; i++) {
+				v[i] = t % 2 == 0 ? r.nextInt(4) + (r.nextInt(3) - 1) * Math.pow(10, -6 - r.nextInt(8)) : r.nextDouble() * 10;
+			}
+			boolean expected = GeometryUtils.intersectsByOrientation(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+			if (GeometryUtils.doIntersect(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]) != expected) {
+				assertTrue(expected && nearlyParallel(v), Arrays.toString(v));
+			}
+		}
+	}
+
+	/**
+	 * 近乎平行、端點幾乎相接的線段（沿共同方向的間距、垂直偏移與夾角都在容許誤差附近）：外接矩形間距在門檻內時與 intersectsByOrientation 完全相同，
+	 * 超過門檻時一律不相交；批次版本與逐一呼叫相同。
+	 */
+	@Test
+	void nearlyParallelNearTouchMatchesOrientationTest() {
+		// doIntersect 文件中的例子：近乎共線、相距 0.48，只有方向測試判為相交
+		assertTrue(GeometryUtils.intersectsByOrientation(0, 0, 1, 0, 1.48, 9.9e-10, 2.48, 3e-9));
+		assertFalse(GeometryUtils.doIntersect(0, 0, 1, 0, 1.48, 9.9e-10, 2.48, 3e-9));
+
+		Random r = new Random(3);
+		int m = 16;
+		double[] x1 = new double[m], y1 = new double[m], x2 = new double[m], y2 = new double[m];
+		Arrays.fill(x1, 100);
+		Arrays.fill(y1, 100);
+		Arrays.fill(x2, 101);
+		Arrays.fill(y2, 101);
+		int near = 0, rejected = 0;
+		for (int t = 0; t < 200000; t++) {
+			double angle = r.nextDouble() * 2 * Math.PI, tilt = (r.nextInt(3) - 1) * Math.pow(10, -7 - r.nextInt(9));
+			double length1 = 0.01 + r.nextDouble() * 10, length2 = 0.01 + r.nextDouble() * 10;
+			double along = (r.nextInt(3) - 1) * Math.pow(10, -r.nextInt(16)), offset = (r.nextInt(3) - 1) * Math.pow(10, -8 - r.nextInt(6));
+			double ux = Math.cos(angle), uy = Math.sin(angle);
+			double px = r.nextInt(5), py = r.nextInt(5), qx = px + length1 * ux, qy = py + length1 * uy;
+			double ax = qx + along * ux - offset * uy, ay = qy + along * uy + offset * ux;
+			double bx = ax + length2 * Math.cos(angle + tilt), by = ay + length2 * Math.sin(angle + tilt);
+			double[] v = { px, py, qx, qy, ax, ay, bx, by };
+
+			boolean expected = GeometryUtils.intersectsByOrientation(px, py, qx, qy, ax, ay, bx, by);
+			boolean actual = GeometryUtils.doIntersect(px, py, qx, qy, ax, ay, bx, by);
+			assertEquals(actual, GeometryUtils.doIntersect(ax, ay, bx, by, px, py, qx, qy), Arrays.toString(v));
+			if (GeometryUtils.boxGap(px, py, qx, qy, ax, ay, bx, by) > GeometryUtils.BOX_REJECT_EPSILON) {
+				assertFalse(actual, Arrays.toString(v));
+				rejected += expected ? 1 : 0;
+			} else {
+				assertEquals(expected, actual, Arrays.toString(v));
+				near += expected ? 1 : 0;
+			}
+
+			int lane = t % m;
+			x1[lane] = ax;
+			y1[lane] = ay;
+			x2[lane] = bx;
+			y2[lane] = by;
+			assertEquals(GeometryUtils.firstIntersectionScalar(px, py, qx, qy, x1, y1, x2, y2, 0, m), GeometryUtils.firstIntersection(px, py, qx, qy, x1, y1, x2, y2, 0, m), Arrays.toString(v));
+			x1[lane] = y1[lane] = 100;
+			x2[lane] = y2[lane] = 101;
+		}
+		// 兩種情形都必須實際出現，測試才有意義
+		assertTrue(near > 0 && rejected > 0, near + " / " + rejected);
+	}
+
+	@Test
+	void batchMatchesScalar() {
+		Random r = new Random(2);
+		int m = 37;
+		double[] x1 = new double[m], y1 = new double[m], x2 = new double[m], y2 = new double[m];
+		for (int t = 0; t < 20000; t++) {
+			boolean grid = t % 2 == 0;
+			for (int k = 0; k < m; k++) {
+				x1[k] = grid ? r.nextInt(6) : r.nextDouble() * 10;
+				y1[k] = grid ? r.nextInt(6) : r.nextDouble() * 10;
+				x2[k] = grid ? r.nextInt(6) : r.nextDouble() * 10;
+				y2[k] = grid ? r.nextInt(6) : r.nextDouble() * 10;
+			}
+			double px = grid ? r.nextInt(6) : r.nextDouble() * 10, py = grid ? r.nextInt(6) : r.nextDouble() * 10;
+			double qx = grid ? r.nextInt(6) : r.nextDouble() * 10, qy = grid ? r.nextInt(6) : r.nextDouble() * 10;
+			int from = r.nextInt(5), to = from + r.nextInt(m - from + 1);
+			assertEquals(GeometryUtils.firstIntersectionScalar(px, py, qx, qy, x1, y1, x2, y2, from, to), GeometryUtils.firstIntersection(px, py, qx, qy, x1, y1, x2, y2, from, to));
+		}
+	}
+
+	/** 兩條線段的方向夾角小於 1/512 弧度（外積不超過兩者長度乘積的 1/512） */
+	private static boolean nearlyParallel(double[] v) {
+		double dx1 = v[2] - v[0], dy1 = v[3] - v[1], dx2 = v[6] - v[4], dy2 = v[7] - v[5];
+		return Math.abs(dx1 * dy2 - dy1 * dx2) <= Math.hypot(dx1, dy1) * Math.hypot(dx2, dy2) / 512;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+// Kruskal：循序與平行產生候選邊的結果都與暴力 Kruskal 逐邊相同，與執行緒數無關
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class KruskalMSTTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void sequential(Scenes scene) {
+		assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(KruskalMST.findMSTEdges(scene.points, scene.checker)));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void parallel(Scenes scene) {
+		for (int threads : new int[] { 1, 2, 4 }) {
+			assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), scene.signature(KruskalMST.findMST(scene.points, scene.checker, threads)), threads + " 個執行緒");
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+// 批次處理：輸入行的解析（分隔符號、註解、數字個數）與檔案讀取，以及超出範圍的 --root 使工作失敗而不是默默改用第 0 個點
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class OrthogonalTreeBatchTest {
+	@Test
+	void parseLine() {
+		assertParsed("1,2", 1, 2);
+		assertParsed("  1.5 \t-2e3 ", 1.5, -2000);
+		assertParsed("1, 2, 3 ,4", 1, 2, 3, 4);
+		assertParsed("");
+		assertParsed("   ");
+		assertParsed("# 註解");
+		assertParsed("  # 註解 1,2");
+		assertParsed("1,2 # 行尾註解", 1, 2);
+		assertParsed("1,2,3,4# 緊接著的註解 5", 1, 2, 3, 4);
+		assertEquals(-1, OrthogonalTreeBatch.parseLine("1,2,3,4,5", new double[4]));
+		assertThrows(NumberFormatException.class, () -> OrthogonalTreeBatch.parseLine("1,x", new double[4]));
+	}
+
+	@Test
+	void readInput() throws IOException {
+		Path file = Files.createTempFile("batch", ".csv");
+		try {
+			Files.write(file, List.of("# 點與障礙物", "0,0", "", "3 4 # 行尾註解", "0,1,2,1", "1,1"), StandardCharsets.UTF_8);
+			List<Point> points = new ArrayList<>();
+			List<LineSegment> obstacles = new ArrayList<>();
+			OrthogonalTreeBatch.readInput(file, points, obstacles);
+			assertEquals(List.of(new Point(0, 0), new Point(3, 4), new Point(1, 1)), points);
+			assertEquals(1, obstacles.size());
+			assertEquals(new Point(0, 1), obstacles.get(0).p1);
+			assertEquals(new Point(2, 1), obstacles.get(0).p2);
+
+			Files.write(file, List.of("0,0", "1,2,3"), StandardCharsets.UTF_8);
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> OrthogonalTreeBatch.readInput(file, new ArrayList<>(), new ArrayList<>()));
+			assertTrue(e.getMessage().contains(":2:"), e.getMessage());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/** 重複的點只算一次：3 個不同的點時 --root 2 可用，--root 3 使工作失敗且不寫出任何檔案 */
+	@Test
+	void rootOutOfRangeFailsTheJob() throws IOException {
+		Path dir = Files.createTempDirectory("batch");
+		Path input = dir.resolve("job.csv");
+		try {
+			Files.write(input, List.of("0,0", "1,0", "0,0", "2,1"), StandardCharsets.UTF_8);
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> runJob(input, dir, 3));
+			assertTrue(e.getMessage().contains("--root 3"), e.getMessage());
+			assertFalse(Files.exists(dir.resolve("job.layout.csv")));
+
+			runJob(input, dir, 2);
+			assertEquals(3, Files.readAllLines(dir.resolve("job.layout.csv")).size());
+		} finally {
+			try (Stream<Path> files = Files.list(dir)) {
+				for (Path p : files.toList()) {
+					Files.delete(p);
+				}
+			}
+			Files.delete(dir);
+		}
+	}
+
+	private static void runJob(Path input, Path outputDir, int rootIndex) throws IOException {
+		OrthogonalTreeBatch.runJob(input, outputDir, List.of(), rootIndex, false, false, false, 0, false, null, 1000, false);
+	}
+
+	private static void assertParsed(String line, double... expected) {
+		double[] values = new double[4];
+		int count = OrthogonalTreeBatch.parseLine(line, values);
+		assertEquals(expected.length, count, line);
+		assertArrayEquals(expected, Arrays.copyOf(values, count), line);
+	}
+}
\ No newline at end of file
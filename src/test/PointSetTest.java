@@ -0,0 +1,38 @@
+// 點集合的編號只存於點集合中：同一組節點可以同時屬於多個點集合，建立新的點集合不影響舊的
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PointSetTest {
+	@Test
+	void nodesCanBelongToSeveralPointSets() {
+		List<Point> vertices = List.of(new Point(0, 0), new Point(1, 2), new Point(3, 1), new Point(1, 2));
+		Map<Point, Node> pointToNodeMap = new LinkedHashMap<>();
+		for (Point p : vertices) {
+			pointToNodeMap.putIfAbsent(p, new Node(p));
+		}
+		PointSet first = PointSet.of(vertices, pointToNodeMap);
+		List<Node> reversed = new ArrayList<>(pointToNodeMap.values());
+		Collections.reverse(reversed);
+		PointSet second = PointSet.of(reversed);
+
+		assertEquals(3, first.size);
+		assertEquals(3, second.size);
+		for (int i = 0; i < first.size; i++) {
+			Node node = first.nodes[i];
+			assertEquals(i, first.indexOf(node));
+			assertEquals(2 - i, second.indexOf(node));
+			assertSame(node, second.nodes[second.indexOf(node)]);
+		}
+		assertEquals(-1, first.indexOf(new Node(new Point(0, 0))));
+		assertEquals(-1, new PointSet(first.xs, first.ys, null).indexOf(first.nodes[0]));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+// 直角（L1）MST：總權重與邊數和「列舉全部可連線點對後做曼哈頓距離的 Kruskal」相同，每條邊都有不被擋住的 L 形路徑
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class RectilinearMSTTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void totalWeightMatchesBruteForce(Scenes scene) {
+		EdgeList mst = RectilinearMST.findMSTEdges(scene.points, scene.checker);
+		double total = 0;
+		for (int k = 0; k < mst.size; k++) {
+			int a = mst.src[k], b = mst.dst[k];
+			assertTrue(routable(scene, a, b), a + "-" + b + " 沒有不被擋住的 L 形路徑");
+			assertEquals(scene.points.manhattan(a, b), mst.weight[k]);
+			assertTrue(k == 0 || mst.weight[k - 1] <= mst.weight[k], "邊未依權重排列");
+			total += mst.weight[k];
+		}
+
+		double[] expected = bruteForce(scene);
+		assertEquals(expected[1], mst.size);
+		// 權重相同的邊可能選到不同的一條，加總的順序也不同，只比較總和
+		assertEquals(expected[0], total, 1e-9 * Math.max(1, expected[0]));
+	}
+
+	/** 逐條檢查障礙物：兩條 L 形路徑（先水平或先垂直）之一的兩段都不與任何障礙物相交 */
+	private static boolean routable(Scenes scene, int i, int j) {
+		double x1 = scene.points.xs[i], y1 = scene.points.ys[i], x2 = scene.points.xs[j], y2 = scene.points.ys[j];
+		return clear(scene, x1, y1, x2, y1) && clear(scene, x2, y1, x2, y2) || clear(scene, x1, y1, x1, y2) && clear(scene, x1, y2, x2, y2);
+	}
+
+	private static boolean clear(Scenes scene, double x1, double y1, double x2, double y2) {
+		for (LineSegment s : scene.obstacles) {
+			if (GeometryUtils.doIntersect(x1, y1, x2, y2, s.p1.x, s.p1.y, s.p2.x, s.p2.y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** 暴力 Kruskal（曼哈頓距離）；回傳 {總權重, 邊數} */
+	private static double[] bruteForce(Scenes scene) {
+		int n = scene.points.size;
+		List<int[]> pairs = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				if (routable(scene, i, j)) {
+					pairs.add(new int[] { i, j });
+				}
+			}
+		}
+		pairs.sort(Comparator.comparingDouble(p -> scene.points.manhattan(p[0], p[1])));
+		int[] parent = new int[n];
+		Arrays.setAll(parent, i -> i);
+		double total = 0;
+		int edges = 0;
+		for (int[] p : pairs) {
+			int a = root(parent, p[0]), b = root(parent, p[1]);
+			if (a != b) {
+				parent[a] = b;
+				total += scene.points.manhattan(p[0], p[1]);
+				edges++;
+			}
+		}
+		return new double[] { total, edges };
+	}
+
+	private static int root(int[] parent, int v) {
+		while (parent[v] != v) {
+			v = parent[v] = parent[parent[v]];
+		}
+		return v;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+// 測試用的場景：隨機實數座標，以及整數格點（大量共線、等長與端點碰到障礙物的退化情形）；另附不經任何索引的暴力 Kruskal 作為標準答案
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+final class Scenes {
+	final String name;
+	final PointSet points;
+	final List<LineSegment> obstacles;
+	final VisibilityChecker checker;
+
+	private Scenes(String name, List<Point> vertices, List<LineSegment> obstacles) {
+		Map<Point, Node> pointToNodeMap = new LinkedHashMap<>();
+		for (Point p : vertices) {
+			pointToNodeMap.putIfAbsent(p, new Node(p));
+		}
+		this.name = name;
+		this.points = PointSet.of(vertices, pointToNodeMap);
+		this.obstacles = obstacles;
+		this.checker = new VisibilityChecker(obstacles);
+	}
+
+	/** 以指定的點（重複的點只取第一個）與障礙物建立 */
+	static Scenes of(String name, List<Point> vertices, List<LineSegment> obstacles) {
+		return new Scenes(name, vertices, obstacles);
+	}
+
+	/** 座標為 [0, 100) 的隨機實數，障礙物長度約為 10 */
+	static Scenes random(long seed, int n, int m) {
+		Random r = new Random(seed);
+		List<Point> vertices = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			vertices.add(new Point(r.nextDouble() * 100, r.nextDouble() * 100));
+		}
+		List<LineSegment> obstacles = new ArrayList<>();
+		for (int k = 0; k < m; k++) {
+			double x = r.nextDouble() * 100, y = r.nextDouble() * 100;
+			obstacles.add(new LineSegment(new Point(x, y), new Point(x + r.nextGaussian() * 10, y + r.nextGaussian() * 10)));
+		}
+		return new Scenes("random(seed=" + seed + ", n=" + n + ", m=" + m + ")", vertices, obstacles);
+	}
+
+	/** 座標為 [0, size) 的整數格點；障礙物的端點也是格點，常常正好經過點或與點對共線 */
+	static Scenes integerGrid(long seed, int n, int m, int size) {
+		Random r = new Random(seed);
+		List<Point> vertices = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			vertices.add(new Point(r.nextInt(size), r.nextInt(size)));
+		}
+		List<LineSegment> obstacles = new ArrayList<>();
+		for (int k = 0; k < m; k++) {
+			int x = r.nextInt(size), y = r.nextInt(size);
+			obstacles.add(new LineSegment(new Point(x, y), new Point(x + r.nextInt(7) - 3, y + r.nextInt(7) - 3)));
+		}
+		return new Scenes("integerGrid(seed=" + seed + ", n=" + n + ", m=" + m + ", size=" + size + ")", vertices, obstacles);
+	}
+
+	/** 參數化測試使用的場景：隨機與整數格點各半，包含只有一兩個點與完全沒有障礙物的情形 */
+	static Stream<Scenes> all() {
+		List<Scenes> scenes = new ArrayList<>();
+		scenes.add(random(0, 1, 0));
+		scenes.add(random(1, 2, 3));
+		scenes.add(integerGrid(2, 3, 0, 2));
+		for (int seed = 0; seed < 10; seed++) {
+			scenes.add(random(100 + seed, 20 + 15 * seed, 4 * seed));
+			scenes.add(integerGrid(200 + seed, 20 + 15 * seed, 4 * seed, 6 + 2 * seed));
+		}
+		return scenes.stream();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/** 逐一檢查每條障礙物（不使用網格索引） */
+	boolean isVisible(int i, int j) {
+		for (LineSegment s : obstacles) {
+			if (GeometryUtils.doIntersect(points.xs[i], points.ys[i], points.xs[j], points.ys[j], s.p1.x, s.p1.y, s.p2.x, s.p2.y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** 暴力 Kruskal：列舉所有點對並逐條檢查障礙物，依 (權重, i, j) 排序後合併；回傳值的格式同 {@link #signature(EdgeList)} */
+	List<String> bruteForceKruskal(VisibilityGraph.Weight weight) {
+		int n = points.size;
+		List<int[]> pairs = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				if (isVisible(i, j)) {
+					pairs.add(new int[] { i, j });
+				}
+			}
+		}
+		Comparator<int[]> byWeight = Comparator.comparingDouble(p -> weight.weight(points, p[0], p[1]));
+		pairs.sort(byWeight.thenComparingInt(p -> p[0]).thenComparingInt(p -> p[1]));
+
+		int[] parent = new int[n];
+		Arrays.setAll(parent, i -> i);
+		List<String> mst = new ArrayList<>();
+		for (int[] p : pairs) {
+			int a = root(parent, p[0]), b = root(parent, p[1]);
+			if (a != b) {
+				parent[a] = b;
+				mst.add(entry(p[0], p[1], weight.weight(points, p[0], p[1])));
+			}
+		}
+		return mst;
+	}
+
+	private static int root(int[] parent, int v) {
+		while (parent[v] != v) {
+			v = parent[v] = parent[parent[v]];
+		}
+		return v;
+	}
+
+	/** 依序列出每條邊的 "i-j weight"（i < j，權重以完整精度表示），順序不同也視為不同 */
+	static List<String> signature(EdgeList edges) {
+		List<String> list = new ArrayList<>();
+		for (int k = 0; k < edges.size; k++) {
+			list.add(entry(edges.src[k], edges.dst[k], edges.weight[k]));
+		}
+		return list;
+	}
+
+	List<String> signature(List<Edge> edges) {
+		List<String> list = new ArrayList<>();
+		for (Edge e : edges) {
+			list.add(entry(points.indexOf(e.source), points.indexOf(e.target), e.weight));
+		}
+		return list;
+	}
+
+	static String entry(int a, int b, double weight) {
+		return Math.min(a, b) + "-" + Math.max(a, b) + " " + weight;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+// 平行佈局：各棵樹平行計算的結果與循序版本逐位元相同，與執行緒數無關；取消後不會算完整個森林
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TreeLayoutCalculatorTest {
+	/** 超過平行處理的門檻（4096 個點），且有許多大小不一的樹 */
+	private static final int N = 20000;
+
+	@Test
+	void randomForestIsIdenticalAtAnyThreadCount() {
+		Random r = new Random(1);
+		PointSet points = randomPoints(r, N);
+		EdgeList edges = new EdgeList(points, N);
+		for (int v = 1; v < N; v++) {
+			// 約 2% 的點開始新的樹；其餘接到前面任意一點或前一點（產生又寬又深的樹）
+			if (r.nextInt(50) != 0) {
+				int parent = r.nextBoolean() ? r.nextInt(v) : v - 1;
+				edges.add(parent, v, points.weight(parent, v));
+			}
+		}
+		assertSameLayout(RootedForest.build(points, edges, r.nextInt(N)));
+	}
+
+	@Test
+	void singletonTreesAreIdenticalAtAnyThreadCount() {
+		PointSet points = randomPoints(new Random(2), N);
+		assertSameLayout(RootedForest.build(points, new EdgeList(points, 0), -1));
+	}
+
+	/** 取消旗標在檢查若干次之後成立：兩種佈局引擎都丟出 CancellationException，且不會檢查到每一棵樹 */
+	@Test
+	void cancelledLayoutStopsEarly() {
+		PointSet points = randomPoints(new Random(3), N);
+		RootedForest forest = RootedForest.build(points, new EdgeList(points, 0), -1);
+		for (int threads : new int[] { 1, 4 }) {
+			AtomicInteger checks = new AtomicInteger();
+			assertThrows(CancellationException.class, () -> TreeLayoutCalculator.layout(forest, 1000, new double[N], new double[N], threads, () -> checks.incrementAndGet() > 100));
+			assertTrue(checks.get() < N, threads + " 個執行緒檢查了 " + checks.get() + " 次");
+		}
+		AtomicInteger checks = new AtomicInteger();
+		assertThrows(CancellationException.class, () -> BuchheimTreeLayout.layout(forest, 1000, new double[N], new double[N], () -> checks.incrementAndGet() > 100));
+		assertTrue(checks.get() < N);
+		assertThrows(CancellationException.class, () -> TreeLayoutModel.compute(points, List.of(), null, 1000, false, () -> true));
+	}
+
+	private static void assertSameLayout(RootedForest forest) {
+		int n = forest.parent.length;
+		assertTrue(forest.treeCount() > 1);
+		double[] x = new double[n], y = new double[n];
+		TreeLayoutCalculator.layout(forest, 1000, x, y, 1);
+		for (int threads : new int[] { 2, 3, 8, 0 }) {
+			double[] px = new double[n], py = new double[n];
+			TreeLayoutCalculator.layout(forest, 1000, px, py, threads);
+			assertArrayEquals(x, px, threads + " 個執行緒");
+			assertArrayEquals(y, py, threads + " 個執行緒");
+		}
+	}
+
+	private static PointSet randomPoints(Random r, int n) {
+		double[] xs = new double[n], ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = r.nextDouble() * 1000;
+			ys[i] = r.nextDouble() * 1000;
+		}
+		return new PointSet(xs, ys, null);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+// 可見性圖快取：磁碟命中的結果與 KruskalMST.buildEdgeList 相同；損毀的快取檔視為未命中並重新寫入；兩層都依最近使用的順序淘汰
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VisibilityGraphCacheTest {
+	private Path directory;
+
+	@BeforeEach
+	void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("visibility-cache");
+	}
+
+	@AfterEach
+	void deleteDirectory() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	@Test
+	void diskHitMatchesBuildEdgeList() throws IOException {
+		for (Scenes scene : List.of(Scenes.random(11, 150, 20), Scenes.integerGrid(12, 120, 15, 12), Scenes.random(13, 1, 0))) {
+			List<String> expected = Scenes.signature(KruskalMST.buildEdgeList(scene.points, scene.checker));
+			VisibilityGraphCache writer = new VisibilityGraphCache(directory, Long.MAX_VALUE, 0);
+			assertEquals(expected, Scenes.signature(writer.visibleEdges(scene.points, scene.checker)), scene.name);
+			assertEquals(statistics(0, 0, 1), writer.statistics());
+
+			// 新的快取（記憶體層是空的）只能從磁碟讀到
+			VisibilityGraphCache reader = new VisibilityGraphCache(directory, Long.MAX_VALUE, 0);
+			assertEquals(expected, Scenes.signature(reader.visibleEdges(scene.points, scene.checker)), scene.name);
+			assertEquals(statistics(0, 1, 0), reader.statistics());
+		}
+	}
+
+	@Test
+	void corruptFileIsMiss() throws IOException {
+		Scenes scene = Scenes.random(21, 120, 12);
+		List<String> expected = Scenes.signature(KruskalMST.buildEdgeList(scene.points, scene.checker));
+		new VisibilityGraphCache(directory, Long.MAX_VALUE, 0).visibleEdges(scene.points, scene.checker);
+		Path file = cacheFile(scene);
+		byte[] data = Files.readAllBytes(file);
+
+		// 鍵正確但點對資料被截斷，或中間的位元組被改掉
+		byte[] truncated = Arrays.copyOf(data, data.length - 3);
+		byte[] flipped = data.clone();
+		flipped[data.length / 2] ^= (byte) 0xFF;
+		flipped[data.length / 2 + 1] ^= (byte) 0x80;
+		for (byte[] corrupt : List.of(truncated, flipped)) {
+			Files.write(file, corrupt);
+			VisibilityGraphCache cache = new VisibilityGraphCache(directory, Long.MAX_VALUE, 0);
+			assertEquals(expected, Scenes.signature(cache.visibleEdges(scene.points, scene.checker)));
+			assertEquals(statistics(0, 0, 1), cache.statistics());
+			// 重新計算後覆寫為正確的內容
+			assertEquals(data.length, Files.size(file));
+		}
+		VisibilityGraphCache cache = new VisibilityGraphCache(directory, Long.MAX_VALUE, 0);
+		assertEquals(expected, Scenes.signature(cache.visibleEdges(scene.points, scene.checker)));
+		assertEquals(statistics(0, 1, 0), cache.statistics());
+	}
+
+	@Test
+	void diskEvictsLeastRecentlyUsed() throws IOException {
+		Scenes a = Scenes.random(31, 60, 5), b = Scenes.random(32, 60, 5), c = Scenes.random(33, 60, 5);
+		long limit = encodedSize(a) + encodedSize(b) + encodedSize(c) - 1;
+		VisibilityGraphCache cache = new VisibilityGraphCache(directory, limit, 0);
+		cache.visibleEdges(a.points, a.checker);
+		cache.visibleEdges(b.points, b.checker);
+		// 檔案時間的精度可能很粗，直接設定：a 比 b 舊，之後讀取 a 使它成為最近使用的
+		long now = System.currentTimeMillis();
+		Files.setLastModifiedTime(cacheFile(a), FileTime.fromMillis(now - 7_200_000));
+		Files.setLastModifiedTime(cacheFile(b), FileTime.fromMillis(now - 3_600_000));
+		new VisibilityGraphCache(directory, limit, 0).visibleEdges(a.points, a.checker);
+
+		cache.visibleEdges(c.points, c.checker);
+		assertTrue(Files.exists(cacheFile(a)));
+		assertFalse(Files.exists(cacheFile(b)));
+		assertTrue(Files.exists(cacheFile(c)));
+	}
+
+	@Test
+	void memoryEvictsLeastRecentlyUsed() throws IOException {
+		Scenes a = Scenes.random(41, 60, 5), b = Scenes.random(42, 60, 5), c = Scenes.random(43, 60, 5);
+		VisibilityGraphCache cache = new VisibilityGraphCache(null, 0, encodedSize(a) + encodedSize(b) + encodedSize(c) - 1);
+		cache.visibleEdges(a.points, a.checker);
+		cache.visibleEdges(b.points, b.checker);
+		cache.visibleEdges(a.points, a.checker);
+		cache.visibleEdges(c.points, c.checker);
+		assertEquals(statistics(1, 0, 3), cache.statistics());
+
+		cache.visibleEdges(a.points, a.checker);
+		cache.visibleEdges(c.points, c.checker);
+		assertEquals(statistics(3, 0, 3), cache.statistics());
+		List<String> expected = Scenes.signature(KruskalMST.buildEdgeList(b.points, b.checker));
+		assertEquals(expected, Scenes.signature(cache.visibleEdges(b.points, b.checker)));
+		assertEquals(statistics(3, 0, 4), cache.statistics());
+	}
+
+	private Path cacheFile(Scenes scene) {
+		StringBuilder name = new StringBuilder();
+		for (byte x : VisibilityGraphCache.key(scene.points, scene.checker)) {
+			name.append(String.format("%02x", x));
+		}
+		return directory.resolve(name + VisibilityGraphCache.SUFFIX);
+	}
+
+	private static long encodedSize(Scenes scene) {
+		return VisibilityGraphCache.encode(KruskalMST.buildEdgeList(scene.points, scene.checker), VisibilityGraphCache.key(scene.points, scene.checker)).length;
+	}
+
+	private static String statistics(long memoryHits, long diskHits, long misses) {
+		return "可見性圖快取：記憶體命中 " + memoryHits + " 次，磁碟命中 " + diskHits + " 次，未命中 " + misses + " 次";
+	}
+}
\ No newline at end of file
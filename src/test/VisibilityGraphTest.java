@@ -0,0 +1,75 @@
+// 可見性圖：每個點對的可見性與逐條檢查障礙物相同，換用不同的權重函數後的 MST 與暴力 Kruskal 相同
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class VisibilityGraphTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void visiblePairs(Scenes scene) {
+		for (int threads : new int[] { 1, 4 }) {
+			VisibilityGraph graph = VisibilityGraph.build(scene.points, scene.checker, threads);
+			long pairs = 0;
+			for (int i = 0; i < scene.points.size; i++) {
+				assertFalse(graph.isVisible(i, i));
+				for (int j = i + 1; j < scene.points.size; j++) {
+					boolean expected = scene.isVisible(i, j);
+					assertEquals(expected, graph.isVisible(i, j), i + "-" + j);
+					assertEquals(expected, graph.isVisible(j, i), j + "-" + i);
+					pairs += expected ? 1 : 0;
+				}
+			}
+			assertEquals(pairs, graph.pairCount());
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void weights(Scenes scene) {
+		VisibilityGraph graph = VisibilityGraph.build(scene.points, scene.checker, 0);
+		for (VisibilityGraph.Weight weight : List.of(VisibilityGraph.Weight.SQUARED_EUCLIDEAN, VisibilityGraph.Weight.EUCLIDEAN, VisibilityGraph.Weight.MANHATTAN)) {
+			assertEquals(scene.bruteForceKruskal(weight), Scenes.signature(KruskalMST.findMSTEdges(graph, weight)));
+		}
+	}
+
+	/** 每個點都被四面牆圍住，沒有任何可見點對：以鄰接表存放 */
+	@Test
+	void sparseGraphUsesAdjacency() {
+		List<Point> vertices = new ArrayList<>();
+		List<LineSegment> walls = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				vertices.add(new Point(10 * i, 10 * j));
+				Point a = new Point(10 * i - 1, 10 * j - 1), b = new Point(10 * i + 1, 10 * j - 1), c = new Point(10 * i + 1, 10 * j + 1), d = new Point(10 * i - 1, 10 * j + 1);
+				walls.add(new LineSegment(a, b));
+				walls.add(new LineSegment(b, c));
+				walls.add(new LineSegment(c, d));
+				walls.add(new LineSegment(d, a));
+			}
+		}
+		PointSet points = new PointSet(vertices.stream().mapToDouble(p -> p.x).toArray(), vertices.stream().mapToDouble(p -> p.y).toArray(), null);
+		VisibilityGraph graph = VisibilityGraph.build(points, new VisibilityChecker(walls), 1);
+		assertFalse(graph.isDense());
+		assertEquals(0, graph.pairCount());
+		assertEquals(0, KruskalMST.findMSTEdges(graph, VisibilityGraph.Weight.SQUARED_EUCLIDEAN).size);
+	}
+
+	@Test
+	void openSceneIsDense() {
+		Scenes scene = Scenes.random(7, 100, 0);
+		assertTrue(VisibilityGraph.build(scene.points, scene.checker, 1).isDense());
+	}
+}
\ No newline at end of file
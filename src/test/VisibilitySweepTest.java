@@ -0,0 +1,71 @@
+// 旋轉掃描建立可見性圖：其上的 MST 與暴力 Kruskal 逐邊相同（包含邊的順序），與執行緒數無關；點在障礙物所在直線的容許誤差內時，可見的點對仍與 KruskalMST.buildEdgeList 相同
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class VisibilitySweepTest {
+	static Stream<Scenes> scenes() {
+		return Scenes.all();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("scenes")
+	void matchesKruskal(Scenes scene) {
+		for (int threads : new int[] { 1, 4 }) {
+			assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(VisibilitySweep.findMSTEdges(scene.points, scene.checker, threads)), threads + " 個執行緒");
+		}
+	}
+
+	/** 來源點在近乎水平的障礙物下方 1e-12 處：外接矩形不含來源點，但容許誤差讓往上的路徑也被擋住 */
+	@Test
+	void sourceWithinToleranceOfObstacleLine() {
+		List<Point> vertices = List.of(new Point(1, 4), new Point(3, 5), new Point(-1, 6), new Point(1, 2));
+		List<LineSegment> obstacles = List.of(new LineSegment(new Point(2.000000000001, 3.999999999999), new Point(1e-12, 3.999999999999)));
+		assertSameVisiblePairs(Scenes.of("near-touch", vertices, obstacles));
+	}
+
+	/**
+	 * 水平、垂直或只差 1e-12 就水平的障礙物，一半的點放在障礙物內部或端點附近、離所在直線 1e-13 ~ 1e-9 的位置（多半在外接矩形之外）
+	 */
+	@ParameterizedTest(name = "seed {0}")
+	@ValueSource(longs = { 1, 2, 3, 4, 5, 6, 7, 8 })
+	void pointsNearObstacleLines(long seed) {
+		Random r = new Random(seed);
+		List<LineSegment> obstacles = new ArrayList<>();
+		for (int k = 0; k < 12; k++) {
+			double x = r.nextDouble() * 100, y = r.nextDouble() * 100, length = 5 + r.nextDouble() * 10;
+			double tilt = (r.nextInt(3) - 1) * 1e-12;
+			obstacles.add(k % 2 == 0 ? new LineSegment(new Point(x, y), new Point(x + length, y + tilt)) : new LineSegment(new Point(x, y), new Point(x + tilt, y + length)));
+		}
+		List<Point> vertices = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			if (i % 2 == 0) {
+				vertices.add(new Point(r.nextDouble() * 100, r.nextDouble() * 100));
+				continue;
+			}
+			LineSegment s = obstacles.get(r.nextInt(obstacles.size()));
+			double dx = s.p2.x - s.p1.x, dy = s.p2.y - s.p1.y, length = Math.hypot(dx, dy);
+			double t = r.nextInt(4) == 0 ? r.nextInt(2) + (r.nextDouble() - 0.5) * 1e-6 : r.nextDouble();
+			double offset = (r.nextBoolean() ? 1 : -1) * Math.pow(10, -9 - r.nextInt(5)) / length;
+			vertices.add(new Point(s.p1.x + t * dx - offset * dy, s.p1.y + t * dy + offset * dx));
+		}
+		assertSameVisiblePairs(Scenes.of("near-lines(seed=" + seed + ")", vertices, obstacles));
+	}
+
+	private static void assertSameVisiblePairs(Scenes scene) {
+		List<String> expected = Scenes.signature(KruskalMST.buildEdgeList(scene.points, scene.checker));
+		for (int threads : new int[] { 1, 4 }) {
+			assertEquals(expected, Scenes.signature(VisibilitySweep.buildEdgeList(scene.points, scene.checker, threads)), threads + " 個執行緒");
+			assertEquals(scene.bruteForceKruskal(VisibilityGraph.Weight.SQUARED_EUCLIDEAN), Scenes.signature(VisibilitySweep.findMSTEdges(scene.points, scene.checker, threads)), threads + " 個執行緒");
+		}
+	}
+}
\ No newline at end of file